@@ -0,0 +1,51 @@
+package bench;
+
+import cart.Cartridge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// ROMs for the benchmarks, run from the project root or point jgb.rom at test.gb
+
+final class BenchRoms {
+
+    static final Path TEST_ROM = Path.of(System.getProperty("jgb.rom", "roms/rgbasm/test.gb"));
+
+    private static final int CODE_START = 0x150;
+
+    static byte[] testRom() {
+        try {
+            return Files.readAllBytes(TEST_ROM);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // test.gb's header followed by body repeated to fill the bank and a jump back to its start
+    static Cartridge loop(byte[] body) {
+        byte[] rom = new byte[0x8000];
+        System.arraycopy(testRom(), 0, rom, 0, CODE_START);
+
+        // entry: nop, jp 0x0150
+        rom[0x100] = 0x00;
+        rom[0x101] = (byte) 0xC3;
+        rom[0x102] = (byte) (CODE_START & 0xFF);
+        rom[0x103] = (byte) (CODE_START >> 8);
+
+        int pc = CODE_START;
+        while (pc + body.length + 3 <= 0x4000) {
+            System.arraycopy(body, 0, rom, pc, body.length);
+            pc += body.length;
+        }
+        rom[pc] = (byte) 0xC3;
+        rom[pc + 1] = (byte) (CODE_START & 0xFF);
+        rom[pc + 2] = (byte) (CODE_START >> 8);
+
+        return new Cartridge(rom);
+    }
+
+    private BenchRoms() {}
+
+}
@@ -0,0 +1,48 @@
+package bench;
+
+import cart.Cartridge;
+import core.Core;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// whole frames of the bundled roms/rgbasm/test.gb, with the fast paths on and off. runFrame copies
+// the finished frame out, emulateFrame leaves it in the FrameBuffer
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoreBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean jit;
+
+    @Param({ "true", "false" })
+    public boolean idleSkip;
+
+    private Core core;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.setJitEnabled(jit);
+        core.setIdleLoopSkipping(idleSkip);
+        core.loadCartridge(new Cartridge(BenchRoms.testRom()));
+    }
+
+    @Benchmark
+    public int[] runFrame() {
+        return core.runFrame();
+    }
+
+    @Benchmark
+    public Core emulateFrame() {
+        core.emulateFrame();
+        return core;
+    }
+
+}
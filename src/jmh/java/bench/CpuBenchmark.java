@@ -0,0 +1,70 @@
+package bench;
+
+import core.Core;
+import cpu.dispatch.DispatchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// CPU.step over looping instruction mixes, interpreted with each dispatch mode
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpuBenchmark {
+
+    private static final int STEPS = 1000;
+
+    @Param({ "ALU", "LOAD", "MEMORY", "BRANCH", "CB" })
+    public String mix;
+
+    @Param({ "TABLE", "SWITCH" })
+    public String dispatch;
+
+    private Core core;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        core = new Core(DispatchMode.valueOf(dispatch));
+        core.setFrameLimitEnabled(false);
+        core.setJitEnabled(false);
+        core.setIdleLoopSkipping(false);
+        core.loadCartridge(BenchRoms.loop(program(mix)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public Object step() {
+        Object state = null;
+        for (int i = 0; i < STEPS; i++) {
+            state = core.step();
+        }
+        return state;
+    }
+
+    static byte[] program(String mix) {
+        int[] body = switch (mix) {
+            // add a,b  sub c  and d  or e  xor h  inc a  dec b  cp l  adc a,c  sbc a,d
+            case "ALU" -> new int[] { 0x80, 0x91, 0xA2, 0xB3, 0xAC, 0x3C, 0x05, 0xBD, 0x89, 0x9A };
+            // ld a,b  ld c,d  ld e,h  ld l,a  ld b,c  ld d,e  ld h,n  ld a,n  ld bc,nn
+            case "LOAD" -> new int[] { 0x78, 0x4A, 0x5C, 0x6F, 0x41, 0x53, 0x26, 0x12, 0x3E, 0x34, 0x01, 0x78, 0x56 };
+            // ld hl,C000  ld (hl+),a  ld a,(hl-)  ld b,(hl)  ld (C100),a  ldh a,(80)  ldh (81),a
+            case "MEMORY" -> new int[] { 0x21, 0x00, 0xC0, 0x22, 0x3A, 0x46, 0xEA, 0x00, 0xC1, 0xF0, 0x80, 0xE0, 0x81 };
+            // jr +0  jr nz,+0  jr z,+0  push bc  pop de  jr c,+0
+            case "BRANCH" -> new int[] { 0x18, 0x00, 0x20, 0x00, 0x28, 0x00, 0xC5, 0xD1, 0x38, 0x00 };
+            // rlc b  bit 3,c  set 2,d  res 1,e  swap a  srl h
+            case "CB" -> new int[] { 0xCB, 0x00, 0xCB, 0x59, 0xCB, 0xD2, 0xCB, 0x8B, 0xCB, 0x37, 0xCB, 0x3C };
+            default -> throw new IllegalArgumentException("Unknown mix " + mix);
+        };
+
+        byte[] bytes = new byte[body.length];
+        for (int i = 0; i < body.length; i++) {
+            bytes[i] = (byte) body[i];
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import cart.Cartridge;
+import core.Core;
+import mem.MemoryManagementUnit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// MemoryManagementUnit.read and write over 64 bytes of each region of a loaded test.gb. IO only
+// touches the scroll registers on writes, anything else there would start DMA or move timers
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MmuBenchmark {
+
+    private static final int SPAN = 64;
+
+    @Param({ "ROM0", "ROMX", "TILES", "TILEMAP", "WRAM", "ECHO", "OAM", "IO", "HRAM" })
+    public String region;
+
+    private MemoryManagementUnit mmu;
+    private int base;
+    private int writeBase;
+    private int writeMask;
+    private int value;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(BenchRoms.testRom()));
+        mmu = core.getMMU();
+
+        base = switch (region) {
+            case "ROM0" -> 0x0100;
+            case "ROMX" -> 0x4000;
+            case "TILES" -> 0x8000;
+            case "TILEMAP" -> 0x9800;
+            case "WRAM" -> 0xC000;
+            case "ECHO" -> 0xE000;
+            case "OAM" -> 0xFE00;
+            case "IO" -> 0xFF40;
+            case "HRAM" -> 0xFF80;
+            default -> throw new IllegalArgumentException("Unknown region " + region);
+        };
+
+        // SCY and SCX
+        writeBase = region.equals("IO") ? 0xFF42 : base;
+        writeMask = region.equals("IO") ? 1 : SPAN - 1;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPAN)
+    public int read() {
+        int sum = 0;
+        for (int i = 0; i < SPAN; i++) {
+            sum += mmu.read(base + i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPAN)
+    public void write() {
+        int v = value++;
+        for (int i = 0; i < SPAN; i++) {
+            mmu.write(writeBase + (i & writeMask), v + i);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import cpu.interrupt.InterruptController;
+import mem.MemoryConstants;
+import mem.OAM;
+import mem.VRAM;
+import mtc.TimingConstants;
+import org.openjdk.jmh.annotations.*;
+import ppu.PPU;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// PPU.tick over one frame, which renders all 144 lines, on random VRAM and OAM. the LCDC values
+// switch the layers renderScanline draws:
+//   91  background
+//   B1  background and window
+//   93  background and 8x8 sprites
+//   F7  background, window and 8x16 sprites with the other tile maps
+//   E3  window and sprites with signed tile data
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PpuBenchmark {
+
+    @Param({ "91", "B1", "93", "F7", "E3" })
+    public String lcdc;
+
+    // how many tiles are written between frames: none, some as games do, or all of them, which
+    // decodes every tile for every frame like rendering straight from VRAM bytes
+    @Param({ "none", "some", "all" })
+    public String tileWrites;
+
+    private VRAM vram;
+    private PPU ppu;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        vram = new VRAM();
+        OAM oam = new OAM();
+        ppu = new PPU(vram, oam, new InterruptController());
+
+        for (int address = 0x8000; address <= 0x9FFF; address++) {
+            vram.write(address, random.nextInt(256));
+        }
+        for (int address = 0xFE00; address <= 0xFE9F; address++) {
+            oam.write(address, random.nextInt(256));
+        }
+
+        ppu.write(MemoryConstants.LCDC, Integer.parseInt(lcdc, 16));
+        ppu.write(MemoryConstants.SCX, 3);
+        ppu.write(MemoryConstants.SCY, 5);
+        ppu.write(MemoryConstants.WX, 40);
+        ppu.write(MemoryConstants.WY, 60);
+    }
+
+    @Benchmark
+    public PPU frame() {
+        switch (tileWrites) {
+            case "some" -> {
+                for (int i = 0; i < 64; i++) {
+                    vram.write(0x8000 + random.nextInt(MemoryConstants.TILE_COUNT * MemoryConstants.TILE_SIZE), random.nextInt(256));
+                }
+            }
+            case "all" -> {
+                for (int tile = 0; tile < MemoryConstants.TILE_COUNT; tile++) {
+                    vram.write(0x8000 + tile * MemoryConstants.TILE_SIZE, random.nextInt(256));
+                }
+            }
+            default -> { }
+        }
+        ppu.tick(TimingConstants.CYCLES_PER_FRAME);
+        return ppu;
+    }
+
+}
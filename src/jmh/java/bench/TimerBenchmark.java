@@ -0,0 +1,43 @@
+package bench;
+
+import cpu.interrupt.InterruptController;
+import cpu.interrupt.Timer;
+import mem.MemoryConstants;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Timer.tick in the chunk sizes it sees: one instruction, a scanline and a whole halted frame.
+// TMA is 0 so TIMA overflows and reloads every 256 increments
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerBenchmark {
+
+    @Param({ "4", "456", "70224" })
+    public int cycles;
+
+    // stopped, then enabled at 4096, 262144, 65536 and 16384 Hz
+    @Param({ "00", "04", "05", "06", "07" })
+    public String tac;
+
+    private Timer timer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        timer = new Timer(new InterruptController());
+        timer.write(MemoryConstants.TMA, 0);
+        timer.write(MemoryConstants.TAC, Integer.parseInt(tac, 16));
+    }
+
+    @Benchmark
+    public int tick() {
+        timer.tick(cycles);
+        return timer.getTIMA();
+    }
+
+}
@@ -1,5 +1,6 @@
 import cart.util.CartridgeLoader;
-import core.Overlord;
+import headless.HeadlessRunner;
+import headless.RegressionSuite;
 import save.SaveManager;
 import ui.UserInterface;
 import ui.backup.BackupUserInterface;
@@ -13,8 +14,11 @@ public class Emulator {
 
         boolean headless = Arrays.asList(args).contains("--headless");
         boolean backup = Arrays.asList(args).contains("--backup");
+        boolean testRoms = Arrays.asList(args).contains("--test-roms");
 
-        if (headless) {
+        if (testRoms) {
+            RegressionSuite.main(args);
+        } else if (headless) {
             runHeadless(args);
         } else {
             if (backup) { runBackup(args); }
@@ -22,11 +26,8 @@ public class Emulator {
         }
     }
 
-    private static void runHeadless(String[] args) throws IOException {
-        System.out.println("Running in Headless Mode");
-        Overlord emu = new Overlord();
-        Thread emuThread = new Thread(emu);
-        emuThread.start();
+    private static void runHeadless(String[] args) {
+        HeadlessRunner.main(args);
     }
 
     private static void runNormal(String[] args) throws IOException {
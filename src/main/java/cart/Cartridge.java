@@ -1,5 +1,6 @@
 package cart;
 
+import cart.constants.CartridgeConstants;
 import cart.exceptions.InvalidCartridgeException;
 import cart.exceptions.UnsupportedCartridgeException;
 import cart.header.CartridgeHeader;
@@ -9,7 +10,11 @@ import cart.rom.*;
 import cart.rtc.*;
 import shared.*;
 
-public class Cartridge implements Addressable, Component {
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+public class Cartridge implements Addressable, Component, Stateful {
 
     private final CartridgeHeader header;
     private final ReadOnlyMemory rom;
@@ -17,6 +22,9 @@ public class Cartridge implements Addressable, Component {
     private final ExternalMemory ram;
     private final RealTimeClock rtc;
 
+    private int romChecksum;
+    private boolean romChecksumKnown;
+
     public Cartridge(byte[] romData) {
         this.rom = new ROM(romData);
         this.header = CartridgeHeader.parse(romData);
@@ -33,6 +41,32 @@ public class Cartridge implements Addressable, Component {
         this.mbc = initMBC(header, rom, ram, rtc);
     }
 
+    // the ROM is shared, the RAM's pages until either cartridge writes them. bank registers and
+    // clock are copied
+    private Cartridge(Cartridge source) {
+        this.rom = source.rom;
+        this.header = source.header;
+
+        this.rtc = initRTC(header);
+        this.ram = initRAM(header);
+        this.mbc = initMBC(header, rom, ram, rtc);
+
+        ByteBuffer registers = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        source.mbc.saveState(registers);
+        source.rtc.saveState(registers);
+        registers.flip();
+        mbc.loadState(registers);
+        rtc.loadState(registers);
+        ram.share(source.ram);
+
+        this.romChecksum = source.getROMChecksum();
+        this.romChecksumKnown = true;
+    }
+
+    public Cartridge fork() {
+        return new Cartridge(this);
+    }
+
     @Override
     public byte read(int address) {
         return mbc.read(address);
@@ -60,6 +94,27 @@ public class Cartridge implements Addressable, Component {
 
     public int getCurrentROMBank() { return mbc.getCurrentROMBank(); }
 
+    public int getLowROMBank() { return mbc.getLowROMBank(); }
+
+    public int getROMBankAt(int address) {
+        return address <= CartridgeConstants.ROM_BANK_0_END ? mbc.getLowROMBank() : mbc.getCurrentROMBank();
+    }
+
+    public int getROMOffset(int address) { return mbc.getROMOffset(address); }
+
+    public byte[] getROMData() { return rom.directMemoryAccess(); }
+
+    // CRC32 of the whole ROM, tells save states of different games apart
+    public int getROMChecksum() {
+        if (!romChecksumKnown) {
+            CRC32 crc = new CRC32();
+            crc.update(rom.directMemoryAccess());
+            romChecksum = (int) crc.getValue();
+            romChecksumKnown = true;
+        }
+        return romChecksum;
+    }
+
     public int getCurrentRAMBank() { return mbc.getCurrentRAMBank(); }
 
     public boolean isRAMEnabled() { return mbc.isRAMEnabled(); }
@@ -72,6 +127,11 @@ public class Cartridge implements Addressable, Component {
         return rtc;
     }
 
+    // the RAM's pages as the MBC addresses them, bank after bank
+    public PagedMemory getRAMMemory() {
+        return ram.getMemory();
+    }
+
     public byte[] getSaveData() {
         if (!hasBattery()) { return new byte[0]; }
         return ram.getData();
@@ -82,6 +142,20 @@ public class Cartridge implements Addressable, Component {
         ram.loadData(saveData);
     }
 
+    @Override
+    public void saveState(ByteBuffer out) {
+        mbc.saveState(out);
+        ram.saveState(out);
+        rtc.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        mbc.loadState(in);
+        ram.loadState(in);
+        rtc.loadState(in);
+    }
+
     private RealTimeClock initRTC(CartridgeHeader header) {
         return header.hasRTC() ? new RTC() : NRTC.INSTANCE;
     }
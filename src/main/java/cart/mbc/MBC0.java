@@ -4,6 +4,8 @@ import cart.constants.CartridgeConstants;
 import cart.ram.ExternalMemory;
 import cart.rom.ReadOnlyMemory;
 
+import java.nio.ByteBuffer;
+
 public class MBC0 implements MemoryBankController {
 
     private final ReadOnlyMemory rom;
@@ -19,12 +21,18 @@ public class MBC0 implements MemoryBankController {
     @Override
     public int getCurrentROMBank() { return 0; }
 
+    @Override
+    public int getLowROMBank() { return 0; }
+
     @Override
     public int getCurrentRAMBank() { return 0; }
 
     @Override
     public boolean isRAMEnabled() { return ram.isEnabled(); }
 
+    @Override
+    public int getROMOffset(int address) { return address & CartridgeConstants.ROM_BANK_N_START; }
+
     @Override
     public boolean accepts(int address) {
         return (address >= CartridgeConstants.ROM_BANK_0_START && address <= CartridgeConstants.ROM_BANK_N_END)
@@ -55,4 +63,11 @@ public class MBC0 implements MemoryBankController {
         ram.reset();
         ram.enable();
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {}
+
+    @Override
+    public void loadState(ByteBuffer in) {}
+
 }
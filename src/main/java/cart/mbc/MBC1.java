@@ -4,6 +4,8 @@ import cart.constants.CartridgeConstants;
 import cart.ram.ExternalMemory;
 import cart.rom.ReadOnlyMemory;
 
+import java.nio.ByteBuffer;
+
 public class MBC1 implements MemoryBankController {
 
     private final ReadOnlyMemory rom;
@@ -30,6 +32,11 @@ public class MBC1 implements MemoryBankController {
         return calculateRomBank();
     }
 
+    @Override
+    public int getLowROMBank() {
+        return (bankMode && romBankCount >= 64) ? ((ramBank << 5) % romBankCount) : 0;
+    }
+
     @Override
     public int getCurrentRAMBank() {
         return bankMode ? ramBank : 0;
@@ -40,6 +47,12 @@ public class MBC1 implements MemoryBankController {
         return ramEnabled;
     }
 
+    @Override
+    public int getROMOffset(int address) {
+        int bank = address <= CartridgeConstants.ROM_BANK_0_END ? getLowROMBank() : calculateRomBank();
+        return bank * CartridgeConstants.ROM_BANK_SIZE;
+    }
+
     @Override
     public boolean accepts(int address) {
         return (address >= CartridgeConstants.ROM_BANK_0_START && address <= CartridgeConstants.ROM_BANK_N_END)
@@ -50,7 +63,7 @@ public class MBC1 implements MemoryBankController {
     public byte read(int address) {
         // Bank 0: 0x0000-0x3FFF
         if (address <= CartridgeConstants.ROM_BANK_0_END) {
-            int bank = (bankMode && romBankCount >= 64) ? ((ramBank << 5) % romBankCount) : 0;
+            int bank = getLowROMBank();
             int physical = (bank * CartridgeConstants.ROM_BANK_SIZE) + address;
             return rom.read(physical);
         }
@@ -129,4 +142,19 @@ public class MBC1 implements MemoryBankController {
         ram.reset();
     }
 
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) romBank).put((byte) ramBank);
+        out.put((byte) ((ramEnabled ? 1 : 0) | (bankMode ? 2 : 0)));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        romBank = in.get() & 0xFF;
+        ramBank = in.get() & 0xFF;
+        int flags = in.get();
+        ramEnabled = (flags & 1) != 0;
+        bankMode = (flags & 2) != 0;
+    }
+
 }
@@ -4,6 +4,8 @@ import cart.constants.CartridgeConstants;
 import cart.ram.ExternalMemory;
 import cart.rom.ReadOnlyMemory;
 
+import java.nio.ByteBuffer;
+
 public class MBC2 implements MemoryBankController {
 
     private final ReadOnlyMemory rom;
@@ -26,6 +28,11 @@ public class MBC2 implements MemoryBankController {
         return romBank;
     }
 
+    @Override
+    public int getLowROMBank() {
+        return 0;
+    }
+
     @Override
     public int getCurrentRAMBank() {
         return 0;
@@ -36,6 +43,11 @@ public class MBC2 implements MemoryBankController {
         return ramEnabled;
     }
 
+    @Override
+    public int getROMOffset(int address) {
+        return address <= CartridgeConstants.ROM_BANK_0_END ? 0 : romBank * CartridgeConstants.ROM_BANK_SIZE;
+    }
+
     @Override
     public boolean accepts(int address) {
         return (address >= CartridgeConstants.ROM_BANK_0_START && address <= CartridgeConstants.ROM_BANK_N_END)
@@ -115,5 +127,15 @@ public class MBC2 implements MemoryBankController {
             ram.write(ramAddress, value);
         }
     }
-}
 
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) romBank).put((byte) (ramEnabled ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        romBank = in.get() & 0xFF;
+        ramEnabled = in.get() != 0;
+    }
+}
@@ -5,6 +5,8 @@ import cart.ram.ExternalMemory;
 import cart.rom.ReadOnlyMemory;
 import cart.rtc.RealTimeClock;
 
+import java.nio.ByteBuffer;
+
 // basically just mbc1 but simpler bank handling
 
 public class MBC3 implements MemoryBankController {
@@ -37,6 +39,11 @@ public class MBC3 implements MemoryBankController {
         return romBank;
     }
 
+    @Override
+    public int getLowROMBank() {
+        return 0;
+    }
+
     @Override
     public int getCurrentRAMBank() {
         return ramBankRTC <= 7 ? ramBankRTC : 0;
@@ -47,6 +54,11 @@ public class MBC3 implements MemoryBankController {
         return ramEnabled;
     }
 
+    @Override
+    public int getROMOffset(int address) {
+        return address <= CartridgeConstants.ROM_BANK_0_END ? 0 : (romBank % romBankCount) * CartridgeConstants.ROM_BANK_SIZE;
+    }
+
     @Override
     public boolean accepts(int address) {
         return (address >= CartridgeConstants.ROM_BANK_0_START && address <= CartridgeConstants.ROM_BANK_N_END)
@@ -153,4 +165,18 @@ public class MBC3 implements MemoryBankController {
             }
         }
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) romBank).put((byte) ramBankRTC);
+        out.put((byte) (ramEnabled ? 1 : 0)).put((byte) latchState);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        romBank = in.get() & 0xFF;
+        ramBankRTC = in.get() & 0xFF;
+        ramEnabled = in.get() != 0;
+        latchState = in.get() & 0xFF;
+    }
 }
@@ -3,11 +3,14 @@ package cart.mbc;
 import shared.Addressable;
 import shared.Clocked;
 import shared.Component;
+import shared.Stateful;
 
-public interface MemoryBankController extends Addressable, Component {
+public interface MemoryBankController extends Addressable, Component, Stateful {
 
     int getCurrentROMBank();
+    int getLowROMBank(); // bank mapped to 0x0000-0x3FFF
     int getCurrentRAMBank();
     boolean isRAMEnabled();
+    int getROMOffset(int address); // physical ROM offset of the bank mapped at the address's region
 
 }
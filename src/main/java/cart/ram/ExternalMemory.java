@@ -2,8 +2,10 @@ package cart.ram;
 
 import shared.Addressable;
 import shared.Component;
+import shared.PagedMemory;
+import shared.Stateful;
 
-public interface ExternalMemory extends Addressable, Component {
+public interface ExternalMemory extends Addressable, Component, Stateful {
 
     int getSize();
 
@@ -15,4 +17,11 @@ public interface ExternalMemory extends Addressable, Component {
     byte[] getData();
     void loadData(byte[] data);
 
+    // takes on the contents of a memory of the same kind and size, for a forked cartridge. pages
+    // are shared where the memory has them
+    void share(ExternalMemory source);
+
+    // the backing pages, for tracking written pages
+    PagedMemory getMemory();
+
 }
@@ -1,9 +1,15 @@
 package cart.ram;
 
+import shared.PagedMemory;
+
+import java.nio.ByteBuffer;
+
 public class NRAM implements ExternalMemory {
 
     public static final NRAM INSTANCE = new NRAM();
 
+    private static final PagedMemory EMPTY = new PagedMemory(0, (byte) 0);
+
     private NRAM() {}
 
     @Override
@@ -30,9 +36,22 @@ public class NRAM implements ExternalMemory {
     @Override
     public void loadData(byte[] data) {}
 
+    @Override
+    public void share(ExternalMemory source) {}
+
+    @Override
+    public PagedMemory getMemory() { return EMPTY; }
+
     @Override
     public boolean accepts(int address) { return false; }
 
     @Override
     public void reset() {}
+
+    @Override
+    public void saveState(ByteBuffer out) {}
+
+    @Override
+    public void loadState(ByteBuffer in) {}
+
 }
@@ -1,19 +1,21 @@
 package cart.ram;
 
+import shared.PagedMemory;
+
+import java.nio.ByteBuffer;
+
 // for mbc2, half bytes
 
 public class RAM4 implements ExternalMemory {
 
-    private final byte[] data;
+    private final PagedMemory data;
     private final int size;
     private boolean enabled;
 
     public RAM4() {
         this.size = 512;
-        this.data = new byte[size];
+        this.data = new PagedMemory(size, (byte) 0x0F);
         this.enabled = false;
-
-        clear();
     }
 
     @Override
@@ -39,15 +41,26 @@ public class RAM4 implements ExternalMemory {
     @Override
     public byte[] getData() {
         byte[] copy = new byte[size];
-        System.arraycopy(data, 0, copy, 0, size);
+        data.copyTo(copy, size);
         return copy;
     }
 
     @Override
     public void loadData(byte[] saveData) {
         if (saveData == null) { throw new IllegalArgumentException("Save data null"); }
-        int length = Math.min(saveData.length, size);
-        System.arraycopy(saveData, 0, data, 0, length);
+        data.copyFrom(saveData, Math.min(saveData.length, size));
+    }
+
+    @Override
+    public void share(ExternalMemory source) {
+        if (!(source instanceof RAM4 ram)) { throw new IllegalArgumentException("Not RAM4"); }
+        data.share(ram.data);
+        enabled = ram.enabled;
+    }
+
+    @Override
+    public PagedMemory getMemory() {
+        return data;
     }
 
     @Override
@@ -65,19 +78,29 @@ public class RAM4 implements ExternalMemory {
     public byte read(int address) {
         if (!enabled) { return (byte) 0xFF; }
         int index = address & 0x01FF;
-        return (byte) (data[index] | 0xF0);
+        return (byte) (data.read(index) | 0xF0);
     }
 
     @Override
     public void write(int address, int value) {
         if (!enabled) { return; }
         int index = address & 0x01FF;
-        data[index] = (byte) (value & 0x0F);
+        data.write(index, (byte) (value & 0x0F));
     }
 
     public void clear() {
-        for (int i = 0; i < size; i++) {
-            data[i] = (byte) 0x0F;
-        }
+        data.fill((byte) 0x0F);
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) (enabled ? 1 : 0));
+        data.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        enabled = in.get() != 0;
+        data.loadState(in);
     }
 }
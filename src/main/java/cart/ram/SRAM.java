@@ -1,8 +1,12 @@
 package cart.ram;
 
+import shared.PagedMemory;
+
+import java.nio.ByteBuffer;
+
 public class SRAM implements ExternalMemory {
 
-    private final byte[] data;
+    private final PagedMemory data;
     private final int size;
     private boolean enabled;
 
@@ -11,10 +15,8 @@ public class SRAM implements ExternalMemory {
         if ((sizeInBytes & (sizeInBytes - 1)) != 0) { throw new IllegalArgumentException("SRAM size must be power of 2"); }
 
         this.size = sizeInBytes;
-        this.data = new byte[sizeInBytes];
+        this.data = new PagedMemory(sizeInBytes, (byte) 0xFF);
         this.enabled = false;
-
-        clear();
     }
 
     @Override
@@ -46,39 +48,61 @@ public class SRAM implements ExternalMemory {
     public byte read(int address) {
         if (!enabled) { return (byte) 0xFF; }
         if (address < 0 || address >= size) { return (byte) 0xFF; }
-        return data[address];
+        return data.read(address);
     }
 
     @Override
     public void write(int address, int value) {
         if (!enabled) { return; }
         if (address < 0 || address >= size) { return; }
-        data[address] = (byte) value;
+        data.write(address, (byte) value);
     }
 
     @Override
     public byte[] getData() {
         byte[] copy = new byte[size];
-        System.arraycopy(data, 0, copy, 0, size);
+        data.copyTo(copy, size);
         return copy;
     }
 
     @Override
     public void loadData(byte[] saveData) {
         if (saveData == null) { throw new IllegalArgumentException("Save data null"); }
-        int length = Math.min(saveData.length, size);
-        System.arraycopy(saveData, 0, data, 0, length);
+        data.copyFrom(saveData, Math.min(saveData.length, size));
+    }
+
+    @Override
+    public void share(ExternalMemory source) {
+        if (!(source instanceof SRAM sram)) { throw new IllegalArgumentException("Not SRAM"); }
+        data.share(sram.data);
+        enabled = sram.enabled;
+    }
+
+    @Override
+    public PagedMemory getMemory() {
+        return data;
     }
 
     public void clear() {
-        for (int i = 0; i < size; i++) {
-            data[i] = (byte) 0xFF;
-        }
+        data.fill((byte) 0xFF);
     }
 
+    // a reset keeps the contents, like a cartridge's battery RAM. clearing it here would also hand
+    // a blank save to the battery writer
     @Override
     public void reset() {
         enabled = false;
-        clear();
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) (enabled ? 1 : 0));
+        data.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        enabled = in.get() != 0;
+        data.loadState(in);
     }
 }
@@ -26,4 +26,9 @@ public class ROM implements ReadOnlyMemory {
         return data.length;
     }
 
+    @Override
+    public byte[] directMemoryAccess() {
+        return data;
+    }
+
 }
@@ -8,4 +8,6 @@ public interface ReadOnlyMemory extends Readable {
 
     int getSize();
 
+    byte[] directMemoryAccess();
+
 }
@@ -1,5 +1,7 @@
 package cart.rtc;
 
+import java.nio.ByteBuffer;
+
 public class NRTC implements RealTimeClock {
 
     public static final NRTC INSTANCE = new NRTC();
@@ -17,6 +19,16 @@ public class NRTC implements RealTimeClock {
     @Override
     public void tick(int cycles) {}
 
+    @Override
+    public int cyclesUntilEvent() { return Integer.MAX_VALUE; }
+
     @Override
     public void reset() {}
+
+    @Override
+    public void saveState(ByteBuffer out) {}
+
+    @Override
+    public void loadState(ByteBuffer in) {}
+
 }
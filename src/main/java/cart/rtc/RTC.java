@@ -1,5 +1,7 @@
 package cart.rtc;
 
+import java.nio.ByteBuffer;
+
 public class RTC implements RealTimeClock {
 
     private long baseEpochSeconds;
@@ -125,6 +127,11 @@ public class RTC implements RealTimeClock {
         // conceptually not close to hardware but behaviorally more similar
     }
 
+    @Override
+    public int cyclesUntilEvent() {
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public void reset() {
         baseEpochSeconds = now();
@@ -133,4 +140,30 @@ public class RTC implements RealTimeClock {
         carry = false;
         latched = false;
     }
+
+    // the clock is stored as the time it showed, restoring sets it back to that
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(getElapsedSeconds());
+        out.put((byte) ((halt ? 1 : 0) | (carry ? 2 : 0) | (latched ? 4 : 0)
+                | (latchedHalt ? 8 : 0) | (latchedCarry ? 16 : 0)));
+        out.put((byte) latchedSeconds).put((byte) latchedMinutes).put((byte) latchedHours);
+        out.putShort((short) latchedDays);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        long elapsed = in.getLong();
+        int flags = in.get();
+        halt = (flags & 1) != 0;
+        carry = (flags & 2) != 0;
+        latched = (flags & 4) != 0;
+        latchedHalt = (flags & 8) != 0;
+        latchedCarry = (flags & 16) != 0;
+        latchedSeconds = in.get();
+        latchedMinutes = in.get();
+        latchedHours = in.get();
+        latchedDays = in.getShort();
+        setElapsedSeconds(elapsed);
+    }
 }
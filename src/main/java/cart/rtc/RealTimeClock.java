@@ -2,8 +2,9 @@ package cart.rtc;
 
 import shared.Clocked;
 import shared.Component;
+import shared.Stateful;
 
-public interface RealTimeClock extends Clocked, Component {
+public interface RealTimeClock extends Clocked, Component, Stateful {
 
     int read(int register);
     void write(int register, int value);
@@ -4,9 +4,13 @@ import cart.Cartridge;
 import cpu.CPU;
 import cpu.alu.ALU;
 import cpu.alu.ArithmeticLogicUnit;
+import cpu.decoder.PredecodeCache;
+import cpu.dispatch.DispatchMode;
+import cpu.idle.IdleLoopDetector;
 import cpu.instruction.CycleState;
 import cpu.interrupt.InterruptController;
 import cpu.interrupt.Timer;
+import cpu.jit.BlockCache;
 import cpu.register.RegisterFile;
 import io.InputProvider;
 import io.JoyPad;
@@ -14,14 +18,24 @@ import io.Serial;
 import io.SerialOutputListener;
 import mem.DMAController;
 import mem.MemoryManagementUnit;
+import mtc.JitterHistogram;
 import mtc.MasterTimeController;
+import mtc.PacingMode;
+import ppu.FrameBuffer;
+import ppu.OutputMode;
 import ppu.PPU;
+import save.SaveState;
+import save.exceptions.InvalidSaveStateException;
 import shared.Component;
+import shared.Stateful;
 import snapshot.Snapshot;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class Core implements Component {
 
@@ -35,16 +49,31 @@ public class Core implements Component {
     private final JoyPad joypad;
     private final Serial serial;
     private final MasterTimeController mtc;
+    private final BlockCache blockCache;
+    private final PredecodeCache predecodeCache;
+    private final IdleLoopDetector idleLoops;
+    private final DispatchMode dispatchMode;
 
     private boolean paused;
     private Cartridge cartridge;
+    private Stateful[] stateSections;
+    private ByteBuffer stateBuffer;
+    private Core stateCheck;
 
     private volatile boolean debugMode = false;
+    private volatile boolean jitEnabled = false;
+    private volatile boolean idleLoopSkipping = false;
     private final AtomicReference<Map<Integer, Boolean>> breakpoints = new AtomicReference<>(Map.of());
 
     private Runnable breakpointListener;
 
     public Core() {
+        this(DispatchMode.TABLE);
+    }
+
+    public Core(DispatchMode dispatchMode) {
+
+        this.dispatchMode = dispatchMode;
 
         this.interrupts = new InterruptController();
         this.mmu = new MemoryManagementUnit(interrupts);
@@ -62,14 +91,18 @@ public class Core implements Component {
         mmu.connectSerial(serial);
 
         this.mtc = new MasterTimeController();
+        mmu.connectTimeController(mtc);
 
         mtc.registerComponent(timer);
         mtc.registerComponent(ppu);
         mtc.registerComponent(mmu.getDMA());
 
-        this.registers = new RegisterFile();
         this.alu = new ALU();
-        this.cpu = new CPU(registers, alu, interrupts, mmu, mtc::addCycles);
+        this.registers = new RegisterFile(alu);
+        this.cpu = new CPU(registers, alu, interrupts, mmu, mtc, dispatchMode);
+        this.blockCache = new BlockCache(mmu, mtc::isFrameComplete);
+        this.predecodeCache = new PredecodeCache(mmu);
+        this.idleLoops = new IdleLoopDetector(mmu, ppu, timer, alu);
 
         this.paused = false;
         this.cartridge = null;
@@ -77,7 +110,13 @@ public class Core implements Component {
 
     public void loadCartridge(Cartridge cartridge) {
         this.cartridge = cartridge;
+        this.stateSections = null;
+        this.stateBuffer = null;
+        this.stateCheck = null;
         mmu.loadCartridge(cartridge);
+        blockCache.clear();
+        predecodeCache.clear();
+        idleLoops.clear();
         if (cartridge.hasRTC()) {
             mtc.registerComponent(cartridge.getRTC());
         }
@@ -92,16 +131,32 @@ public class Core implements Component {
         joypad.setInputProvider(provider);
     }
 
+    // told about failures the core recovers from, on the emulation thread
+    public void setFailureListener(Consumer<RuntimeException> listener) {
+        blockCache.setFailureListener(listener);
+    }
+
     public void setSerialOutputListener(SerialOutputListener listener) {
         serial.setOutputListener(listener);
     }
 
     public int[] runFrame() {
+        emulateFrame();
+        return ppu.getFrameBuffer().getFrame();
+    }
+
+    // runs a frame without copying it out, a display picks finished frames up from the FrameBuffer.
+    // the interpreter stops on the M-cycle the frame ends, possibly mid instruction, compiled blocks
+    // only at the next instruction boundary. the machine runs the same cycles in the same order
+    // either way, but between frames memory and registers can differ by the rest of an instruction,
+    // and as each frame counts from where the last stopped the later frame ends shift with it
+    public void emulateFrame() {
         if (paused || !isCartridgeLoaded()) {
-            return ppu.getFrameBuffer().getFrame();
+            return;
         }
 
         mtc.startFrame();
+        updateFastPaths();
 
         while (!mtc.isFrameComplete()) {
 
@@ -129,8 +184,6 @@ public class Core implements Component {
 
         joypad.update();
         mtc.endFrame();
-
-        return ppu.getFrameBuffer().getFrame();
     }
 
     public CycleState step() {
@@ -146,6 +199,94 @@ public class Core implements Component {
         mtc.setFrameLimitEnabled(enabled);
     }
 
+    // 0 leaves the frame limiter unthrottled
+    public void setSpeedMultiplier(double multiplier) {
+        mtc.setSpeedMultiplier(multiplier);
+    }
+
+    public double getSpeedMultiplier() {
+        return mtc.getSpeedMultiplier();
+    }
+
+    public void setPacingMode(PacingMode mode) {
+        mtc.getPacer().setMode(mode);
+    }
+
+    public PacingMode getPacingMode() {
+        return mtc.getPacer().getMode();
+    }
+
+    // frame clock for PacingMode.EXTERNAL, e.g. from a display's vsync, callable from any thread
+    public void signalFrameClock() {
+        mtc.getPacer().signal();
+    }
+
+    // how far paced frames strayed from their period, the limiter has to be on to record
+    public JitterHistogram getFrameJitter() {
+        return mtc.getJitter();
+    }
+
+    public void setFrameSkip(int frames) {
+        ppu.setFrameSkip(frames);
+    }
+
+    public int getFrameSkip() {
+        return ppu.getFrameSkip();
+    }
+
+    public void setJitEnabled(boolean enabled) {
+        this.jitEnabled = enabled;
+        updateFastPaths();
+    }
+
+    public boolean isJitEnabled() {
+        return jitEnabled;
+    }
+
+    public void setIdleLoopSkipping(boolean enabled) {
+        this.idleLoopSkipping = enabled;
+        updateFastPaths();
+    }
+
+    public boolean isIdleLoopSkipping() {
+        return idleLoopSkipping;
+    }
+
+    public long getIdleSkippedCycles() {
+        return idleLoops.getSkippedCycles();
+    }
+
+    // compiled blocks and skipped loops pass over the per step breakpoint checks, so debug mode
+    // always interprets
+    private void updateFastPaths() {
+        cpu.setBlockCache(jitEnabled && !debugMode ? blockCache : null);
+        cpu.setIdleLoopDetector(idleLoopSkipping && !debugMode ? idleLoops : null);
+    }
+
+    public void setOutputMode(OutputMode mode, int[] palette) {
+        ppu.setOutputMode(mode, palette);
+    }
+
+    public OutputMode getOutputMode() {
+        return ppu.getOutputMode();
+    }
+
+    public void setPredecodeEnabled(boolean enabled) {
+        cpu.setPredecodeCache(enabled ? predecodeCache : null);
+    }
+
+    public boolean isPredecodeEnabled() {
+        return cpu.getPredecodeCache() != null;
+    }
+
+    public void setLazyFlags(boolean enabled) {
+        registers.setLazyFlags(enabled);
+    }
+
+    public boolean isLazyFlags() {
+        return registers.isLazyFlags();
+    }
+
     @Override
     public void reset() {
         registers.reset();
@@ -160,10 +301,12 @@ public class Core implements Component {
         cpu.reset();
         registers.setPC(0x0100);
         cartridge.reset();
+        mmu.remap();
     }
 
     public CPU getCPU() { return cpu; }
     public PPU getPPU() { return ppu; }
+    public FrameBuffer getFrameBuffer() { return ppu.getFrameBuffer(); }
     public Timer getTimer() { return timer; }
     public RegisterFile getRegisters() { return registers; }
     public InterruptController getInterrupts() { return interrupts; }
@@ -173,15 +316,139 @@ public class Core implements Component {
     public JoyPad getJoypad() { return joypad; }
     public Cartridge getCartridge() { return cartridge; }
     public DMAController getDMA() { return mmu.getDMA(); }
+    public BlockCache getBlockCache() { return blockCache; }
+    public PredecodeCache getPredecodeCache() { return predecodeCache; }
+    public IdleLoopDetector getIdleLoopDetector() { return idleLoops; }
 
     public double getFPS() { return mtc.getCurrentFps(); }
+    public double getSpeed() { return mtc.getCurrentSpeed(); }
     public long getFrameCount() { return mtc.getFrameCount(); }
 
+    // save states are taken between instructions, one still in flight from stepping is run to its end
+    public byte[] saveState() {
+        if (stateBuffer == null) {
+            stateBuffer = SaveState.allocate(getStateSize());
+        }
+        stateBuffer.clear();
+        saveState(stateBuffer);
+        return Arrays.copyOf(stateBuffer.array(), stateBuffer.position());
+    }
+
+    // bytes a buffer for saveState(ByteBuffer) needs at most, it grows with the cartridge's RAM
+    public int getStateSize() {
+        requireCartridge();
+        return SaveState.maxSize(cartridge.getRAMMemory().getSize());
+    }
+
+    public void saveState(ByteBuffer out) {
+        requireCartridge();
+        cpu.finishInstruction();
+        mtc.sync();
+        SaveState.write(out, cartridge.getROMChecksum(), stateSections());
+    }
+
+    public void loadState(byte[] state) {
+        loadState(ByteBuffer.wrap(state));
+    }
+
+    // a state that is rejected leaves the machine as it was
+    public void loadState(ByteBuffer in) {
+        requireCartridge();
+        checkState(in.duplicate());
+        SaveState.read(in, cartridge.getROMChecksum(), stateSections());
+        stateLoaded();
+    }
+
+    // reads the state into a machine of the same cartridge that is kept for this, so whatever a
+    // component trips over is found before anything here has changed
+    private void checkState(ByteBuffer in) {
+        if (stateCheck == null) {
+            stateCheck = new Core(dispatchMode);
+            stateCheck.loadCartridge(new Cartridge(cartridge.getROMData()));
+        }
+        try {
+            SaveState.read(in, cartridge.getROMChecksum(), stateCheck.stateSections());
+        } catch (InvalidSaveStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidSaveStateException("Save state is damaged: " + e, e);
+        }
+    }
+
+    // a copy that runs on from this machine's current state, e.g. for searching or what-if runs. the
+    // ROM is shared, and so are the pages of WRAM, VRAM, OAM and cartridge RAM until either machine
+    // writes to them. input and serial listeners are not carried over
+    public Core fork() {
+        requireCartridge();
+        cpu.finishInstruction();
+        mtc.sync();
+
+        Core copy = new Core(dispatchMode);
+        copy.cartridge = cartridge.fork();
+        copy.mmu.loadCartridge(copy.cartridge);
+        copy.mmu.getWWRAM().share(mmu.getWWRAM());
+        copy.mmu.getVRAM().share(mmu.getVRAM());
+        copy.mmu.getOAM().share(mmu.getOAM());
+
+        ByteBuffer state = SaveState.allocate(getStateSize());
+        SaveState.write(state, cartridge.getROMChecksum(), forkSections());
+        state.flip();
+        SaveState.read(state, cartridge.getROMChecksum(), copy.forkSections());
+        copy.stateLoaded();
+
+        copy.jitEnabled = jitEnabled;
+        copy.idleLoopSkipping = idleLoopSkipping;
+        copy.setPredecodeEnabled(isPredecodeEnabled());
+        copy.setLazyFlags(isLazyFlags());
+        copy.setOutputMode(getOutputMode(), ppu.getDisplayColors());
+        copy.setFrameSkip(getFrameSkip());
+        copy.setFrameLimitEnabled(mtc.isFrameLimitEnabled());
+        copy.setSpeedMultiplier(getSpeedMultiplier());
+        copy.paused = paused;
+        return copy;
+    }
+
+    // whatever was compiled, predecoded or mapped came from the old memory
+    private void stateLoaded() {
+        blockCache.clear();
+        predecodeCache.clear();
+        idleLoops.clear();
+        mmu.remap();
+        mtc.reschedule();
+    }
+
+    // OAM and VRAM go before the PPU, which rebuilds its sprite list from them
+    private Stateful[] stateSections() {
+        if (stateSections == null) {
+            stateSections = new Stateful[] {
+                    registers, cpu, interrupts, timer,
+                    mmu.getWWRAM(), mmu.getHRAM(), mmu.getIO(), mmu.getOAM(), mmu.getVRAM(),
+                    ppu, mmu.getDMA(), serial, joypad, cartridge, mtc
+            };
+        }
+        return stateSections;
+    }
+
+    // the rest of the machine, the paged memories and the cartridge are shared by fork() instead
+    private Stateful[] forkSections() {
+        return new Stateful[] {
+                registers, cpu, interrupts, timer, mmu.getHRAM(), mmu.getIO(),
+                ppu, mmu.getDMA(), serial, joypad, mtc
+        };
+    }
+
+    private void requireCartridge() {
+        if (!isCartridgeLoaded()) {
+            throw new InvalidSaveStateException("No cartridge loaded");
+        }
+    }
+
     public void setSnapshotRange(int start, int end) {
         cpu.setSnapshotRange(start, end);
     }
 
     public Snapshot createSnapshot() {
+        mtc.sync();
         return new Snapshot(
                 cpu.registerSnapshot(),
                 cpu.flagSnapshot(),
@@ -10,14 +10,24 @@ import io.InputProvider;
 import io.SerialOutputListener;
 import mem.MemoryManagementUnit;
 import mtc.MasterTimeController;
+import mtc.PacingMode;
+import ppu.FrameBuffer;
 import ppu.FrameConstants;
+import ppu.OutputMode;
+import save.BatteryWriter;
+import save.RewindBuffer;
 import snapshot.Snapshot;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class Overlord implements Runnable {
 
@@ -26,9 +36,7 @@ public class Overlord implements Runnable {
 
     private Cartridge cart;
 
-    private final int[] primaryBuffer = new int[160 * 144];
-    private final int[] secondaryBuffer = new int[160 * 144];
-    private volatile int[] frameBuffer = primaryBuffer;
+    private final int[] displayFrame = new int[FrameConstants.WIDTH * FrameConstants.HEIGHT];
 
     private volatile int snapshotInterval = 1;
     private int framesSinceSnapshot = 0;
@@ -37,25 +45,49 @@ public class Overlord implements Runnable {
 
     private final AtomicReference<Snapshot> latestSnapshot = new AtomicReference<>();
 
+    // work that has to happen between frames on the emulation thread
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    // 60 seconds of states, one every other frame
+    public static final int REWIND_CAPACITY = 16 * 1024 * 1024;
+    public static final int REWIND_INTERVAL = 2;
+    public static final int REWIND_SECONDS = 60;
+
+    private RewindBuffer rewind;
+    private volatile boolean rewindEnabled;
+    private volatile boolean rewinding;
+
+    // keeps the battery save file in step with cartridge RAM, emulation thread only
+    private BatteryWriter battery;
+
+    // told why rewind, battery saving or a compiled block was given up, on the emulation thread
+    private volatile Consumer<RuntimeException> failureListener = Overlord::reportUncaught;
+
     public Overlord() {
         this.emulator = new Core();
         this.cart = null;
 
         emulator.setBreakpointListener(this::onBreakpoint);
+        emulator.setFailureListener(e -> failureListener.accept(e));
     }
 
     @Override
     public void run() {
 
-        int[] backBuffer = secondaryBuffer;
-
         while (running) {
-            if (!emulator.isPaused() && emulator.isCartridgeLoaded()) {
-                int[] frame = emulator.runFrame();
-                System.arraycopy(frame, 0, backBuffer, 0, frame.length);
+            runTasks();
 
-                frameBuffer = backBuffer;
-                backBuffer = (backBuffer == primaryBuffer) ? secondaryBuffer : primaryBuffer;
+            if (battery != null) {
+                pollBattery();
+            }
+
+            if (rewinding && rewind != null && emulator.isCartridgeLoaded()) {
+                rewindFrame();
+            } else if (!emulator.isPaused() && emulator.isCartridgeLoaded()) {
+                emulator.emulateFrame();
+                if (rewind != null) {
+                    captureRewind();
+                }
 
                 if (emulator.isDebugModeEnabled()) {
                     framesSinceSnapshot++;
@@ -73,19 +105,91 @@ public class Overlord implements Runnable {
         }
     }
 
-    public int[] getFrame() {
-        return frameBuffer;
+    // one stored state per displayed frame, the frame after it is run so there is something to
+    // show. paused cores rewind too, they only stop once there is nothing older
+    private void rewindFrame() {
+        boolean stepped;
+        try {
+            stepped = rewind.stepBack(emulator);
+        } catch (RuntimeException e) {
+            rewindFailed(e);
+            return;
+        }
+
+        if (stepped) {
+            boolean paused = emulator.isPaused();
+            emulator.resume();
+            emulator.emulateFrame();
+            if (paused) {
+                emulator.pause();
+            }
+            if (emulator.isDebugModeEnabled()) {
+                createSnapshot();
+            }
+        } else {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) {}
+        }
     }
 
-    private void flushFrameBuffer() {
-        Arrays.fill(primaryBuffer, 0);
-        Arrays.fill(secondaryBuffer, 0);
-        frameBuffer = primaryBuffer;
+    // a failing extra must not take the run loop with it, it is turned off and reported
+    private void captureRewind() {
+        try {
+            rewind.onFrame(emulator);
+        } catch (RuntimeException e) {
+            rewindFailed(e);
+        }
+    }
+
+    private void rewindFailed(RuntimeException e) {
+        rewind = null;
+        rewindEnabled = false;
+        rewinding = false;
+        failureListener.accept(new IllegalStateException("Rewind turned off: " + e.getMessage(), e));
+    }
+
+    private void pollBattery() {
+        try {
+            battery.poll(System.nanoTime());
+        } catch (RuntimeException e) {
+            battery = null;
+            failureListener.accept(new IllegalStateException("Battery saving stopped: " + e.getMessage(), e));
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    // finished frames are handed over by the FrameBuffer, displays that can take an IntBuffer
+    // should acquire from it directly
+    public FrameBuffer getFrameBuffer() {
+        return emulator.getFrameBuffer();
+    }
+
+    // copy of the newest frame for displays that want an int[], call from one display thread only
+    public int[] getFrame() {
+        FrameBuffer frames = emulator.getFrameBuffer();
+        int index = frames.acquire();
+        if (index >= 0) {
+            frames.getBuffer(index).get(0, displayFrame);
+        }
+        return displayFrame;
     }
 
     public void loadCartridge(byte[] rom) {
         cart = new Cartridge(rom);
         emulator.loadCartridge(cart);
+        tasks.add(() -> {
+            if (rewind != null) {
+                rewind.clear();
+            }
+            closeBattery();
+        });
 
         if (emulator.isCartridgeLoaded()) {
             createSnapshot();
@@ -96,17 +200,47 @@ public class Overlord implements Runnable {
         emulator.setFrameLimitEnabled(select);
     }
 
+    public void setSpeedMultiplier(double multiplier) {
+        emulator.setSpeedMultiplier(multiplier);
+    }
+
+    public void setFrameSkip(int frames) {
+        emulator.setFrameSkip(frames);
+    }
+
+    public void setPacingMode(PacingMode mode) {
+        emulator.setPacingMode(mode);
+    }
+
+    public void signalFrameClock() {
+        emulator.signalFrameClock();
+    }
+
     public long getFrameCount() {
         return emulator.getFrameCount();
     }
 
+    public double getFPS() {
+        return emulator.getFPS();
+    }
+
+    public double getSpeed() {
+        return emulator.getSpeed();
+    }
+
     public boolean isPaused() {
         return emulator.isPaused();
     }
 
+    // on the emulation thread like every change to the machine, the PPU clears its frames
     public void reset() {
-        emulator.reset();
-        emulator.pause();
+        tasks.add(() -> {
+            emulator.reset();
+            emulator.pause();
+            if (emulator.isDebugModeEnabled() && emulator.isCartridgeLoaded()) {
+                createSnapshot();
+            }
+        });
     }
 
     public boolean isCartridgeLoaded() {
@@ -145,6 +279,28 @@ public class Overlord implements Runnable {
         return emulator.isDebugModeEnabled();
     }
 
+    public void setJitEnabled(boolean enabled) {
+        emulator.setJitEnabled(enabled);
+    }
+
+    // the PPU is drawing into the frames it clears, so the change waits for the end of a frame
+    public void setOutputMode(OutputMode mode, int[] palette) {
+        int[] colors = palette.clone();
+        tasks.add(() -> emulator.setOutputMode(mode, colors));
+    }
+
+    public OutputMode getOutputMode() {
+        return emulator.getOutputMode();
+    }
+
+    public void setIdleLoopSkipping(boolean enabled) {
+        emulator.setIdleLoopSkipping(enabled);
+    }
+
+    public long getIdleSkippedCycles() {
+        return emulator.getIdleSkippedCycles();
+    }
+
 
     public void setSnapshotInterval(int frames) {
         this.snapshotInterval = Math.max(1, frames);
@@ -204,7 +360,101 @@ public class Overlord implements Runnable {
         return this.cart.getSaveData();
     }
 
+    public CompletableFuture<byte[]> saveState() {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        tasks.add(() -> {
+            try {
+                result.complete(emulator.saveState());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> loadState(byte[] state) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        tasks.add(() -> {
+            try {
+                emulator.loadState(state);
+                if (emulator.isDebugModeEnabled()) {
+                    createSnapshot();
+                }
+                result.complete(null);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // the buffer is allocated and freed on the emulation thread, capacity bounds its memory
+    public void setRewindEnabled(boolean enabled) {
+        setRewindEnabled(enabled, REWIND_CAPACITY, REWIND_INTERVAL, REWIND_SECONDS);
+    }
+
+    public void setRewindEnabled(boolean enabled, int capacityBytes, int interval, int seconds) {
+        tasks.add(() -> rewind = enabled
+                ? new RewindBuffer(capacityBytes, interval, seconds * 60 / Math.max(1, interval))
+                : null);
+        rewindEnabled = enabled;
+        if (!enabled) {
+            rewinding = false;
+        }
+    }
+
+    public boolean isRewindEnabled() {
+        return rewindEnabled;
+    }
+
+    public void setFailureListener(Consumer<RuntimeException> listener) {
+        this.failureListener = listener;
+    }
+
+    // while set, the emulation steps back through the captured states instead of running
+    public void setRewinding(boolean rewinding) {
+        this.rewinding = rewinding;
+    }
+
+    public boolean isRewinding() {
+        return rewinding;
+    }
+
+    // saves the cartridge's battery RAM to the file from now on, whenever it changes. load the
+    // existing save first, what the RAM holds when this runs counts as saved
+    public void setBatteryFile(Path file) {
+        Cartridge cartridge = cart;
+        tasks.add(() -> {
+            closeBattery();
+            if (cartridge != null && cartridge.hasBattery() && cartridge.getRAMMemory().getSize() > 0) {
+                battery = new BatteryWriter(cartridge.getRAMMemory(), file);
+            }
+        });
+    }
+
+    // writes what is left and stops saving, completes once the file is written
+    public CompletableFuture<Void> closeBatteryFile() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        tasks.add(() -> closeBattery().thenRun(() -> result.complete(null)));
+        return result;
+    }
+
+    private CompletableFuture<Void> closeBattery() {
+        if (battery == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> closed = battery.close();
+        battery = null;
+        return closed;
+    }
+
     public boolean isSaveCompatible() {
         return cart != null && cart.hasBattery();
     }
+
+    // with no listener set, a failure goes where an uncaught one on this thread would
+    private static void reportUncaught(RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
 }
\ No newline at end of file
@@ -3,12 +3,20 @@ package cpu;
 import cpu.alu.ArithmeticLogicUnit;
 import cpu.callback.CycleCallback;
 import cpu.control.CPUControl;
+import cpu.decoder.DecodedInstruction;
 import cpu.decoder.Decoder;
+import cpu.decoder.PredecodeCache;
+import cpu.dispatch.DispatchMode;
+import cpu.dispatch.InstructionDispatcher;
 import cpu.exception.IllegalOpcodeException;
+import cpu.idle.IdleLoopDetector;
 import cpu.instruction.CycleState;
 import cpu.instruction.ExecutionContext;
 import cpu.instruction.Instruction;
 import cpu.interrupt.InterruptController;
+import cpu.jit.BlockCache;
+import cpu.jit.BlockRuntime;
+import cpu.jit.CompiledBlock;
 import cpu.register.RegisterFile;
 import cpu.register.enums.FLAG;
 import cpu.register.enums.INTERRUPT;
@@ -17,11 +25,13 @@ import cpu.register.enums.R8;
 import cpu.state.CPUState;
 import shared.Addressable;
 import shared.Component;
+import shared.Stateful;
 import snapshot.*;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
-public class CPU implements CPUControl, Component {
+public class CPU implements CPUControl, Component, Stateful {
 
     private final RegisterFile registers;
     private final ArithmeticLogicUnit alu;
@@ -30,18 +40,32 @@ public class CPU implements CPUControl, Component {
     private final CycleCallback callback;
 
     private final ExecutionContext ctx;
+    private final InstructionDispatcher dispatcher;
+    private final BlockRuntime blockRuntime = new CompiledRuntime();
+
+    private BlockCache blocks;
+    private PredecodeCache predecode;
+    private IdleLoopDetector idleLoops;
 
     private int snapshotMemoryStart;
     private int snapshotMemoryEnd;
 
     private CPUState state;
-    private Instruction currentInstruction;
+    private boolean inFlight;
+    private boolean currentPrefixed;
+    private int currentOpcode;
     private boolean haltBug;
 
-    private Instruction lastInstruction;
+    private boolean lastPrefixed;
+    private int lastOpcode = -1;
 
     public CPU(RegisterFile registers, ArithmeticLogicUnit alu, InterruptController interrupts,
                Addressable memory, CycleCallback callback) {
+        this(registers, alu, interrupts, memory, callback, DispatchMode.TABLE);
+    }
+
+    public CPU(RegisterFile registers, ArithmeticLogicUnit alu, InterruptController interrupts,
+               Addressable memory, CycleCallback callback, DispatchMode dispatchMode) {
         this.registers = registers;
         this.alu = alu;
         this.interrupts = interrupts;
@@ -49,8 +73,9 @@ public class CPU implements CPUControl, Component {
         this.callback = callback;
 
         this.ctx = new ExecutionContext(registers, registers, memory, alu, callback, this);
+        this.dispatcher = dispatchMode.create();
         this.state = CPUState.RUNNING;
-        this.currentInstruction = null;
+        this.inFlight = false;
         this.haltBug = false;
     }
 
@@ -62,18 +87,56 @@ public class CPU implements CPUControl, Component {
             return stepStopped();
         }
 
-        if (currentInstruction == null && interrupts.shouldDispatch()) {
+        if (!inFlight && interrupts.shouldDispatch()) {
             return dispatchInterrupt();
         }
 
-        if (currentInstruction == null) {
+        if (!inFlight) {
+            if (idleLoops != null && !haltBug && isLoopBranch() && skipIdleLoop()) {
+                return CycleState.DONE;
+            }
+            if (blocks != null && !haltBug) {
+                CompiledBlock block = blocks.lookup(registers.getPC());
+                if (block != null) {
+                    blocks.retired(block.run(blockRuntime));
+                    return CycleState.DONE;
+                }
+            }
             return fetchAndDecode();
         }
 
         return executeCurrentInstruction();
     }
 
+    // a polling loop only comes around again through its closing JR
+    private boolean isLoopBranch() {
+        return !lastPrefixed && (lastOpcode == 0x18 || lastOpcode == 0x20 || lastOpcode == 0x28
+                || lastOpcode == 0x30 || lastOpcode == 0x38);
+    }
+
+    private boolean skipIdleLoop() {
+        if (interrupts.isIMEScheduled()) {
+            return false;
+        }
+
+        int cycles = idleLoops.skip(registers.getPC(), registers.read(R8.A), registers.getFlagRegister(),
+                callback.idleCycles());
+        if (cycles == 0) {
+            return false;
+        }
+
+        callback.consumeCycles(cycles);
+        return true;
+    }
+
     private CycleState fetchAndDecode() {
+        if (predecode != null && !haltBug) {
+            DecodedInstruction decoded = predecode.lookup(registers.getPC());
+            if (decoded != null) {
+                return beginDecoded(decoded);
+            }
+        }
+
         int pc = registers.getPC();
         int opcode = ctx.fetchByte();
 
@@ -84,19 +147,41 @@ public class CPU implements CPUControl, Component {
 
         if (Decoder.isCBPrefix(opcode)) {
             opcode = ctx.fetchByte();
-            currentInstruction = Decoder.decodeCB(opcode);
+            currentPrefixed = true;
         } else {
-            currentInstruction = Decoder.decode(opcode);
-            if (currentInstruction == null) {
+            if (!Decoder.isValid(opcode)) {
                 return CycleState.DONE;
             }
+            currentPrefixed = false;
         }
 
+        currentOpcode = opcode;
+        inFlight = true;
+
+        return CycleState.CONTINUE;
+    }
+
+    // same cycles as fetchAndDecode, the opcode and operands come from the cache instead of the bus
+    private CycleState beginDecoded(DecodedInstruction decoded) {
+        ctx.tick();
+        registers.addToPC(1);
+        if (decoded.prefixed()) {
+            ctx.tick();
+            registers.addToPC(1);
+        }
+        ctx.prefetch(decoded.operands(), decoded.operandCount());
+
+        currentPrefixed = decoded.prefixed();
+        currentOpcode = decoded.opcode();
+        inFlight = true;
+
         return CycleState.CONTINUE;
     }
 
     private CycleState executeCurrentInstruction() {
-        CycleState result = currentInstruction.execute(ctx);
+        CycleState result = currentPrefixed
+                ? dispatcher.executeCB(currentOpcode, ctx)
+                : dispatcher.execute(currentOpcode, ctx);
 
         switch (result) {
             case DONE -> completeInstruction();
@@ -116,14 +201,67 @@ public class CPU implements CPUControl, Component {
 
     private void completeInstruction() {
 
-        lastInstruction = currentInstruction;
+        lastPrefixed = currentPrefixed;
+        lastOpcode = currentOpcode;
 
-        currentInstruction = null;
+        inFlight = false;
         ctx.reset();
 
         interrupts.updateIME();
     }
 
+    // whole instruction for a compiled block, the opcode fetch only charges its cycle. it can run
+    // a few M-cycles past the frame end, the interpreter would leave those to the next frame
+    private void executeWhole(int opcode, boolean prefixed) {
+        ctx.tick();
+        registers.addToPC(1);
+        if (prefixed) {
+            ctx.tick();
+            registers.addToPC(1);
+        }
+
+        currentPrefixed = prefixed;
+        currentOpcode = opcode;
+
+        CycleState result;
+        do {
+            result = prefixed ? dispatcher.executeCB(opcode, ctx) : dispatcher.execute(opcode, ctx);
+        } while (result == CycleState.CONTINUE);
+
+        completeInstruction();
+    }
+
+    private boolean canContinueBlock() {
+        return !interrupts.shouldDispatch() && !blocks.shouldYield();
+    }
+
+    private final class CompiledRuntime implements BlockRuntime {
+
+        @Override
+        public boolean execute(int opcode) {
+            executeWhole(opcode, false);
+            return canContinueBlock();
+        }
+
+        @Override
+        public boolean executeCB(int opcode) {
+            executeWhole(opcode, true);
+            return canContinueBlock();
+        }
+
+        @Override
+        public boolean executeStore(int opcode) {
+            executeWhole(opcode, false);
+            return canContinueBlock() && !blocks.mappingChanged();
+        }
+
+        @Override
+        public boolean executeStoreCB(int opcode) {
+            executeWhole(opcode, true);
+            return canContinueBlock() && !blocks.mappingChanged();
+        }
+    }
+
     private CycleState dispatchInterrupt() {
         INTERRUPT interrupt = interrupts.acknowledgeInterrupt();
         if (interrupt == null) {
@@ -152,8 +290,14 @@ public class CPU implements CPUControl, Component {
         }
     }
 
+    // nothing can raise an interrupt before the next scheduled event, so the wait up to it is
+    // one bulk tick instead of one step per M-cycle
     private CycleState stepHalted() {
-        ctx.tick();
+        int mCycles = 1;
+        if (!interrupts.hasPending()) {
+            mCycles = Math.max(1, (callback.idleCycles() + 3) / 4);
+        }
+        callback.consumeCycles(mCycles * 4);
 
         if (interrupts.hasPending()) {
             state = CPUState.RUNNING;
@@ -213,10 +357,17 @@ public class CPU implements CPUControl, Component {
         interrupts.reset();
         ctx.reset();
         state = CPUState.RUNNING;
-        currentInstruction = null;
+        inFlight = false;
         haltBug = false;
     }
 
+    // runs the instruction in flight to its end, state is only saved between instructions
+    public void finishInstruction() {
+        while (inFlight) {
+            executeCurrentInstruction();
+        }
+    }
+
     private static boolean isCBPrefix(int opcode) {
         return (opcode & 0xFF) == 0xCB;
     }
@@ -225,13 +376,26 @@ public class CPU implements CPUControl, Component {
     public RegisterFile getRegisters() { return registers; }
     public InterruptController getInterrupts() { return interrupts; }
     public ExecutionContext getContext() { return ctx; }
+    public BlockCache getBlockCache() { return blocks; }
+    public PredecodeCache getPredecodeCache() { return predecode; }
+    public IdleLoopDetector getIdleLoopDetector() { return idleLoops; }
+
+    // null falls back to interpreting everything
+    public void setBlockCache(BlockCache blocks) { this.blocks = blocks; }
+    public void setPredecodeCache(PredecodeCache predecode) { this.predecode = predecode; }
+    public void setIdleLoopDetector(IdleLoopDetector idleLoops) { this.idleLoops = idleLoops; }
 
     public boolean isRunning() { return state == CPUState.RUNNING; }
+    public boolean isInFlight() { return inFlight; }
     public boolean isHalted() { return state == CPUState.HALTED; }
     public boolean isStopped() { return state == CPUState.STOPPED; }
 
     public String getCurrentMnemonic() {
-        return lastInstruction != null ? lastInstruction.mnemonic() : "---";
+        if (lastOpcode < 0) {
+            return "---";
+        }
+        Instruction instruction = lastPrefixed ? Decoder.decodeCB(lastOpcode) : Decoder.decode(lastOpcode);
+        return instruction.mnemonic();
     }
 
     public RegisterSnapshot registerSnapshot() {
@@ -386,4 +550,21 @@ public class CPU implements CPUControl, Component {
         snapshotMemoryEnd = end;
         return true;
     }
-}
\ No newline at end of file
+
+    // saved between instructions, so nothing of the one in flight needs to be kept
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) state.ordinal());
+        out.put((byte) (haltBug ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        state = CPUState.values()[in.get()];
+        haltBug = in.get() != 0;
+        inFlight = false;
+        lastPrefixed = false;
+        lastOpcode = -1;
+        ctx.reset();
+    }
+}
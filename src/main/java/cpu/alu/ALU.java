@@ -1,19 +1,17 @@
 package cpu.alu;
 
-import cpu.alu.result.ALUR16;
-import cpu.alu.result.ALUR8;
-import cpu.alu.result.FLAGR;
+import cpu.alu.result.ALUResult;
 
 public class ALU implements ArithmeticLogicUnit{
 
 
     @Override
-    public ALUR8 add8(int a, int b) {
+    public int add8(int a, int b) {
         a &= 0xFF;
         b &= 0xFF;
         int result = a + b;
 
-        return ALUR8.add(
+        return ALUResult.add(
                 result,
                 (a & 0xF) + (b & 0xF) > 0xF,
                 result > 0xFF
@@ -21,13 +19,13 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 adc(int a, int b, boolean carry) {
+    public int adc(int a, int b, boolean carry) {
         a &= 0xFF;
         b &= 0xFF;
         int c = carry ? 1 : 0;
         int result = a + b + c;
 
-        return ALUR8.add(
+        return ALUResult.add(
                 result,
                 (a & 0xF) + (b & 0xF) + c > 0xF,
                 result > 0xFF
@@ -35,12 +33,12 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 sub(int a, int b) {
+    public int sub(int a, int b) {
         a &= 0xFF;
         b &= 0xFF;
         int result = a - b;
 
-        return ALUR8.sub(
+        return ALUResult.sub(
                 result,
                 (a & 0xF) < (b & 0xF),
                 a < b
@@ -48,13 +46,13 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 sbc(int a, int b, boolean carry) {
+    public int sbc(int a, int b, boolean carry) {
         a &= 0xFF;
         b &= 0xFF;
         int c = carry ? 1 : 0;
         int result = a - b - c;
 
-        return ALUR8.sub(
+        return ALUResult.sub(
                 result,
                 (a & 0xF) < (b & 0xF) + c,
                 a < b + c
@@ -62,16 +60,16 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 cp(int a, int b) {
+    public int cp(int a, int b) {
         return sub(a, b);
     }
 
     @Override
-    public ALUR8 inc8(int a) {
+    public int inc8(int a) {
         a &= 0xFF;
         int result = a + 1;
 
-        return ALUR8.result8(
+        return ALUResult.result8(
                 result,
                 false,
                 (a & 0xF) == 0xF,
@@ -80,11 +78,11 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 dec8(int a) {
+    public int dec8(int a) {
         a &= 0xFF;
         int result = a - 1;
 
-        return ALUR8.result8(
+        return ALUResult.result8(
                 result,
                 true,
                 (a & 0xF) == 0,
@@ -93,40 +91,40 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 and(int a, int b) {
+    public int and(int a, int b) {
         int result = (a & b) & 0xFF;
 
-        return ALUR8.logic(
+        return ALUResult.logic(
                 result,
                 true
         );
     }
 
     @Override
-    public ALUR8 or(int a, int b) {
+    public int or(int a, int b) {
         int result = (a | b) & 0xFF;
 
-        return ALUR8.logic(
+        return ALUResult.logic(
                 result,
                 false
         );
     }
 
     @Override
-    public ALUR8 xor(int a, int b) {
+    public int xor(int a, int b) {
         int result = (a ^ b) & 0xFF;
 
-        return ALUR8.logic(
+        return ALUResult.logic(
                 result,
                 false
         );
     }
 
     @Override
-    public ALUR8 cpl(int a) {
+    public int cpl(int a) {
         int result = (~a) & 0xFF;
 
-        return ALUR8.result8(
+        return ALUResult.result8(
                 result,
                 true,
                 true,
@@ -135,7 +133,7 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 addSigned(int base, int offset) {
+    public int addSigned(int base, int offset) {
         base &= 0xFFFF;
         offset = (byte) offset;
         int result = (base + offset) & 0xFFFF;
@@ -143,17 +141,16 @@ public class ALU implements ArithmeticLogicUnit{
         int unsignedOffset = offset & 0xFF;
         int lowByte = base & 0xFF;
 
-        return ALUR8.result16(
+        return ALUResult.result16(
                 result,
-                false,
                 (lowByte & 0xF) + (unsignedOffset & 0xF) > 0xF,
                 lowByte + unsignedOffset > 0xFF
         );
     }
 
     @Override
-    public ALUR16 add16(int a, int b) {
-        return ALUR16.add(a & 0xFFFF, b & 0xFFFF);
+    public int add16(int a, int b) {
+        return ALUResult.add16(a & 0xFFFF, b & 0xFFFF);
     }
 
     @Override
@@ -167,100 +164,100 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 rlc(int a) {
+    public int rlc(int a) {
         a &= 0xFF;
         int bit7 = (a >> 7) & 1;
         int result = ((a << 1) | bit7) & 0xFF;
 
-        return ALUR8.shift(
+        return ALUResult.shift(
                 result,
                 bit7 == 1
         );
     }
 
     @Override
-    public ALUR8 rrc(int a) {
+    public int rrc(int a) {
         a &= 0xFF;
         int bit0 = a & 1;
         int result = ((a >> 1) | (bit0 << 7)) & 0xFF;
 
-        return ALUR8.shift(
+        return ALUResult.shift(
                 result,
                 bit0 == 1
         );
     }
 
     @Override
-    public ALUR8 rl(int a, boolean carry) {
+    public int rl(int a, boolean carry) {
         a &= 0xFF;
         int bit7 = (a >> 7) & 1;
         int result = ((a << 1) | (carry ? 1 : 0)) & 0xFF;
 
-        return ALUR8.shift(
+        return ALUResult.shift(
                 result,
                 bit7 == 1
         );
     }
 
     @Override
-    public ALUR8 rr(int a, boolean carry) {
+    public int rr(int a, boolean carry) {
         a &= 0xFF;
         int bit0 = a & 1;
         int result = ((a >> 1) | (carry ? 0x80 : 0)) & 0xFF;
 
-        return ALUR8.shift(result,
+        return ALUResult.shift(result,
                 bit0 == 1
         );
     }
 
     @Override
-    public ALUR8 sla(int a) {
+    public int sla(int a) {
         a &= 0xFF;
         int bit7 = (a >> 7) & 1;
         int result = (a << 1) & 0xFF;
 
-        return ALUR8.shift(
+        return ALUResult.shift(
                 result,
                 bit7 == 1
         );
     }
 
     @Override
-    public ALUR8 sra(int a) {
+    public int sra(int a) {
         a &= 0xFF;
         int bit0 = a & 1;
         int bit7 = a & 0x80;
         int result = ((a >> 1) | bit7) & 0xFF;
 
-        return ALUR8.shift(result,
+        return ALUResult.shift(result,
                 bit0 == 1
         );
     }
 
     @Override
-    public ALUR8 srl(int a) {
+    public int srl(int a) {
         a &= 0xFF;
         int bit0 = a & 1;
         int result = (a >> 1) & 0xFF;
 
-        return ALUR8.shift(result,
+        return ALUResult.shift(result,
                 bit0 == 1
         );
     }
 
     @Override
-    public ALUR8 swap(int a) {
+    public int swap(int a) {
         a &= 0xFF;
         int result = ((a & 0x0F) << 4) | ((a & 0xF0) >> 4);
 
-        return ALUR8.shift(result,
+        return ALUResult.shift(result,
                 false
         );
     }
 
     @Override
-    public FLAGR bit(int a, int bit) {
-        return FLAGR.forBit(a & 0xFF, bit);
+    public int bit(int a, int bit) {
+        return ALUResult.forBit(a & 0xFF, bit);
     }
 
     @Override
@@ -274,7 +271,7 @@ public class ALU implements ArithmeticLogicUnit{
     }
 
     @Override
-    public ALUR8 daa(int a, boolean subtract, boolean halfCarry, boolean carry) {
+    public int daa(int a, boolean subtract, boolean halfCarry, boolean carry) {
         a &= 0xFF;
         int correction = 0;
         boolean newCarry = carry;
@@ -300,16 +297,16 @@ public class ALU implements ArithmeticLogicUnit{
 
         a &= 0xFF;
 
-        return ALUR8.result8(a, subtract, false, newCarry);
+        return ALUResult.result8(a, subtract, false, newCarry);
     }
 
     @Override
-    public ALUR8 scf(int a) {
-        return ALUR8.result8(a & 0xFF, false, false, true);
+    public int scf(int a) {
+        return ALUResult.result8(a & 0xFF, false, false, true);
     }
 
     @Override
-    public ALUR8 ccf(int a, boolean carry) {
-        return ALUR8.result8(a & 0xFF, false, false, !carry);
+    public int ccf(int a, boolean carry) {
+        return ALUResult.result8(a & 0xFF, false, false, !carry);
     }
 }
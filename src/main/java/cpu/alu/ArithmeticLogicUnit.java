@@ -1,46 +1,44 @@
 package cpu.alu;
 
-import cpu.alu.result.ALUR16;
-import cpu.alu.result.ALUR8;
-import cpu.alu.result.FLAGR;
+// results are packed ints, see cpu.alu.result.ALUResult
 
 public interface ArithmeticLogicUnit {
 
-    ALUR8 add8(int a, int b);
-    ALUR8 adc(int a, int b, boolean carry);
-    ALUR8 sub(int a, int b);
-    ALUR8 sbc(int a, int b, boolean carry);
-    ALUR8 cp(int a, int b);
-    ALUR8 inc8(int a);
-    ALUR8 dec8(int a);
+    int add8(int a, int b);
+    int adc(int a, int b, boolean carry);
+    int sub(int a, int b);
+    int sbc(int a, int b, boolean carry);
+    int cp(int a, int b);
+    int inc8(int a);
+    int dec8(int a);
 
-    ALUR8 and(int a, int b);
-    ALUR8 or(int a, int b);
-    ALUR8 xor(int a, int b);
-    ALUR8 cpl(int a);
+    int and(int a, int b);
+    int or(int a, int b);
+    int xor(int a, int b);
+    int cpl(int a);
 
-    ALUR8 addSigned(int base, int offset);
+    int addSigned(int base, int offset);
 
-    ALUR16 add16(int a, int b);
+    int add16(int a, int b);
     int inc16(int a);
     int dec16(int a);
 
-    ALUR8 rlc(int a);
-    ALUR8 rrc(int a);
-    ALUR8 rl(int a, boolean carry);
-    ALUR8 rr(int a, boolean carry);
+    int rlc(int a);
+    int rrc(int a);
+    int rl(int a, boolean carry);
+    int rr(int a, boolean carry);
 
-    ALUR8 sla(int a);
-    ALUR8 sra(int a);
-    ALUR8 srl(int a);
-    ALUR8 swap(int a);
+    int sla(int a);
+    int sra(int a);
+    int srl(int a);
+    int swap(int a);
 
-    FLAGR bit(int a, int bit);
+    int bit(int a, int bit);
     int set(int a, int bit);
     int rst(int a, int bit);
 
-    ALUR8 daa(int a, boolean subtract, boolean halfCarry, boolean carry);
-    ALUR8 scf(int a);
-    ALUR8 ccf(int a, boolean carry);
+    int daa(int a, boolean subtract, boolean halfCarry, boolean carry);
+    int scf(int a);
+    int ccf(int a, boolean carry);
 
 }
@@ -0,0 +1,38 @@
+package cpu.alu.enums;
+
+import cpu.alu.ArithmeticLogicUnit;
+
+// 8-bit operations whose flags can be deferred by lazy flag evaluation
+
+public enum OPERATION {
+    ADD, ADC, SUB, SBC, INC, DEC, AND, OR, XOR;
+
+    public int value(int a, int b, boolean carry) {
+        int c = carry ? 1 : 0;
+        return switch (this) {
+            case ADD -> a + b;
+            case ADC -> a + b + c;
+            case SUB -> a - b;
+            case SBC -> a - b - c;
+            case INC -> a + 1;
+            case DEC -> a - 1;
+            case AND -> a & b;
+            case OR -> a | b;
+            case XOR -> a ^ b;
+        } & 0xFF;
+    }
+
+    public int evaluate(ArithmeticLogicUnit alu, int a, int b, boolean carry) {
+        return switch (this) {
+            case ADD -> alu.add8(a, b);
+            case ADC -> alu.adc(a, b, carry);
+            case SUB -> alu.sub(a, b);
+            case SBC -> alu.sbc(a, b, carry);
+            case INC -> alu.inc8(a);
+            case DEC -> alu.dec8(a);
+            case AND -> alu.and(a, b);
+            case OR -> alu.or(a, b);
+            case XOR -> alu.xor(a, b);
+        };
+    }
+}
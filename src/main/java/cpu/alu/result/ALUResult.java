@@ -0,0 +1,85 @@
+package cpu.alu.result;
+
+import cpu.register.enums.FLAG;
+
+// ALU results packed into a single int so the hot path does not allocate.
+// bits 0-15 hold the value, bits 20-23 the flags in F register layout (<< 16)
+
+public final class ALUResult {
+
+    public static final int FLAG_SHIFT = 16;
+
+    // set when the flags were not computed and are held by the ExecutionContext for lazy evaluation
+    public static final int DEFERRED = 1 << 31;
+
+    public static final int Z = FLAG.ZERO.mask();
+    public static final int N = FLAG.SUBTRACT.mask();
+    public static final int H = FLAG.HALF_CARRY.mask();
+    public static final int C = FLAG.CARRY.mask();
+
+    // masks for FlagOperations.writeFlags, unlisted flags are left untouched
+    public static final int ZNHC = Z | N | H | C;
+    public static final int ZNH = Z | N | H;
+    public static final int NHC = N | H | C;
+    public static final int ZHC = Z | H | C;
+    public static final int NH = N | H;
+
+    private ALUResult() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+    public static int pack(int value, boolean zero, boolean subtract, boolean halfCarry, boolean carry) {
+        int flags = (zero ? Z : 0) | (subtract ? N : 0) | (halfCarry ? H : 0) | (carry ? C : 0);
+        return (flags << FLAG_SHIFT) | (value & 0xFFFF);
+    }
+
+    public static int result8(int value, boolean subtract, boolean halfCarry, boolean carry) {
+        int masked = value & 0xFF;
+        return pack(masked, masked == 0, subtract, halfCarry, carry);
+    }
+
+    // this is a quirk of the SM83. This is for Signed Operations, Z and N are always cleared
+    public static int result16(int value, boolean halfCarry, boolean carry) {
+        return pack(value & 0xFFFF, false, false, halfCarry, carry);
+    }
+
+    public static int add(int value, boolean halfCarry, boolean carry) {
+        return result8(value, false, halfCarry, carry);
+    }
+
+    public static int sub(int value, boolean halfCarry, boolean carry) {
+        return result8(value, true, halfCarry, carry);
+    }
+
+    public static int logic(int value, boolean halfCarry) {
+        return result8(value, false, halfCarry, false);
+    }
+
+    public static int shift(int value, boolean carry) {
+        return result8(value, false, false, carry);
+    }
+
+    public static int add16(int a, int b) {
+        int value = a + b;
+        boolean halfCarry = ((a & 0xFFF) + (b & 0xFFF)) > 0xFFF;
+        boolean carry = value > 0xFFFF;
+        return result16(value, halfCarry, carry);
+    }
+
+    public static int forBit(int value, int bit) {
+        boolean isZero = ((value >> bit) & 1) == 0;
+        return pack(0, isZero, false, true, false);
+    }
+
+    public static int value(int result) { return result & 0xFFFF; }
+    public static int flags(int result) { return (result >>> FLAG_SHIFT) & 0xF0; }
+
+    public static boolean zero(int result) { return (flags(result) & Z) != 0; }
+    public static boolean subtract(int result) { return (flags(result) & N) != 0; }
+    public static boolean halfCarry(int result) { return (flags(result) & H) != 0; }
+    public static boolean carry(int result) { return (flags(result) & C) != 0; }
+
+    // RLCA, RRCA, RLA, RRA always clear Z regardless of the result
+    public static int clearZero(int result) { return result & ~(Z << FLAG_SHIFT); }
+
+}
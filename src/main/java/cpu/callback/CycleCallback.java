@@ -5,6 +5,9 @@ public interface CycleCallback {
 
     void consumeCycles(int tCycles);
 
+    // cycles that can pass before anything could wake a halted CPU, 0 when unknown
+    default int idleCycles() { return 0; }
+
     static CycleCallback none() { return tCycles -> {}; }
 
     static CycleCounter counter() { return new CycleCounter(); }
@@ -0,0 +1,11 @@
+package cpu.decoder;
+
+// operands are the immediate bytes after the opcode, first byte in the low bits
+
+public record DecodedInstruction(int opcode, boolean prefixed, int length, int operands) {
+
+    public int operandCount() {
+        return length - (prefixed ? 2 : 1);
+    }
+
+}
@@ -0,0 +1,92 @@
+package cpu.decoder;
+
+import cart.Cartridge;
+import mem.MemoryManagementUnit;
+
+// decoded ROM instructions keyed by the bank mapped at the address and the PC.
+// ROM never changes, so a bank switch only selects a different table and nothing is invalidated
+
+public class PredecodeCache {
+
+    private static final int MAX_BANKS = 512;
+    private static final int BANK_SIZE = 0x4000;
+
+    private final MemoryManagementUnit mmu;
+
+    // index (bank << 1) | region, region 0 = 0x0000-0x3FFF, 1 = 0x4000-0x7FFF
+    private final DecodedInstruction[][] entries = new DecodedInstruction[MAX_BANKS * 2][];
+
+    private long hits;
+    private long misses;
+
+    public PredecodeCache(MemoryManagementUnit mmu) {
+        this.mmu = mmu;
+    }
+
+    // null when the instruction has to be fetched through the bus (not ROM, OAM DMA, illegal opcode)
+    public DecodedInstruction lookup(int pc) {
+        Cartridge cart = mmu.getCartridge();
+        if (pc >= 0x8000 || cart == null || mmu.isDMAActive()) {
+            return null;
+        }
+
+        int region = pc >> 14;
+        int index = ((cart.getROMBankAt(pc) & (MAX_BANKS - 1)) << 1) | region;
+        int offset = pc & (BANK_SIZE - 1);
+
+        DecodedInstruction[] bank = entries[index];
+        if (bank == null) {
+            bank = entries[index] = new DecodedInstruction[BANK_SIZE];
+        }
+
+        DecodedInstruction decoded = bank[offset];
+        if (decoded != null) {
+            hits++;
+            return decoded;
+        }
+
+        misses++;
+        decoded = decode(cart, pc, region == 0 ? 0x3FFF : 0x7FFF);
+        bank[offset] = decoded;
+        return decoded;
+    }
+
+    private static DecodedInstruction decode(Cartridge cart, int pc, int regionEnd) {
+        int opcode = cart.read8(pc);
+
+        if (Decoder.isCBPrefix(opcode)) {
+            if (pc + 1 > regionEnd) {
+                return null;
+            }
+            int cbOpcode = cart.read8(pc + 1);
+            return new DecodedInstruction(cbOpcode, true, 2, 0);
+        }
+
+        if (!Decoder.isValid(opcode)) {
+            return null;
+        }
+
+        int length = Decoder.decode(opcode).length();
+        if (pc + length - 1 > regionEnd) {
+            return null;
+        }
+
+        int operands = 0;
+        for (int i = 1; i < length; i++) {
+            operands |= cart.read8(pc + i) << (8 * (i - 1));
+        }
+        return new DecodedInstruction(opcode, false, length, operands);
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+        hits = 0;
+        misses = 0;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+}
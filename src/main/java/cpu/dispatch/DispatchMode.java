@@ -0,0 +1,17 @@
+package cpu.dispatch;
+
+// how the interpreter gets from an opcode to its handler. TABLE goes through the opcode tables and
+// is the default, SWITCH uses one switch over static methods. neither has a clear lead on a
+// plain step loop, bench.CpuBenchmark compares them per instruction mix
+
+public enum DispatchMode {
+    TABLE,
+    SWITCH;
+
+    public InstructionDispatcher create() {
+        return switch (this) {
+            case TABLE -> new TableDispatcher();
+            case SWITCH -> new SwitchDispatcher();
+        };
+    }
+}
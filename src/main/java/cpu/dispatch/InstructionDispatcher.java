@@ -0,0 +1,14 @@
+package cpu.dispatch;
+
+import cpu.instruction.CycleState;
+import cpu.instruction.ExecutionContext;
+
+// executes one machine cycle step of the opcode currently in flight,
+// same contract as Instruction.execute: CONTINUE until the last step
+
+public interface InstructionDispatcher {
+
+    CycleState execute(int opcode, ExecutionContext ctx);
+    CycleState executeCB(int opcode, ExecutionContext ctx);
+
+}
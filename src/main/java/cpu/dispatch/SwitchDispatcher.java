@@ -0,0 +1,711 @@
+package cpu.dispatch;
+
+import cpu.alu.result.ALUResult;
+import cpu.exception.IllegalOpcodeException;
+import cpu.instruction.CycleState;
+import cpu.instruction.ExecutionContext;
+import cpu.register.enums.CONDITION;
+import cpu.register.enums.R16;
+import cpu.register.enums.R8;
+
+import static cpu.instruction.CycleState.*;
+import static cpu.register.enums.CONDITION.*;
+import static cpu.register.enums.R16.*;
+import static cpu.register.enums.R8.A;
+
+// One switch over the opcode instead of a Function per table entry. Every family is a
+// static method, so each call site is monomorphic and can be inlined by the JIT.
+// Cycle layout is a 1:1 copy of cpu.instruction.definitions, keep both in sync.
+
+public class SwitchDispatcher implements InstructionDispatcher {
+
+    // B, C, D, E, H, L, (HL), A
+    private static final R8[] R8_TABLE = { R8.B, R8.C, R8.D, R8.E, R8.H, R8.L, null, R8.A };
+
+    private static final R16[] R16_TABLE = { BC, DE, HL, SP };
+    private static final R16[] R16_STACK = { BC, DE, HL, AF };
+
+    private static final CONDITION[] CONDITIONS = { NZ, Z, NC, CONDITION.C };
+
+    @Override
+    public CycleState execute(int opcode, ExecutionContext ctx) {
+        return switch (opcode) {
+            case 0x00 -> DONE;
+            case 0x10 -> {
+                ctx.fetchByte();
+                yield STOP;
+            }
+            case 0x76 -> HALT;
+            case 0xF3 -> {
+                ctx.disableInterrupts();
+                yield DONE;
+            }
+            case 0xFB -> {
+                ctx.scheduleInterruptEnable();
+                yield DONE;
+            }
+
+            case 0x01, 0x11, 0x21, 0x31 -> ldR16NN(ctx, R16_TABLE[opcode >> 4]);
+            case 0x03, 0x13, 0x23, 0x33 -> incR16(ctx, R16_TABLE[opcode >> 4]);
+            case 0x0B, 0x1B, 0x2B, 0x3B -> decR16(ctx, R16_TABLE[opcode >> 4]);
+            case 0x09, 0x19, 0x29, 0x39 -> addHL(ctx, R16_TABLE[opcode >> 4]);
+
+            case 0x02 -> store(ctx, ctx.readReg16(BC));
+            case 0x12 -> store(ctx, ctx.readReg16(DE));
+            case 0x22 -> storeHL(ctx, 1);
+            case 0x32 -> storeHL(ctx, -1);
+            case 0x0A -> load(ctx, ctx.readReg16(BC));
+            case 0x1A -> load(ctx, ctx.readReg16(DE));
+            case 0x2A -> loadHL(ctx, 1);
+            case 0x3A -> loadHL(ctx, -1);
+
+            case 0x04, 0x0C, 0x14, 0x1C, 0x24, 0x2C, 0x3C -> incR8(ctx, R8_TABLE[opcode >> 3]);
+            case 0x05, 0x0D, 0x15, 0x1D, 0x25, 0x2D, 0x3D -> decR8(ctx, R8_TABLE[opcode >> 3]);
+            case 0x34 -> incDecHL(ctx, true);
+            case 0x35 -> incDecHL(ctx, false);
+
+            case 0x06, 0x0E, 0x16, 0x1E, 0x26, 0x2E, 0x3E -> {
+                ctx.writeReg8(R8_TABLE[opcode >> 3], ctx.fetchByte());
+                yield DONE;
+            }
+            case 0x36 -> ldHLN(ctx);
+
+            case 0x07, 0x0F, 0x17, 0x1F -> rotateA(ctx, opcode >> 3);
+            case 0x08 -> ldNNSP(ctx);
+
+            case 0x18 -> jr(ctx);
+            case 0x20, 0x28, 0x30, 0x38 -> jrCC(ctx, CONDITIONS[(opcode >> 3) & 0x03]);
+
+            case 0x27 -> daa(ctx);
+            case 0x2F -> {
+                int res = ctx.cpl(ctx.readReg8(A));
+                ctx.writeReg8(A, ALUResult.value(res));
+                ctx.setFlags(res, ALUResult.NH);
+                yield DONE;
+            }
+            case 0x37 -> {
+                ctx.setFlags(ctx.scf(ctx.readReg8(A)), ALUResult.NHC);
+                yield DONE;
+            }
+            case 0x3F -> {
+                ctx.setFlags(ctx.ccf(ctx.readReg8(A)), ALUResult.NHC);
+                yield DONE;
+            }
+
+            case 0xC0, 0xC8, 0xD0, 0xD8 -> retCC(ctx, CONDITIONS[(opcode >> 3) & 0x03]);
+            case 0xC9 -> ret(ctx, false);
+            case 0xD9 -> ret(ctx, true);
+            case 0xC1, 0xD1, 0xE1, 0xF1 -> pop(ctx, R16_STACK[(opcode >> 4) & 0x03]);
+            case 0xC5, 0xD5, 0xE5, 0xF5 -> push(ctx, R16_STACK[(opcode >> 4) & 0x03]);
+
+            case 0xC3 -> jp(ctx, null);
+            case 0xC2, 0xCA, 0xD2, 0xDA -> jp(ctx, CONDITIONS[(opcode >> 3) & 0x03]);
+            case 0xE9 -> {
+                ctx.setPC(ctx.readReg16(HL));
+                yield DONE;
+            }
+            case 0xCD -> call(ctx, null);
+            case 0xC4, 0xCC, 0xD4, 0xDC -> call(ctx, CONDITIONS[(opcode >> 3) & 0x03]);
+            case 0xC7, 0xCF, 0xD7, 0xDF, 0xE7, 0xEF, 0xF7, 0xFF -> rst(ctx, opcode & 0x38);
+
+            case 0xC6, 0xCE, 0xD6, 0xDE, 0xE6, 0xEE, 0xF6, 0xFE -> {
+                alu(ctx, (opcode >> 3) & 0x07, ctx.readReg8(A), ctx.fetchByte());
+                yield DONE;
+            }
+
+            case 0xE0 -> ldhNA(ctx);
+            case 0xF0 -> ldhAN(ctx);
+            case 0xE2 -> {
+                ctx.writeByte(0xFF00 | ctx.readReg8(R8.C), ctx.readReg8(A));
+                yield DONE;
+            }
+            case 0xF2 -> {
+                ctx.writeReg8(A, ctx.readByte(0xFF00 | ctx.readReg8(R8.C)));
+                yield DONE;
+            }
+            case 0xEA -> ldNNA(ctx);
+            case 0xFA -> ldANN(ctx);
+
+            case 0xE8 -> addSPE(ctx);
+            case 0xF8 -> ldHLSPE(ctx);
+            case 0xF9 -> {
+                ctx.tick();
+                ctx.setSP(ctx.readReg16(HL));
+                yield DONE;
+            }
+
+            default -> block(ctx, opcode);
+        };
+    }
+
+    @Override
+    public CycleState executeCB(int opcode, ExecutionContext ctx) {
+        int y = (opcode >> 3) & 0x07;
+        R8 r = R8_TABLE[opcode & 0x07];
+
+        return switch (opcode >> 6) {
+            case 0 -> r != null ? rotateR8(ctx, y, r) : rotateHL(ctx, y);
+            case 1 -> {
+                int value = r != null ? ctx.readReg8(r) : ctx.readByte(ctx.readReg16(HL));
+                ctx.setFlagsBit(ctx.bit(value, y));
+                yield DONE;
+            }
+            case 2 -> r != null ? resSetR8(ctx, y, r, false) : resSetHL(ctx, y, false);
+            case 3 -> r != null ? resSetR8(ctx, y, r, true) : resSetHL(ctx, y, true);
+            default -> throw new IllegalOpcodeException();
+        };
+    }
+
+    // 0x40-0x7F LD r, r' and 0x80-0xBF ALU A, r
+    private static CycleState block(ExecutionContext ctx, int opcode) {
+        R8 dst = R8_TABLE[(opcode >> 3) & 0x07];
+        R8 src = R8_TABLE[opcode & 0x07];
+
+        if (opcode >= 0x40 && opcode <= 0x7F) {
+            if (dst == null) {
+                ctx.writeByte(ctx.readReg16(HL), ctx.readReg8(src));
+            } else if (src == null) {
+                ctx.writeReg8(dst, ctx.readByte(ctx.readReg16(HL)));
+            } else {
+                ctx.writeReg8(dst, ctx.readReg8(src));
+            }
+            return DONE;
+        }
+
+        if (opcode >= 0x80 && opcode <= 0xBF) {
+            int a = ctx.readReg8(A);
+            alu(ctx, (opcode >> 3) & 0x07, a, src != null ? ctx.readReg8(src) : ctx.readByte(ctx.readReg16(HL)));
+            return DONE;
+        }
+
+        throw new IllegalOpcodeException();
+    }
+
+    // ADD, ADC, SUB, SBC, AND, XOR, OR, CP
+    private static void alu(ExecutionContext ctx, int op, int a, int value) {
+        if (op == 7) {
+            ctx.setFlags(ctx.cp(a, value));
+            return;
+        }
+
+        int res = switch (op) {
+            case 0 -> ctx.add(a, value);
+            case 1 -> ctx.adc(a, value);
+            case 2 -> ctx.sub(a, value);
+            case 3 -> ctx.sbc(a, value);
+            case 4 -> ctx.and(a, value);
+            case 5 -> ctx.xor(a, value);
+            default -> ctx.or(a, value);
+        };
+
+        ctx.writeReg8(A, ALUResult.value(res));
+        ctx.setFlags(res);
+    }
+
+    // RLC, RRC, RL, RR, SLA, SRA, SWAP, SRL
+    private static int rotate(ExecutionContext ctx, int op, int value) {
+        return switch (op) {
+            case 0 -> ctx.rlc(value);
+            case 1 -> ctx.rrc(value);
+            case 2 -> ctx.rl(value);
+            case 3 -> ctx.rr(value);
+            case 4 -> ctx.sla(value);
+            case 5 -> ctx.sra(value);
+            case 6 -> ctx.swap(value);
+            default -> ctx.srl(value);
+        };
+    }
+
+    private static CycleState rotateA(ExecutionContext ctx, int op) {
+        int res = rotate(ctx, op, ctx.readReg8(A));
+        ctx.writeReg8(A, ALUResult.value(res));
+        ctx.setFlags(ALUResult.clearZero(res));
+        return DONE;
+    }
+
+    private static CycleState rotateR8(ExecutionContext ctx, int op, R8 r) {
+        int res = rotate(ctx, op, ctx.readReg8(r));
+        ctx.writeReg8(r, ALUResult.value(res));
+        ctx.setFlags(res);
+        return DONE;
+    }
+
+    private static CycleState rotateHL(ExecutionContext ctx, int op) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                int addr = ctx.readReg16(HL);
+                ctx.mcPush(addr);
+                ctx.mcPush(ctx.readByte(addr));
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int res = rotate(ctx, op, ctx.mcPop());
+                ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
+                ctx.setFlags(res);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState resSetR8(ExecutionContext ctx, int bit, R8 r, boolean set) {
+        int value = ctx.readReg8(r);
+        ctx.writeReg8(r, set ? ctx.set(value, bit) : ctx.res(value, bit));
+        return DONE;
+    }
+
+    private static CycleState resSetHL(ExecutionContext ctx, int bit, boolean set) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                int addr = ctx.readReg16(HL);
+                ctx.mcPush(addr);
+                ctx.mcPush(ctx.readByte(addr));
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int value = ctx.mcPop();
+                ctx.writeByte(ctx.mcPop(), set ? ctx.set(value, bit) : ctx.res(value, bit));
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState incR8(ExecutionContext ctx, R8 r) {
+        int res = ctx.inc(ctx.readReg8(r));
+        ctx.writeReg8(r, ALUResult.value(res));
+        ctx.setFlags(res, ALUResult.ZNH);
+        return DONE;
+    }
+
+    private static CycleState decR8(ExecutionContext ctx, R8 r) {
+        int res = ctx.dec(ctx.readReg8(r));
+        ctx.writeReg8(r, ALUResult.value(res));
+        ctx.setFlags(res, ALUResult.ZNH);
+        return DONE;
+    }
+
+    private static CycleState incDecHL(ExecutionContext ctx, boolean inc) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                int addr = ctx.readReg16(HL);
+                ctx.mcPush(addr);
+                ctx.mcPush(ctx.readByte(addr));
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int res = inc ? ctx.inc(ctx.mcPop()) : ctx.dec(ctx.mcPop());
+                ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
+                ctx.setFlags(res, ALUResult.ZNH);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState incR16(ExecutionContext ctx, R16 r) {
+        ctx.tick();
+        ctx.writeReg16(r, ctx.inc16(ctx.readReg16(r)));
+        return DONE;
+    }
+
+    private static CycleState decR16(ExecutionContext ctx, R16 r) {
+        ctx.tick();
+        ctx.writeReg16(r, ctx.dec16(ctx.readReg16(r)));
+        return DONE;
+    }
+
+    private static CycleState addHL(ExecutionContext ctx, R16 r) {
+        ctx.tick();
+        var res = ctx.add16(ctx.readReg16(HL), ctx.readReg16(r));
+        ctx.writeReg16(HL, ALUResult.value(res));
+        ctx.setFlags(res, ALUResult.NHC);
+        return DONE;
+    }
+
+    private static CycleState daa(ExecutionContext ctx) {
+        int res = ctx.daa(ctx.readReg8(A));
+        ctx.writeReg8(A, ALUResult.value(res));
+        ctx.setFlags(res, ALUResult.ZHC);
+        return DONE;
+    }
+
+    private static CycleState store(ExecutionContext ctx, int address) {
+        ctx.writeByte(address, ctx.readReg8(A));
+        return DONE;
+    }
+
+    private static CycleState load(ExecutionContext ctx, int address) {
+        ctx.writeReg8(A, ctx.readByte(address));
+        return DONE;
+    }
+
+    private static CycleState storeHL(ExecutionContext ctx, int delta) {
+        int hl = ctx.readReg16(HL);
+        ctx.writeByte(hl, ctx.readReg8(A));
+        ctx.writeReg16(HL, delta > 0 ? ctx.inc16(hl) : ctx.dec16(hl));
+        return DONE;
+    }
+
+    private static CycleState loadHL(ExecutionContext ctx, int delta) {
+        int hl = ctx.readReg16(HL);
+        ctx.writeReg8(A, ctx.readByte(hl));
+        ctx.writeReg16(HL, delta > 0 ? ctx.inc16(hl) : ctx.dec16(hl));
+        return DONE;
+    }
+
+    private static CycleState ldHLN(ExecutionContext ctx) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                ctx.writeByte(ctx.readReg16(HL), ctx.mcPop());
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState ldR16NN(ExecutionContext ctx, R16 r) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.fetchByte();
+                ctx.writeReg16(r, (hi << 8) | lo);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    // shared first two cycles of every nn operand, leaves the address on the mc stack
+    private static CycleState fetchNN(ExecutionContext ctx) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.fetchByte();
+                ctx.mcPush((hi << 8) | lo);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState ldNNSP(ExecutionContext ctx) {
+        switch (ctx.cycle()) {
+            case 0, 1 -> {
+                return fetchNN(ctx);
+            }
+            case 2 -> {
+                ctx.writeByte(ctx.mcPeek(), ctx.getSP() & 0xFF);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 3 -> {
+                int addr = ctx.mcPop();
+                ctx.writeByte(addr + 1, ctx.getSP() >> 8);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState ldANN(ExecutionContext ctx) {
+        if (ctx.cycle() < 2) {
+            return fetchNN(ctx);
+        }
+        ctx.writeReg8(A, ctx.readByte(ctx.mcPop()));
+        return DONE;
+    }
+
+    private static CycleState ldNNA(ExecutionContext ctx) {
+        if (ctx.cycle() < 2) {
+            return fetchNN(ctx);
+        }
+        ctx.writeByte(ctx.mcPop(), ctx.readReg8(A));
+        return DONE;
+    }
+
+    private static CycleState ldhAN(ExecutionContext ctx) {
+        if (ctx.cycle() == 0) {
+            ctx.mcPush(0xFF00 | ctx.fetchByte());
+            ctx.nextCycle();
+            return CONTINUE;
+        }
+        ctx.writeReg8(A, ctx.readByte(ctx.mcPop()));
+        return DONE;
+    }
+
+    private static CycleState ldhNA(ExecutionContext ctx) {
+        if (ctx.cycle() == 0) {
+            ctx.mcPush(0xFF00 | ctx.fetchByte());
+            ctx.nextCycle();
+            return CONTINUE;
+        }
+        ctx.writeByte(ctx.mcPop(), ctx.readReg8(A));
+        return DONE;
+    }
+
+    private static CycleState addSPE(ExecutionContext ctx) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchSignedByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                ctx.tick();
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 2 -> {
+                ctx.tick();
+                int res = ctx.addSP(ctx.mcPop());
+                ctx.setSP(ALUResult.value(res));
+                ctx.setFlags(res);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState ldHLSPE(ExecutionContext ctx) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchSignedByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                ctx.tick();
+                int res = ctx.addSP(ctx.mcPop());
+                ctx.writeReg16(HL, ALUResult.value(res));
+                ctx.setFlags(res);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState jr(ExecutionContext ctx) {
+        if (ctx.cycle() == 0) {
+            ctx.mcPush(ctx.fetchSignedByte());
+            ctx.nextCycle();
+            return CONTINUE;
+        }
+        ctx.tick();
+        ctx.addToPC(ctx.mcPop());
+        return DONE;
+    }
+
+    private static CycleState jrCC(ExecutionContext ctx, CONDITION cc) {
+        if (ctx.cycle() == 0) {
+            int offset = ctx.fetchSignedByte();
+            if (ctx.checkCondition(cc)) {
+                ctx.mcPush(offset);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            return DONE;
+        }
+        ctx.tick();
+        ctx.addToPC(ctx.mcPop());
+        return DONE;
+    }
+
+    // cc == null is the unconditional form
+    private static CycleState jp(ExecutionContext ctx, CONDITION cc) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.fetchByte();
+                if (cc == null || ctx.checkCondition(cc)) {
+                    ctx.mcPush((hi << 8) | lo);
+                    ctx.nextCycle();
+                    return CONTINUE;
+                }
+                return DONE;
+            }
+            case 2 -> {
+                ctx.tick();
+                ctx.setPC(ctx.mcPop());
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState call(ExecutionContext ctx, CONDITION cc) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.fetchByte());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.fetchByte();
+                if (cc == null || ctx.checkCondition(cc)) {
+                    ctx.mcPush((hi << 8) | lo);
+                    ctx.nextCycle();
+                    return CONTINUE;
+                }
+                return DONE;
+            }
+            case 2 -> {
+                ctx.tick();
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 3 -> {
+                ctx.pushToStack(ctx.getPC() >> 8);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 4 -> {
+                ctx.pushToStack(ctx.getPC() & 0xFF);
+                ctx.setPC(ctx.mcPop());
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState ret(ExecutionContext ctx, boolean enableInterrupts) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.popFromStack());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.popFromStack();
+                ctx.mcPush((hi << 8) | lo);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 2 -> {
+                ctx.tick();
+                ctx.setPC(ctx.mcPop());
+                if (enableInterrupts) {
+                    ctx.enableInterrupts();
+                }
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState retCC(ExecutionContext ctx, CONDITION cc) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.tick();
+                if (ctx.checkCondition(cc)) {
+                    ctx.nextCycle();
+                    return CONTINUE;
+                }
+                return DONE;
+            }
+            case 1 -> {
+                ctx.mcPush(ctx.popFromStack());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 2 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.popFromStack();
+                ctx.mcPush((hi << 8) | lo);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 3 -> {
+                ctx.tick();
+                ctx.setPC(ctx.mcPop());
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState rst(ExecutionContext ctx, int vector) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.tick();
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                ctx.pushToStack(ctx.getPC() >> 8);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 2 -> {
+                ctx.pushToStack(ctx.getPC() & 0xFF);
+                ctx.setPC(vector);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState push(ExecutionContext ctx, R16 r) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.tick();
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                ctx.pushToStack(ctx.readReg16(r) >> 8);
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 2 -> {
+                ctx.pushToStack(ctx.readReg16(r) & 0xFF);
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+    private static CycleState pop(ExecutionContext ctx, R16 r) {
+        switch (ctx.cycle()) {
+            case 0 -> {
+                ctx.mcPush(ctx.popFromStack());
+                ctx.nextCycle();
+                return CONTINUE;
+            }
+            case 1 -> {
+                int lo = ctx.mcPop();
+                int hi = ctx.popFromStack();
+                ctx.writeReg16(r, (hi << 8) | (r == AF ? lo & 0xF0 : lo));
+                return DONE;
+            }
+            default -> throw new IllegalStateException();
+        }
+    }
+
+}
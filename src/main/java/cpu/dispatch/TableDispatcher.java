@@ -0,0 +1,21 @@
+package cpu.dispatch;
+
+import cpu.decoder.Decoder;
+import cpu.instruction.CycleState;
+import cpu.instruction.ExecutionContext;
+
+// reference implementation, runs the lambda opcode tables
+
+public class TableDispatcher implements InstructionDispatcher {
+
+    @Override
+    public CycleState execute(int opcode, ExecutionContext ctx) {
+        return Decoder.decode(opcode).execute(ctx);
+    }
+
+    @Override
+    public CycleState executeCB(int opcode, ExecutionContext ctx) {
+        return Decoder.decodeCB(opcode).execute(ctx);
+    }
+
+}
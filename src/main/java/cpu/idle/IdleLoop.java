@@ -0,0 +1,13 @@
+package cpu.idle;
+
+// one matched polling loop: the IO register it reads, the test applied to A and the closing branch.
+// cycles is one iteration with the branch taken, readAt is when the load sees the register
+
+record IdleLoop(int address, int test, int operand, int branch, int cycles, int readAt) {
+
+    static final int NONE = 0;
+    static final int CP = 1;
+    static final int AND = 2;
+    static final int BIT = 3;
+
+}
@@ -0,0 +1,175 @@
+package cpu.idle;
+
+import cpu.alu.ArithmeticLogicUnit;
+import cpu.alu.result.ALUResult;
+import cpu.interrupt.Timer;
+import mem.MemoryConstants;
+import mem.MemoryManagementUnit;
+import ppu.FrameConstants;
+import ppu.PPU;
+
+// busy-wait loops that only poll an IO register:
+//
+//   loop: LDH A,(n)     or LD A,(nn)       n = LY, STAT, IF or DIV
+//         CP n          or AND n, BIT b,A or nothing
+//         JR cc,loop    or JR loop
+//
+// once an iteration leaves A and F as they were, every further one does the same until the polled
+// register changes, so those iterations are charged as one block of cycles
+
+public class IdleLoopDetector {
+
+    private final MemoryManagementUnit mmu;
+    private final PPU ppu;
+    private final Timer timer;
+    private final ArithmeticLogicUnit alu;
+
+    private long skippedCycles;
+
+    public IdleLoopDetector(MemoryManagementUnit mmu, PPU ppu, Timer timer, ArithmeticLogicUnit alu) {
+        this.mmu = mmu;
+        this.ppu = ppu;
+        this.timer = timer;
+        this.alu = alu;
+    }
+
+    // cycles the loop at pc can be skipped by, idleCycles is how far nothing else can interfere.
+    // 0 when pc is not an idle loop or the next iteration has to run for real
+    public int skip(int pc, int a, int f, int idleCycles) {
+        if (mmu.isDMAActive() || !isCode(pc)) {
+            return 0;
+        }
+
+        IdleLoop loop = match(pc);
+        if (loop == null || idleCycles < loop.cycles()) {
+            return 0;
+        }
+
+        int value = mmu.read8(loop.address());
+        int nextA = value;
+        int nextF = f;
+
+        switch (loop.test()) {
+            case IdleLoop.CP -> nextF = ALUResult.flags(alu.cp(value, loop.operand()));
+            case IdleLoop.AND -> {
+                int result = alu.and(value, loop.operand());
+                nextA = ALUResult.value(result) & 0xFF;
+                nextF = ALUResult.flags(result);
+            }
+            case IdleLoop.BIT -> nextF = (ALUResult.flags(alu.bit(value, loop.operand())) & ALUResult.ZNH) | (f & ALUResult.C);
+        }
+
+        if (nextA != a || nextF != f || !isTaken(loop.branch(), nextF)) {
+            return 0;
+        }
+
+        long stable = cyclesUntilChange(loop.address());
+        if (stable <= loop.readAt()) {
+            return 0;
+        }
+
+        long untilChange = (stable - loop.readAt() - 1) / loop.cycles() + 1;
+        long iterations = Math.min(untilChange, idleCycles / loop.cycles());
+
+        int cycles = (int) (iterations * loop.cycles());
+        skippedCycles += cycles;
+        return cycles;
+    }
+
+    private IdleLoop match(int pc) {
+        int opcode = mmu.read8(pc);
+        int address;
+        int readAt;
+        int length;
+
+        if (opcode == 0xF0) {
+            address = 0xFF00 | mmu.read8(pc + 1);
+            readAt = 12;
+            length = 2;
+        } else if (opcode == 0xFA) {
+            address = mmu.read8(pc + 1) | (mmu.read8(pc + 2) << 8);
+            readAt = 16;
+            length = 3;
+        } else {
+            return null;
+        }
+
+        if (address != MemoryConstants.LY && address != MemoryConstants.STAT
+                && address != MemoryConstants.IF && address != MemoryConstants.DIV) {
+            return null;
+        }
+
+        int test = IdleLoop.NONE;
+        int operand = 0;
+        int cycles = readAt;
+        int next = pc + length;
+
+        int testOpcode = mmu.read8(next);
+        if (testOpcode == 0xFE || testOpcode == 0xE6) {
+            test = testOpcode == 0xFE ? IdleLoop.CP : IdleLoop.AND;
+            operand = mmu.read8(next + 1);
+            cycles += 8;
+            next += 2;
+        } else if (testOpcode == 0xCB && (mmu.read8(next + 1) & 0xC7) == 0x47) {
+            test = IdleLoop.BIT;
+            operand = (mmu.read8(next + 1) >> 3) & 0x07;
+            cycles += 8;
+            next += 2;
+        }
+
+        int branch = mmu.read8(next);
+        if (branch != 0x18 && branch != 0x20 && branch != 0x28 && branch != 0x30 && branch != 0x38) {
+            return null;
+        }
+        if (((next + 2 + (byte) mmu.read8(next + 1)) & 0xFFFF) != pc) {
+            return null;
+        }
+
+        return new IdleLoop(address, test, operand, branch, cycles + 12, readAt);
+    }
+
+    private static boolean isTaken(int branch, int flags) {
+        return switch (branch) {
+            case 0x20 -> (flags & ALUResult.Z) == 0;
+            case 0x28 -> (flags & ALUResult.Z) != 0;
+            case 0x30 -> (flags & ALUResult.C) == 0;
+            case 0x38 -> (flags & ALUResult.C) != 0;
+            default -> true;
+        };
+    }
+
+    // cycles until a read of the register can return something else, the bus read above has
+    // already brought the PPU and timer up to date. IF only moves at scheduled events
+    private long cyclesUntilChange(int address) {
+        return switch (address) {
+            case MemoryConstants.LY -> ppu.isLCDEnabled()
+                    ? FrameConstants.DOTS_PER_SCANLINE - ppu.getDot()
+                    : Long.MAX_VALUE;
+            case MemoryConstants.STAT -> ppu.isLCDEnabled()
+                    ? Math.max(modeEnd() - ppu.getDot(), 1)
+                    : Long.MAX_VALUE;
+            case MemoryConstants.DIV -> 0x100 - (timer.getInternalCounter() & 0xFF);
+            default -> Long.MAX_VALUE;
+        };
+    }
+
+    private int modeEnd() {
+        return switch (ppu.getMode()) {
+            case OAM_SCAN -> FrameConstants.OAM_SCAN_DOTS;
+            case DRAWING -> FrameConstants.OAM_SCAN_DOTS + FrameConstants.DRAWING_MIN_DOTS;
+            default -> FrameConstants.DOTS_PER_SCANLINE;
+        };
+    }
+
+    // VRAM and OAM reads depend on the PPU mode and IO must not be touched twice
+    private static boolean isCode(int pc) {
+        return pc < 0x8000 || (pc >= 0xA000 && pc < 0xFE00) || (pc >= 0xFF80 && pc < 0xFFFF);
+    }
+
+    public long getSkippedCycles() { return skippedCycles; }
+
+    public void clear() {
+        skippedCycles = 0;
+    }
+
+}
@@ -2,9 +2,8 @@ package cpu.instruction;
 
 import cpu.alu.ALU;
 import cpu.alu.ArithmeticLogicUnit;
-import cpu.alu.result.ALUR16;
-import cpu.alu.result.ALUR8;
-import cpu.alu.result.FLAGR;
+import cpu.alu.enums.OPERATION;
+import cpu.alu.result.ALUResult;
 import cpu.callback.CycleCallback;
 import cpu.control.CPUControl;
 import cpu.register.FlagOperations;
@@ -29,6 +28,14 @@ public class ExecutionContext {
     private final int[] mcStack = new int[4];
     private int mcSP;
 
+    // immediate bytes of a predecoded instruction, served by fetchByte in place of a bus read
+    private int prefetched;
+    private int prefetchedCount;
+
+    private OPERATION deferredOperation;
+    private int deferredA, deferredB;
+    private boolean deferredCarry;
+
     public ExecutionContext(Registers registers, FlagOperations flags, Addressable memory,
                             ArithmeticLogicUnit alu, CycleCallback callback, CPUControl control) {
         this.registers = registers;
@@ -45,6 +52,20 @@ public class ExecutionContext {
     public void reset() {
         cycle = 0;
         mcSP = 0;
+        prefetchedCount = 0;
+    }
+
+    public void prefetch(int operands, int count) {
+        prefetched = operands;
+        prefetchedCount = count;
+    }
+
+    private int nextOperand() {
+        int value = prefetched & 0xFF;
+        prefetched >>>= 8;
+        prefetchedCount--;
+        registers.getAndIncPC();
+        return value;
     }
 
     public void mcPush(int value) { mcStack[mcSP++] = value; }
@@ -54,11 +75,17 @@ public class ExecutionContext {
 
     public int fetchByte() {
         callback.consumeCycles(4);
+        if (prefetchedCount > 0) {
+            return nextOperand();
+        }
         return memory.read8(registers.getAndIncPC());
     }
 
     public int fetchSignedByte() {
         callback.consumeCycles(4);
+        if (prefetchedCount > 0) {
+            return (byte) nextOperand();
+        }
         return memory.read8Signed(registers.getAndIncPC());
     }
 
@@ -105,47 +132,64 @@ public class ExecutionContext {
     public boolean halfCarry() { return flags.getFlag(FLAG.HALF_CARRY); }
     public boolean subtract() { return flags.getFlag(FLAG.SUBTRACT); }
 
-    public void setFlags(ALUR8 r) { flags.setFlags(r); }
-    public void setFlags(Boolean z, Boolean n, Boolean h, Boolean c) { flags.setFlags(z, n, h, c); }
+    public void setFlags(int result) { setFlags(result, ALUResult.ZNHC); }
+    public void setFlags(int result, int mask) {
+        if ((result & ALUResult.DEFERRED) != 0) {
+            flags.deferFlags(deferredOperation, deferredA, deferredB, deferredCarry, mask);
+        } else {
+            flags.writeFlags(ALUResult.flags(result), mask);
+        }
+    }
 
-    public void setFlagsBit(FLAGR r) { flags.setFlags(r.zero(), r.subtract(), r.halfCarry(), null); }
+    public void setFlagsBit(int result) { setFlags(result, ALUResult.ZNH); }
 
     public boolean checkCondition(CONDITION c) { return flags.checkCondition(c); }
 
     public ALU alu() { return (ALU) alu; }
 
-    public ALUR8 add(int a, int b) { return alu.add8(a, b); }
-    public ALUR8 adc(int a, int b) { return alu.adc(a, b, carry()); }
-    public ALUR8 sub(int a, int b) { return alu.sub(a, b); }
-    public ALUR8 sbc(int a, int b) { return alu.sbc(a, b, carry()); }
-    public ALUR8 cp(int a, int b) { return alu.cp(a, b); }
-    public ALUR8 inc(int a) { return alu.inc8(a); }
-    public ALUR8 dec(int a) { return alu.dec8(a); }
-
-    public ALUR8 and(int a, int b) { return alu.and(a, b); }
-    public ALUR8 or(int a, int b) { return alu.or(a, b); }
-    public ALUR8 xor(int a, int b) { return alu.xor(a, b); }
-    public ALUR8 cpl(int a) { return alu.cpl(a); }
-
-    public ALUR16 add16(int a, int b) { return alu.add16(a, b); }
-    public ALUR8 addSP(int offset) { return alu.addSigned(getSP(), offset); }
+    // lazy flags: only the value is computed, the operands travel with the result into setFlags
+    private int defer(OPERATION operation, int a, int b, boolean carry) {
+        deferredOperation = operation;
+        deferredA = a;
+        deferredB = b;
+        deferredCarry = carry;
+        return operation.value(a, b, carry) | ALUResult.DEFERRED;
+    }
+
+    public int add(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.ADD, a, b, false) : alu.add8(a, b); }
+    public int adc(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.ADC, a, b, carry()) : alu.adc(a, b, carry()); }
+    public int sub(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.SUB, a, b, false) : alu.sub(a, b); }
+    public int sbc(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.SBC, a, b, carry()) : alu.sbc(a, b, carry()); }
+    public int cp(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.SUB, a, b, false) : alu.cp(a, b); }
+    public int inc(int a) { return flags.isLazyFlags() ? defer(OPERATION.INC, a, 0, false) : alu.inc8(a); }
+    public int dec(int a) { return flags.isLazyFlags() ? defer(OPERATION.DEC, a, 0, false) : alu.dec8(a); }
+
+    public int and(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.AND, a, b, false) : alu.and(a, b); }
+    public int or(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.OR, a, b, false) : alu.or(a, b); }
+    public int xor(int a, int b) { return flags.isLazyFlags() ? defer(OPERATION.XOR, a, b, false) : alu.xor(a, b); }
+    public int cpl(int a) { return alu.cpl(a); }
+
+    public int add16(int a, int b) { return alu.add16(a, b); }
+    public int addSP(int offset) { return alu.addSigned(getSP(), offset); }
     public int inc16(int a) { return alu.inc16(a); }
     public int dec16(int a) { return alu.dec16(a); }
 
-    public ALUR8 rlc(int a) { return alu.rlc(a); }
-    public ALUR8 rrc(int a) { return alu.rrc(a); }
-    public ALUR8 rl(int a) { return alu.rl(a, carry()); }
-    public ALUR8 rr(int a) { return alu.rr(a, carry()); }
-    public ALUR8 sla(int a) { return alu.sla(a); }
-    public ALUR8 sra(int a) { return alu.sra(a); }
-    public ALUR8 srl(int a) { return alu.srl(a); }
-    public ALUR8 swap(int a) { return alu.swap(a); }
+    public int rlc(int a) { return alu.rlc(a); }
+    public int rrc(int a) { return alu.rrc(a); }
+    public int rl(int a) { return alu.rl(a, carry()); }
+    public int rr(int a) { return alu.rr(a, carry()); }
+    public int sla(int a) { return alu.sla(a); }
+    public int sra(int a) { return alu.sra(a); }
+    public int srl(int a) { return alu.srl(a); }
+    public int swap(int a) { return alu.swap(a); }
 
-    public FLAGR bit(int a, int bit) { return alu.bit(a, bit); }
+    public int bit(int a, int bit) { return alu.bit(a, bit); }
     public int set(int a, int bit) { return alu.set(a, bit); }
     public int res(int a, int bit) { return alu.rst(a, bit); }
 
-    public ALUR8 daa(int a) { return alu.daa(a, subtract(), halfCarry(), carry()); }
+    public int daa(int a) { return alu.daa(a, subtract(), halfCarry(), carry()); }
+    public int scf(int a) { return alu.scf(a); }
+    public int ccf(int a) { return alu.ccf(a, carry()); }
 
     public void scheduleInterruptEnable() { control.scheduleEnableInterrupts(); }
     public void enableInterrupts() { control.enableInterrupts(); }
@@ -1,5 +1,6 @@
 package cpu.instruction.definitions;
 
+import cpu.alu.result.ALUResult;
 import cpu.instruction.Instruction;
 import cpu.register.enums.R8;
 import cpu.register.enums.R16;
@@ -25,7 +26,7 @@ public class ArithmeticInstructions {
     public static Instruction ADD_A_R8(R8 r) {
         return Instruction.create(1, "ADD A " + r, ctx -> {
             var res = ctx.add(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -43,7 +44,7 @@ public class ArithmeticInstructions {
     public static Instruction ADD_A_HL() {
         return Instruction.create(1, "ADD A (HL)", ctx -> {
             var res = ctx.add(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -60,7 +61,7 @@ public class ArithmeticInstructions {
     public static Instruction ADD_A_N() {
         return Instruction.create(2, "ADD A n", ctx -> {
             var res = ctx.add(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -78,7 +79,7 @@ public class ArithmeticInstructions {
     public static Instruction ADC_A_R8(R8 r) {
         return Instruction.create(1, "ADC A " + r, ctx -> {
             var res = ctx.adc(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -96,7 +97,7 @@ public class ArithmeticInstructions {
     public static Instruction ADC_A_HL() {
         return Instruction.create(1, "ADC A (HL)", ctx -> {
             var res = ctx.adc(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -114,7 +115,7 @@ public class ArithmeticInstructions {
     public static Instruction ADC_A_N() {
         return Instruction.create(2, "ADC A n", ctx -> {
             var res = ctx.adc(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -132,7 +133,7 @@ public class ArithmeticInstructions {
     public static Instruction SUB_R8(R8 r) {
         return Instruction.create(1, "SUB " + r, ctx -> {
             var res = ctx.sub(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -150,7 +151,7 @@ public class ArithmeticInstructions {
     public static Instruction SUB_HL() {
         return Instruction.create(1, "SUB (HL)", ctx -> {
             var res = ctx.sub(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -168,7 +169,7 @@ public class ArithmeticInstructions {
     public static Instruction SUB_N() {
         return Instruction.create(2, "SUB n", ctx -> {
             var res = ctx.sub(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -186,7 +187,7 @@ public class ArithmeticInstructions {
     public static Instruction SBC_A_R8(R8 r) {
         return Instruction.create(1, "SBC A " + r, ctx -> {
             var res = ctx.sbc(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -204,7 +205,7 @@ public class ArithmeticInstructions {
     public static Instruction SBC_A_HL() {
         return Instruction.create(1, "SBC A (HL)", ctx -> {
             var res = ctx.sbc(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -222,7 +223,7 @@ public class ArithmeticInstructions {
     public static Instruction SBC_A_N() {
         return Instruction.create(2, "SBC A n", ctx -> {
             var res = ctx.sbc(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -288,8 +289,8 @@ public class ArithmeticInstructions {
     public static Instruction INC_R8(R8 r) {
         return Instruction.create(1, "INC " + r, ctx -> {
             var res = ctx.inc(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
-            ctx.setFlags(res.zero(), res.subtract(), res.halfCarry(), null);
+            ctx.writeReg8(r, ALUResult.value(res));
+            ctx.setFlags(res, ALUResult.ZNH);
             return DONE;
         });
     }
@@ -314,8 +315,8 @@ public class ArithmeticInstructions {
                     }
                     case 1 -> {
                         var res = ctx.inc(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
-                        ctx.setFlags(res.zero(), res.subtract(), res.halfCarry(), null);
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
+                        ctx.setFlags(res, ALUResult.ZNH);
                         yield DONE;
                     }
                     default -> throw new IllegalStateException();
@@ -333,8 +334,8 @@ public class ArithmeticInstructions {
     public static Instruction DEC_R8(R8 r) {
         return Instruction.create(1, "DEC " + r, ctx -> {
             var res = ctx.dec(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
-            ctx.setFlags(res.zero(), res.subtract(), res.halfCarry(), null);
+            ctx.writeReg8(r, ALUResult.value(res));
+            ctx.setFlags(res, ALUResult.ZNH);
             return DONE;
         });
     }
@@ -359,8 +360,8 @@ public class ArithmeticInstructions {
                     }
                     case 1 -> {
                         var res = ctx.dec(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
-                        ctx.setFlags(res.zero(), res.subtract(), res.halfCarry(), null);
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
+                        ctx.setFlags(res, ALUResult.ZNH);
                         yield DONE;
                     }
                     default -> throw new IllegalStateException();
@@ -380,8 +381,8 @@ public class ArithmeticInstructions {
         return Instruction.create(1, "ADD HL " + r, ctx -> {
             ctx.tick();
             var res = ctx.add16(ctx.readReg16(HL), ctx.readReg16(r));
-            ctx.writeReg16(HL, res.value());
-            ctx.setFlags(null, false, res.halfCarry(), res.carry());
+            ctx.writeReg16(HL, ALUResult.value(res));
+            ctx.setFlags(res, ALUResult.NHC);
             return DONE;
         });
     }
@@ -411,8 +412,8 @@ public class ArithmeticInstructions {
                     case 2 -> {
                         ctx.tick();
                         var res = ctx.addSP(ctx.mcPop());
-                        ctx.setSP(res.value());
-                        ctx.setFlags(false, false, res.halfCarry(), res.carry());
+                        ctx.setSP(ALUResult.value(res));
+                        ctx.setFlags(res);
                         yield DONE;
                     }
                     default -> throw new IllegalStateException();
@@ -461,8 +462,8 @@ public class ArithmeticInstructions {
     public static Instruction DAA() {
         return Instruction.create(1, "DAA", ctx -> {
             var res = ctx.daa(ctx.readReg8(A));
-            ctx.writeReg8(A, res.value());
-            ctx.setFlags(res.zero(), null, false, res.carry());
+            ctx.writeReg8(A, ALUResult.value(res));
+            ctx.setFlags(res, ALUResult.ZHC);
             return DONE;
         });
     }
@@ -477,8 +478,9 @@ public class ArithmeticInstructions {
      */
     public static Instruction CPL() {
         return Instruction.create(1, "CPL", ctx -> {
-            ctx.writeReg8(A, ctx.readReg8(A) ^ 0xFF);
-            ctx.setFlags(null, true, true, null);
+            var res = ctx.cpl(ctx.readReg8(A));
+            ctx.writeReg8(A, ALUResult.value(res));
+            ctx.setFlags(res, ALUResult.NH);
             return DONE;
         });
     }
@@ -493,7 +495,7 @@ public class ArithmeticInstructions {
      */
     public static Instruction SCF() {
         return Instruction.create(1, "SCF", ctx -> {
-            ctx.setFlags(null, false, false, true);
+            ctx.setFlags(ctx.scf(ctx.readReg8(A)), ALUResult.NHC);
             return DONE;
         });
     }
@@ -508,7 +510,7 @@ public class ArithmeticInstructions {
      */
     public static Instruction CCF() {
         return Instruction.create(1, "CCF", ctx -> {
-            ctx.setFlags(null, false, false, !ctx.carry());
+            ctx.setFlags(ctx.ccf(ctx.readReg8(A)), ALUResult.NHC);
             return DONE;
         });
     }
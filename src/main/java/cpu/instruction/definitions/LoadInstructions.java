@@ -1,6 +1,7 @@
 package cpu.instruction.definitions;
 
 
+import cpu.alu.result.ALUResult;
 import cpu.instruction.Instruction;
 import cpu.register.enums.R8;
 import cpu.register.enums.R16;
@@ -482,8 +483,8 @@ public class LoadInstructions {
                     case 1 -> {
                         ctx.tick();
                         var r = ctx.addSP(ctx.mcPop());
-                        ctx.writeReg16(HL, r.value());
-                        ctx.setFlags(false, false, r.halfCarry(), r.carry());
+                        ctx.writeReg16(HL, ALUResult.value(r));
+                        ctx.setFlags(r);
                         yield DONE;
                     }
                     default -> throw new IllegalStateException();
@@ -1,5 +1,6 @@
 package cpu.instruction.definitions;
 
+import cpu.alu.result.ALUResult;
 import cpu.instruction.Instruction;
 import cpu.register.enums.R8;
 
@@ -25,7 +26,7 @@ public class LogicInstructions {
     public static Instruction AND_R8(R8 r) {
         return Instruction.create(1, "AND " + r, ctx -> {
             var res = ctx.and(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -43,7 +44,7 @@ public class LogicInstructions {
     public static Instruction AND_HL() {
         return Instruction.create(1, "AND (HL)", ctx -> {
             var res = ctx.and(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -61,7 +62,7 @@ public class LogicInstructions {
     public static Instruction AND_N() {
         return Instruction.create(2, "AND n", ctx -> {
             var res = ctx.and(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -79,7 +80,7 @@ public class LogicInstructions {
     public static Instruction OR_R8(R8 r) {
         return Instruction.create(1, "OR " + r, ctx -> {
             var res = ctx.or(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -97,7 +98,7 @@ public class LogicInstructions {
     public static Instruction OR_HL() {
         return Instruction.create(1, "OR (HL)", ctx -> {
             var res = ctx.or(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -115,7 +116,7 @@ public class LogicInstructions {
     public static Instruction OR_N() {
         return Instruction.create(2, "OR n", ctx -> {
             var res = ctx.or(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -133,7 +134,7 @@ public class LogicInstructions {
     public static Instruction XOR_R8(R8 r) {
         return Instruction.create(1, "XOR " + r, ctx -> {
             var res = ctx.xor(ctx.readReg8(A), ctx.readReg8(r));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -151,7 +152,7 @@ public class LogicInstructions {
     public static Instruction XOR_HL() {
         return Instruction.create(1, "XOR (HL)", ctx -> {
             var res = ctx.xor(ctx.readReg8(A), ctx.readByte(ctx.readReg16(HL)));
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -169,7 +170,7 @@ public class LogicInstructions {
     public static Instruction XOR_N() {
         return Instruction.create(2, "XOR n", ctx -> {
             var res = ctx.xor(ctx.readReg8(A), ctx.fetchByte());
-            ctx.writeReg8(A, res.value());
+            ctx.writeReg8(A, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
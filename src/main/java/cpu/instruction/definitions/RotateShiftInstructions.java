@@ -1,5 +1,6 @@
 package cpu.instruction.definitions;
 
+import cpu.alu.result.ALUResult;
 import cpu.instruction.Instruction;
 import cpu.register.enums.R8;
 
@@ -31,8 +32,8 @@ public class RotateShiftInstructions {
     public static Instruction RLCA() {
         return Instruction.create(1, "RLCA", ctx -> {
             var res = ctx.rlc(ctx.readReg8(A));
-            ctx.writeReg8(A, res.value());
-            ctx.setFlags(false, false, false, res.carry());
+            ctx.writeReg8(A, ALUResult.value(res));
+            ctx.setFlags(ALUResult.clearZero(res));
             return DONE;
         });
     }
@@ -55,8 +56,8 @@ public class RotateShiftInstructions {
     public static Instruction RRCA() {
         return Instruction.create(1, "RRCA", ctx -> {
             var res = ctx.rrc(ctx.readReg8(A));
-            ctx.writeReg8(A, res.value());
-            ctx.setFlags(false, false, false, res.carry());
+            ctx.writeReg8(A, ALUResult.value(res));
+            ctx.setFlags(ALUResult.clearZero(res));
             return DONE;
         });
     }
@@ -79,8 +80,8 @@ public class RotateShiftInstructions {
     public static Instruction RLA() {
         return Instruction.create(1, "RLA", ctx -> {
             var res = ctx.rl(ctx.readReg8(A));
-            ctx.writeReg8(A, res.value());
-            ctx.setFlags(false, false, false, res.carry());
+            ctx.writeReg8(A, ALUResult.value(res));
+            ctx.setFlags(ALUResult.clearZero(res));
             return DONE;
         });
     }
@@ -103,8 +104,8 @@ public class RotateShiftInstructions {
     public static Instruction RRA() {
         return Instruction.create(1, "RRA", ctx -> {
             var res = ctx.rr(ctx.readReg8(A));
-            ctx.writeReg8(A, res.value());
-            ctx.setFlags(false, false, false, res.carry());
+            ctx.writeReg8(A, ALUResult.value(res));
+            ctx.setFlags(ALUResult.clearZero(res));
             return DONE;
         });
     }
@@ -126,7 +127,7 @@ public class RotateShiftInstructions {
     public static Instruction RLC_R8(R8 r) {
         return Instruction.create(2, "RLC " + r, ctx -> {
             var res = ctx.rlc(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -159,7 +160,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.rlc(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -184,7 +185,7 @@ public class RotateShiftInstructions {
     public static Instruction RRC_R8(R8 r) {
         return Instruction.create(2, "RRC " + r, ctx -> {
             var res = ctx.rrc(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -217,7 +218,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.rrc(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -242,7 +243,7 @@ public class RotateShiftInstructions {
     public static Instruction RL_R8(R8 r) {
         return Instruction.create(2, "RL " + r, ctx -> {
             var res = ctx.rl(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -275,7 +276,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.rl(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -300,7 +301,7 @@ public class RotateShiftInstructions {
     public static Instruction RR_R8(R8 r) {
         return Instruction.create(2, "RR " + r, ctx -> {
             var res = ctx.rr(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -333,7 +334,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.rr(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -357,7 +358,7 @@ public class RotateShiftInstructions {
     public static Instruction SLA_R8(R8 r) {
         return Instruction.create(2, "SLA " + r, ctx -> {
             var res = ctx.sla(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -387,7 +388,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.sla(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -411,7 +412,7 @@ public class RotateShiftInstructions {
     public static Instruction SRA_R8(R8 r) {
         return Instruction.create(2, "SRA " + r, ctx -> {
             var res = ctx.sra(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -443,7 +444,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.sra(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -467,7 +468,7 @@ public class RotateShiftInstructions {
     public static Instruction SRL_R8(R8 r) {
         return Instruction.create(2, "SRL " + r, ctx -> {
             var res = ctx.srl(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -499,7 +500,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.srl(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
@@ -522,7 +523,7 @@ public class RotateShiftInstructions {
     public static Instruction SWAP_R8(R8 r) {
         return Instruction.create(2, "SWAP " + r, ctx -> {
             var res = ctx.swap(ctx.readReg8(r));
-            ctx.writeReg8(r, res.value());
+            ctx.writeReg8(r, ALUResult.value(res));
             ctx.setFlags(res);
             return DONE;
         });
@@ -553,7 +554,7 @@ public class RotateShiftInstructions {
                     }
                     case 1 -> {
                         var res = ctx.swap(ctx.mcPop());
-                        ctx.writeByte(ctx.mcPop(), res.value());
+                        ctx.writeByte(ctx.mcPop(), ALUResult.value(res));
                         ctx.setFlags(res);
                         yield DONE;
                     }
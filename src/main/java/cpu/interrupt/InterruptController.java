@@ -5,8 +5,11 @@ import cpu.register.enums.INTERRUPT;
 import shared.Addressable;
 import shared.Component;
 import snapshot.InterruptSnapshot;
+import shared.Stateful;
 
-public class InterruptController implements InterruptProvider, InterruptRequester, Addressable, Component {
+import java.nio.ByteBuffer;
+
+public class InterruptController implements InterruptProvider, InterruptRequester, Addressable, Component, Stateful {
 
     private boolean ime;
     private boolean imeScheduled;
@@ -139,4 +142,19 @@ public class InterruptController implements InterruptProvider, InterruptRequeste
                 getIF() & 0xFF
         );
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) ((ime ? 1 : 0) | (imeScheduled ? 2 : 0)));
+        out.put((byte) iEnable).put((byte) iFlag);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        int flags = in.get();
+        ime = (flags & 1) != 0;
+        imeScheduled = (flags & 2) != 0;
+        iEnable = in.get() & 0xFF;
+        iFlag = in.get() & 0xFF;
+    }
 }
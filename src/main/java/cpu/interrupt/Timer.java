@@ -5,8 +5,11 @@ import mem.MemoryConstants;
 import shared.Addressable;
 import shared.Clocked;
 import shared.Component;
+import shared.Stateful;
 
-public class Timer implements Clocked, Addressable, Component {
+import java.nio.ByteBuffer;
+
+public class Timer implements Clocked, Addressable, Component, Stateful {
 
     private final InterruptRequester interrupts;
 
@@ -31,10 +34,41 @@ public class Timer implements Clocked, Addressable, Component {
         return address >= MemoryConstants.DIV && address <= MemoryConstants.TAC;
     }
 
+    // closed form between overflows: the counter moves by the whole span and TIMA by the number of
+    // falling edges of the selected bit in it. Only the reload delay is stepped cycle by cycle
     @Override
     public void tick(int cycles) {
-        for (int i = 0; i < cycles; i++) {
-            tickOnce();
+        int remaining = cycles;
+
+        while (remaining > 0) {
+            if (overflowPending) {
+                tickOnce();
+                remaining--;
+                continue;
+            }
+
+            if (!isTimerEnabled()) {
+                internalCounter = (internalCounter + remaining) & 0xFFFF;
+                return;
+            }
+
+            int period = getPeriod();
+            int firstEdge = period - (internalCounter & (period - 1));
+            int overflowEdge = firstEdge + (0xFF - tima) * period;
+
+            if (remaining < overflowEdge) {
+                int edges = remaining < firstEdge ? 0 : 1 + (remaining - firstEdge) / period;
+                tima += edges;
+                internalCounter = (internalCounter + remaining) & 0xFFFF;
+                previousBit = getSelectedBit();
+                return;
+            }
+
+            internalCounter = (internalCounter + overflowEdge) & 0xFFFF;
+            previousBit = getSelectedBit();
+            tima = 0xFF;
+            incrementTIMA();
+            remaining -= overflowEdge;
         }
     }
 
@@ -61,10 +95,30 @@ public class Timer implements Clocked, Addressable, Component {
         }
     }
 
+    // the overflow edge, the reload request follows overflowDelay ticks after it
+    @Override
+    public int cyclesUntilEvent() {
+        if (overflowPending) {
+            return Math.max(overflowDelay, 1);
+        }
+        if (!isTimerEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+
+        int period = getPeriod();
+        int nextEdge = period - (internalCounter & (period - 1));
+        return nextEdge + (0xFF - tima) * period;
+    }
+
     private boolean isTimerEnabled() {
         return (tac & MemoryConstants.TAC_ENABLED) != 0;
     }
 
+    // cycles between falling edges of the selected counter bit
+    private int getPeriod() {
+        return 1 << (MemoryConstants.CLOCK_BITS[tac & MemoryConstants.TAC_CLOCK_MASK] + 1);
+    }
+
     private boolean getSelectedBit() {
         int bitPosition = MemoryConstants.CLOCK_BITS[tac & MemoryConstants.TAC_CLOCK_MASK];
         return ((internalCounter >> bitPosition) & 1) != 0;
@@ -146,4 +200,24 @@ public class Timer implements Clocked, Addressable, Component {
     public int getTMA() { return tma; }
     public int getTAC() { return tac; }
     public int getInternalCounter() { return internalCounter; }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putShort((short) internalCounter);
+        out.put((byte) tima).put((byte) tma).put((byte) tac);
+        out.put((byte) ((previousBit ? 1 : 0) | (overflowPending ? 2 : 0)));
+        out.put((byte) overflowDelay);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        internalCounter = in.getShort() & 0xFFFF;
+        tima = in.get() & 0xFF;
+        tma = in.get() & 0xFF;
+        tac = in.get() & 0xFF;
+        int flags = in.get();
+        previousBit = (flags & 1) != 0;
+        overflowPending = (flags & 2) != 0;
+        overflowDelay = in.get();
+    }
 }
@@ -0,0 +1,221 @@
+package cpu.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// writes the class file for a block:
+//
+// final class Block implements CompiledBlock {
+//     public int run(BlockRuntime rt) {
+//         if (!rt.execute(0x3E)) return 1;
+//         if (!rt.executeStore(0xE0)) return 2;
+//         ...
+//         rt.execute(0x18);
+//         return n;
+//     }
+// }
+//
+// this is a threaded-call cache, not a translation: every instruction still runs through the
+// dispatcher's handler, a block only removes the fetch, decode and dispatch between them. handlers
+// tick the bus once per M-cycle, which is what keeps the PPU, timer and DMA cycle exact, and an
+// instruction translated to plain bytecode would need those ticks emitted around its accesses
+// again. one implementation of every opcode also means the interpreter and blocks can not drift
+//
+// version 49 so the verifier does not need a StackMapTable for the early returns
+
+final class BlockAssembler {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int ALOAD_0 = 0x2A;
+    private static final int ALOAD_1 = 0x2B;
+    private static final int SIPUSH = 0x11;
+    private static final int POP = 0x57;
+    private static final int IFNE = 0x9A;
+    private static final int IRETURN = 0xAC;
+    private static final int RETURN = 0xB1;
+    private static final int INVOKESPECIAL = 0xB7;
+    private static final int INVOKEINTERFACE = 0xB9;
+
+    private static final String CLASS_NAME = "cpu/jit/Block";
+    private static final String RUNTIME = "cpu/jit/BlockRuntime";
+    private static final String STEP_DESCRIPTOR = "(I)Z";
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    private BlockAssembler() {}
+
+    static byte[] assemble(List<BlockInstruction> instructions) {
+        try {
+            return new BlockAssembler().write(instructions);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(List<BlockInstruction> instructions) throws IOException {
+        int thisClass = classEntry(CLASS_NAME);
+        int superClass = classEntry("java/lang/Object");
+        int blockInterface = classEntry("cpu/jit/CompiledBlock");
+        int objectInit = memberEntry(CONSTANT_METHODREF, "java/lang/Object", "<init>", "()V");
+
+        int[] steps = {
+                memberEntry(CONSTANT_INTERFACE_METHODREF, RUNTIME, "execute", STEP_DESCRIPTOR),
+                memberEntry(CONSTANT_INTERFACE_METHODREF, RUNTIME, "executeCB", STEP_DESCRIPTOR),
+                memberEntry(CONSTANT_INTERFACE_METHODREF, RUNTIME, "executeStore", STEP_DESCRIPTOR),
+                memberEntry(CONSTANT_INTERFACE_METHODREF, RUNTIME, "executeStoreCB", STEP_DESCRIPTOR)
+        };
+
+        int initName = utf8("<init>");
+        int initDescriptor = utf8("()V");
+        int runName = utf8("run");
+        int runDescriptor = utf8("(L" + RUNTIME + ";)I");
+        int code = utf8("Code");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream cls = new DataOutputStream(out);
+
+        cls.writeInt(MAGIC);
+        cls.writeShort(0);
+        cls.writeShort(VERSION);
+        cls.writeShort(poolCount);
+        cls.write(poolBytes.toByteArray());
+
+        cls.writeShort(ACC_FINAL | ACC_SUPER);
+        cls.writeShort(thisClass);
+        cls.writeShort(superClass);
+        cls.writeShort(1);
+        cls.writeShort(blockInterface);
+        cls.writeShort(0); // fields
+        cls.writeShort(2); // methods
+
+        byte[] init = {
+                (byte) ALOAD_0,
+                (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit,
+                (byte) RETURN
+        };
+        writeMethod(cls, initName, initDescriptor, code, 1, 1, init);
+        writeMethod(cls, runName, runDescriptor, code, 2, 2, runBody(instructions, steps));
+
+        cls.writeShort(0); // attributes
+        return out.toByteArray();
+    }
+
+    private static byte[] runBody(List<BlockInstruction> instructions, int[] steps) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int last = instructions.size() - 1;
+
+        for (int i = 0; i <= last; i++) {
+            BlockInstruction instruction = instructions.get(i);
+            int step = steps[(instruction.store() ? 2 : 0) + (instruction.prefixed() ? 1 : 0)];
+
+            out.write(ALOAD_1);
+            out.write(SIPUSH);
+            writeShort(out, instruction.opcode());
+            out.write(INVOKEINTERFACE);
+            writeShort(out, step);
+            out.write(2);
+            out.write(0);
+
+            if (i == last) {
+                out.write(POP);
+            } else {
+                // skip the early return: ifne(3) + sipush(3) + ireturn(1)
+                out.write(IFNE);
+                writeShort(out, 7);
+                out.write(SIPUSH);
+                writeShort(out, i + 1);
+                out.write(IRETURN);
+            }
+        }
+
+        out.write(SIPUSH);
+        writeShort(out, instructions.size());
+        out.write(IRETURN);
+        return out.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream cls, int name, int descriptor, int codeName,
+                                    int maxStack, int maxLocals, byte[] body) throws IOException {
+        cls.writeShort(ACC_PUBLIC);
+        cls.writeShort(name);
+        cls.writeShort(descriptor);
+        cls.writeShort(1);
+
+        cls.writeShort(codeName);
+        cls.writeInt(12 + body.length);
+        cls.writeShort(maxStack);
+        cls.writeShort(maxLocals);
+        cls.writeInt(body.length);
+        cls.write(body);
+        cls.writeShort(0); // exception table
+        cls.writeShort(0); // attributes
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write((value >> 8) & 0xFF);
+        out.write(value & 0xFF);
+    }
+
+    private int utf8(String value) throws IOException {
+        Integer index = entries.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        pool.writeByte(CONSTANT_UTF8);
+        pool.writeUTF(value);
+        return register("U" + value);
+    }
+
+    private int classEntry(String name) throws IOException {
+        Integer index = entries.get("C" + name);
+        if (index != null) {
+            return index;
+        }
+        int nameIndex = utf8(name);
+        pool.writeByte(CONSTANT_CLASS);
+        pool.writeShort(nameIndex);
+        return register("C" + name);
+    }
+
+    private int memberEntry(int tag, String owner, String name, String descriptor) throws IOException {
+        int ownerIndex = classEntry(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+
+        pool.writeByte(CONSTANT_NAME_AND_TYPE);
+        pool.writeShort(nameIndex);
+        pool.writeShort(descriptorIndex);
+        int nameAndType = poolCount++;
+
+        pool.writeByte(tag);
+        pool.writeShort(ownerIndex);
+        pool.writeShort(nameAndType);
+        return poolCount++;
+    }
+
+    private int register(String key) {
+        entries.put(key, poolCount);
+        return poolCount++;
+    }
+
+}
@@ -0,0 +1,113 @@
+package cpu.jit;
+
+import cart.Cartridge;
+import mem.MemoryManagementUnit;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// compiled blocks for ROM code, keyed by the bank mapped at the block's address and the PC.
+// code running from WRAM/HRAM is never compiled and stays with the interpreter
+
+public class BlockCache {
+
+    public static final int HOT_THRESHOLD = 32;
+
+    private static final int MAX_BANKS = 512;
+    private static final int BANK_SIZE = 0x4000;
+
+    private static final CompiledBlock UNCOMPILABLE = runtime -> 0;
+
+    private final MemoryManagementUnit mmu;
+    private final BooleanSupplier yieldCondition;
+    private final BlockCompiler compiler = new BlockCompiler();
+
+    // index (bank << 1) | region, region 0 = 0x0000-0x3FFF, 1 = 0x4000-0x7FFF
+    private final CompiledBlock[][] blocks = new CompiledBlock[MAX_BANKS * 2][];
+    private final int[][] heat = new int[MAX_BANKS * 2][];
+
+    private int activeRegion;
+    private int activeBank;
+
+    private long compiledBlocks;
+    private long blockRuns;
+    private long blockInstructions;
+
+    public BlockCache(MemoryManagementUnit mmu, BooleanSupplier yieldCondition) {
+        this.mmu = mmu;
+        this.yieldCondition = yieldCondition;
+    }
+
+    // null means interpret, counts the entry towards compilation
+    public CompiledBlock lookup(int pc) {
+        Cartridge cart = mmu.getCartridge();
+        if (pc >= 0x8000 || cart == null || mmu.isDMAActive()) {
+            return null;
+        }
+
+        int region = pc >> 14;
+        int bank = cart.getROMBankAt(pc) & (MAX_BANKS - 1);
+        int index = (bank << 1) | region;
+        int offset = pc & (BANK_SIZE - 1);
+
+        CompiledBlock[] bankBlocks = blocks[index];
+        if (bankBlocks == null) {
+            bankBlocks = blocks[index] = new CompiledBlock[BANK_SIZE];
+            heat[index] = new int[BANK_SIZE];
+        }
+
+        CompiledBlock block = bankBlocks[offset];
+        if (block == null && ++heat[index][offset] >= HOT_THRESHOLD) {
+            block = compiler.compile(cart, pc);
+            if (block == null) {
+                block = UNCOMPILABLE;
+            } else {
+                compiledBlocks++;
+            }
+            bankBlocks[offset] = block;
+        }
+
+        if (block == null || block == UNCOMPILABLE) {
+            return null;
+        }
+
+        activeRegion = region;
+        activeBank = bank;
+        return block;
+    }
+
+    public void setFailureListener(Consumer<RuntimeException> listener) {
+        compiler.setFailureListener(listener);
+    }
+
+    public void retired(int instructions) {
+        blockRuns++;
+        blockInstructions += instructions;
+    }
+
+    // the block's code is no longer what is mapped at its address
+    public boolean mappingChanged() {
+        Cartridge cart = mmu.getCartridge();
+        int bank = cart.getROMBankAt(activeRegion << 14) & (MAX_BANKS - 1);
+        return mmu.isDMAActive() || bank != activeBank;
+    }
+
+    public boolean shouldYield() {
+        return yieldCondition.getAsBoolean();
+    }
+
+    public void clear() {
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = null;
+            heat[i] = null;
+        }
+        compiledBlocks = 0;
+        blockRuns = 0;
+        blockInstructions = 0;
+    }
+
+    public long getCompiledBlocks() { return compiledBlocks; }
+    public long getBlockRuns() { return blockRuns; }
+    public long getBlockInstructions() { return blockInstructions; }
+
+}
@@ -0,0 +1,125 @@
+package cpu.jit;
+
+import cpu.decoder.Decoder;
+import shared.Readable;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// turns hot ROM entry points into blocks of threaded calls, see BlockAssembler for their shape.
+// a block runs whole instructions, so it hands back to the frame loop at an instruction boundary
+// where the interpreter stops at the M-cycle the frame ends on
+
+public class BlockCompiler {
+
+    public static final int MAX_INSTRUCTIONS = 64;
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    // a class the JVM refuses is a bug in the assembler, the block stays with the interpreter and
+    // the first one is reported
+    private Consumer<RuntimeException> failureListener = BlockCompiler::reportUncaught;
+    private boolean failureReported;
+
+    // null when the first instruction can not be compiled (HALT, STOP, illegal opcode, bank edge)
+    // or the class is refused
+    public CompiledBlock compile(Readable rom, int pc) {
+        List<BlockInstruction> instructions = scan(rom, pc);
+        if (instructions.isEmpty()) {
+            return null;
+        }
+
+        byte[] bytes = BlockAssembler.assemble(instructions);
+        try {
+            MethodHandles.Lookup block = lookup.defineHiddenClass(bytes, true);
+            return (CompiledBlock) block.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if (!failureReported) {
+                failureReported = true;
+                failureListener.accept(new IllegalStateException(
+                        String.format("Block at %04X could not be compiled, it is interpreted", pc), e));
+            }
+            return null;
+        }
+    }
+
+    public void setFailureListener(Consumer<RuntimeException> listener) {
+        this.failureListener = listener;
+    }
+
+    // what the thread would do with the exception if it had not been caught, without ending it
+    private static void reportUncaught(RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    static List<BlockInstruction> scan(Readable rom, int pc) {
+        List<BlockInstruction> instructions = new ArrayList<>();
+        int regionEnd = pc < 0x4000 ? 0x3FFF : 0x7FFF;
+        int address = pc;
+
+        while (instructions.size() < MAX_INSTRUCTIONS) {
+            int opcode = rom.read8(address);
+            boolean prefixed = Decoder.isCBPrefix(opcode);
+            int length;
+
+            if (prefixed) {
+                if (address + 1 > regionEnd) {
+                    break;
+                }
+                opcode = rom.read8(address + 1);
+                length = 2;
+            } else {
+                if (!Decoder.isValid(opcode) || opcode == 0x76 || opcode == 0x10) {
+                    break;
+                }
+                length = Decoder.decode(opcode).length();
+            }
+
+            // operands have to come from the same bank as the block
+            if (address + length - 1 > regionEnd) {
+                break;
+            }
+
+            instructions.add(new BlockInstruction(opcode, prefixed, prefixed ? isStoreCB(opcode) : isStore(opcode)));
+            address += length;
+
+            if (!prefixed && endsBlock(opcode)) {
+                break;
+            }
+        }
+
+        return instructions;
+    }
+
+    // JR, JP, CALL, RET, RETI, RST and JP HL, conditional or not
+    private static boolean endsBlock(int opcode) {
+        return switch (opcode) {
+            case 0x18, 0x20, 0x28, 0x30, 0x38,
+                 0xC2, 0xC3, 0xCA, 0xD2, 0xDA, 0xE9,
+                 0xC4, 0xCC, 0xCD, 0xD4, 0xDC,
+                 0xC0, 0xC8, 0xC9, 0xD0, 0xD8, 0xD9,
+                 0xC7, 0xCF, 0xD7, 0xDF, 0xE7, 0xEF, 0xF7, 0xFF -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isStore(int opcode) {
+        return switch (opcode) {
+            case 0x02, 0x12, 0x22, 0x32, 0x08,
+                 0x34, 0x35, 0x36,
+                 0x70, 0x71, 0x72, 0x73, 0x74, 0x75, 0x77,
+                 0xE0, 0xE2, 0xEA,
+                 0xC5, 0xD5, 0xE5, 0xF5 -> true;
+            default -> false;
+        };
+    }
+
+    // (HL) targets except BIT, which only reads
+    private static boolean isStoreCB(int opcode) {
+        return (opcode & 0x07) == 6 && (opcode < 0x40 || opcode >= 0x80);
+    }
+
+}
@@ -0,0 +1,5 @@
+package cpu.jit;
+
+record BlockInstruction(int opcode, boolean prefixed, boolean store) {
+
+}
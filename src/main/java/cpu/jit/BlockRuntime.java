@@ -0,0 +1,15 @@
+package cpu.jit;
+
+// called by compiled blocks once per instruction with the opcode baked in as a constant.
+// false hands control back to the CPU before the next instruction of the block
+
+public interface BlockRuntime {
+
+    boolean execute(int opcode);
+    boolean executeCB(int opcode);
+
+    // instructions that write memory, these can switch the ROM bank or start an OAM DMA
+    boolean executeStore(int opcode);
+    boolean executeStoreCB(int opcode);
+
+}
@@ -0,0 +1,10 @@
+package cpu.jit;
+
+// a basic block as a hidden class of calls into the runtime, returns the number of instructions
+// it retired
+
+public interface CompiledBlock {
+
+    int run(BlockRuntime runtime);
+
+}
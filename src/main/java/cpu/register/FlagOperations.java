@@ -1,6 +1,6 @@
 package cpu.register;
 
-import cpu.alu.result.ALUR8;
+import cpu.alu.enums.OPERATION;
 import cpu.register.enums.CONDITION;
 import cpu.register.enums.FLAG;
 
@@ -10,9 +10,14 @@ public interface FlagOperations {
     void setFlag(FLAG flag, boolean value);
 
     void setAllFlags(boolean z, boolean n, boolean h, boolean c);
-    void setFlags(Boolean z, Boolean n, Boolean h, Boolean c);
 
-    void setFlags(ALUR8 result);
+    // only the flags set in mask are written, F register layout
+    void writeFlags(int flags, int mask);
+
+    // with lazy flags enabled only the operands are recorded, F is computed on the next read
+    void deferFlags(OPERATION operation, int a, int b, boolean carry, int mask);
+    boolean isLazyFlags();
+    void setLazyFlags(boolean enabled);
 
     int getFlagRegister();
     void setFlagRegister(int value);
@@ -1,14 +1,20 @@
 package cpu.register;
 
-import cpu.alu.result.ALUR8;
+import cpu.alu.ALU;
+import cpu.alu.ArithmeticLogicUnit;
+import cpu.alu.enums.OPERATION;
+import cpu.alu.result.ALUResult;
 import cpu.constants.CPUConstants;
 import cpu.register.enums.CONDITION;
 import cpu.register.enums.FLAG;
 import cpu.register.enums.R16;
 import cpu.register.enums.R8;
 import shared.Component;
+import shared.Stateful;
 
-public class RegisterFile implements Registers, FlagOperations, Component {
+import java.nio.ByteBuffer;
+
+public class RegisterFile implements Registers, FlagOperations, Component, Stateful {
 
     private int a, b, c, d, e, h, l;
     private int f;
@@ -16,18 +22,72 @@ public class RegisterFile implements Registers, FlagOperations, Component {
     private int sp;
     private int pc;
 
+    private final ArithmeticLogicUnit alu;
+
+    // lazy flags: the last deferred operation, F only holds the bits outside pendingMask
+    private boolean lazyFlags;
+    private boolean flagsPending;
+    private OPERATION pendingOperation;
+    private int pendingA, pendingB;
+    private boolean pendingCarry;
+    private int pendingMask;
+
     public RegisterFile() {
+        this(new ALU());
+    }
+
+    public RegisterFile(ArithmeticLogicUnit alu) {
+        this.alu = alu;
         reset();
     }
 
+    private void materializeFlags() {
+        if (flagsPending) {
+            int result = pendingOperation.evaluate(alu, pendingA, pendingB, pendingCarry);
+            f = ((f & ~pendingMask) | (ALUResult.flags(result) & pendingMask)) & 0xF0;
+            flagsPending = false;
+        }
+    }
+
+    @Override
+    public boolean isLazyFlags() {
+        return lazyFlags;
+    }
+
+    @Override
+    public void setLazyFlags(boolean enabled) {
+        materializeFlags();
+        lazyFlags = enabled;
+    }
+
+    @Override
+    public void deferFlags(OPERATION operation, int a, int b, boolean carry, int mask) {
+        if (!lazyFlags) {
+            writeFlags(ALUResult.flags(operation.evaluate(alu, a, b, carry)), mask);
+            return;
+        }
+        // a partial update has to keep the other flags of the previous operation
+        if (mask != ALUResult.ZNHC) {
+            materializeFlags();
+        }
+        pendingOperation = operation;
+        pendingA = a;
+        pendingB = b;
+        pendingCarry = carry;
+        pendingMask = mask;
+        flagsPending = true;
+    }
+
 
     @Override
     public boolean getFlag(FLAG flag) {
+        materializeFlags();
         return (f & flag.mask()) != 0;
     }
 
     @Override
     public void setFlag(FLAG flag, boolean value) {
+        materializeFlags();
         if (value) {
             f |= flag.mask();
         } else {
@@ -37,6 +97,7 @@ public class RegisterFile implements Registers, FlagOperations, Component {
 
     @Override
     public void setAllFlags(boolean z, boolean n, boolean h, boolean c) {
+        flagsPending = false;
         f = (z ? FLAG.ZERO.mask() : 0)
                 | (n ? FLAG.SUBTRACT.mask() : 0)
                 | (h ? FLAG.HALF_CARRY.mask() : 0)
@@ -44,33 +105,24 @@ public class RegisterFile implements Registers, FlagOperations, Component {
     }
 
     @Override
-    public void setFlags(Boolean z, Boolean n, Boolean h, Boolean c) {
-        if (z != null) {
-            setFlag(FLAG.ZERO, z);
-        }
-        if (n != null) {
-            setFlag(FLAG.SUBTRACT, n);
-        }
-        if (h != null) {
-            setFlag(FLAG.HALF_CARRY, h);
-        }
-        if (c != null) {
-            setFlag(FLAG.CARRY, c);
+    public void writeFlags(int flags, int mask) {
+        if (mask == ALUResult.ZNHC) {
+            flagsPending = false;
+        } else {
+            materializeFlags();
         }
-    }
-
-    @Override
-    public void setFlags(ALUR8 result) {
-        setFlags(result.zero(), result.subtract(), result.halfCarry(), result.carry());
+        f = ((f & ~mask) | (flags & mask)) & 0xF0;
     }
 
     @Override
     public int getFlagRegister() {
+        materializeFlags();
         return f;
     }
 
     @Override
     public void setFlagRegister(int value) {
+        flagsPending = false;
         f = value & 0xF0;
     }
 
@@ -86,6 +138,9 @@ public class RegisterFile implements Registers, FlagOperations, Component {
 
     @Override
     public int read(R8 register) {
+        if (register == R8.F) {
+            materializeFlags();
+        }
         return switch (register) {
             case A -> a;
             case B -> b;
@@ -109,12 +164,18 @@ public class RegisterFile implements Registers, FlagOperations, Component {
             case E -> e = value;
             case H -> h = value;
             case L -> l = value;
-            case F -> f = value & 0xF0;
+            case F -> {
+                flagsPending = false;
+                f = value & 0xF0;
+            }
         }
     }
 
     @Override
     public int read(R16 register) {
+        if (register == R16.AF) {
+            materializeFlags();
+        }
         return switch (register) {
             case AF -> (a << 8) | f;
             case BC -> (b << 8) | c;
@@ -130,6 +191,7 @@ public class RegisterFile implements Registers, FlagOperations, Component {
         value &= 0xFFFF;
         switch (register) {
             case AF -> {
+                flagsPending = false;
                 a = (value >> 8) & 0xFF;
                 f = value & 0xF0;
             }
@@ -202,6 +264,7 @@ public class RegisterFile implements Registers, FlagOperations, Component {
 
     @Override
     public void reset() {
+        flagsPending = false;
         a = CPUConstants.InitialValues.A;
         f = CPUConstants.InitialValues.F;
         b = CPUConstants.InitialValues.B;
@@ -214,5 +277,28 @@ public class RegisterFile implements Registers, FlagOperations, Component {
         pc = CPUConstants.InitialValues.PC;
     }
 
+    // flags are stored resolved, a restored file has nothing pending
+    @Override
+    public void saveState(ByteBuffer out) {
+        materializeFlags();
+        out.put((byte) a).put((byte) f).put((byte) b).put((byte) c)
+                .put((byte) d).put((byte) e).put((byte) h).put((byte) l);
+        out.putShort((short) sp).putShort((short) pc);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        a = in.get() & 0xFF;
+        f = in.get() & 0xF0;
+        b = in.get() & 0xFF;
+        c = in.get() & 0xFF;
+        d = in.get() & 0xFF;
+        e = in.get() & 0xFF;
+        h = in.get() & 0xFF;
+        l = in.get() & 0xFF;
+        sp = in.getShort() & 0xFFFF;
+        pc = in.getShort() & 0xFFFF;
+        flagsPending = false;
+    }
 
 }
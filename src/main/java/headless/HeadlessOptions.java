@@ -0,0 +1,80 @@
+package headless;
+
+import java.io.File;
+
+// what a headless run executes and writes out. frames and cycles are budgets, the run stops at
+// whichever is reached first, 0 leaves that one unbounded
+
+public record HeadlessOptions(File rom, long frames, long cycles, File inputScript,
+                              File pngOutput, File serialOutput, File hashOutput, boolean idleSkip,
+                              boolean predecode) {
+
+    public static final String USAGE = """
+            usage: --headless <rom> [options]
+              --frames <n>       stop after n frames (default 3600 when no cycle budget is given)
+              --cycles <n>       stop once n T-cycles have run
+              --input <file>     input script, lines of '<frame> [BUTTON ...]'
+              --png <file>       write the final frame as PNG
+              --serial <file>    write the serial output, '-' for stdout
+              --hashes <file>    write one CRC32 per frame, '-' for stdout
+              --idle-skip        skip polling loops instead of running them instruction by instruction
+              --predecode        run through the predecode cache and report its hit rate""";
+
+    public static HeadlessOptions parse(String[] args) {
+        File rom = null;
+        long frames = 0;
+        long cycles = 0;
+        File input = null;
+        File png = null;
+        File serial = null;
+        File hashes = null;
+        boolean idleSkip = false;
+        boolean predecode = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--headless" -> {}
+                case "--frames" -> frames = parseCount(arg, value(args, ++i, arg));
+                case "--cycles" -> cycles = parseCount(arg, value(args, ++i, arg));
+                case "--input" -> input = new File(value(args, ++i, arg));
+                case "--png" -> png = new File(value(args, ++i, arg));
+                case "--serial" -> serial = new File(value(args, ++i, arg));
+                case "--hashes" -> hashes = new File(value(args, ++i, arg));
+                case "--idle-skip" -> idleSkip = true;
+                case "--predecode" -> predecode = true;
+                default -> {
+                    if (arg.startsWith("--")) { throw new IllegalArgumentException("Unknown option " + arg); }
+                    if (rom != null) { throw new IllegalArgumentException("More than one ROM given"); }
+                    rom = new File(arg);
+                }
+            }
+        }
+
+        if (rom == null) { throw new IllegalArgumentException("No ROM given"); }
+        if (frames == 0 && cycles == 0) { frames = 3600; }
+
+        return new HeadlessOptions(rom, frames, cycles, input, png, serial, hashes, idleSkip, predecode);
+    }
+
+    // '-' stands for stdout
+    static boolean isStdout(File file) {
+        return file != null && file.getPath().equals("-");
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) { throw new IllegalArgumentException(option + " needs a value"); }
+        return args[i];
+    }
+
+    private static long parseCount(String option, String value) {
+        try {
+            long count = Long.parseLong(value);
+            if (count < 0) { throw new IllegalArgumentException(option + " must not be negative"); }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " expects a number, got " + value);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package headless;
+
+import mtc.TimingConstants;
+
+// what a headless run did, elapsed is wall time spent emulating. the predecode counts stay 0 unless
+// the run had the cache on
+
+public record HeadlessResult(long frames, long cycles, long elapsedNanos, long frameHash, String serial,
+                             long predecodeHits, long predecodeMisses) {
+
+    public double framesPerSecond() {
+        return elapsedNanos == 0 ? 0 : frames * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    // emulated time over wall time
+    public double speed() {
+        return elapsedNanos == 0 ? 0 : cycles * 1_000_000_000.0 / elapsedNanos / TimingConstants.CLOCK_SPEED;
+    }
+
+    public double predecodeHitRate() {
+        long lookups = predecodeHits + predecodeMisses;
+        return lookups == 0 ? 0 : (double) predecodeHits / lookups;
+    }
+
+    public String report() {
+        String report = String.format("frames %d  cycles %d  time %.3fs  %.1f fps  %.2fx  frame %08x",
+                frames, cycles, elapsedNanos / 1e9, framesPerSecond(), speed(), frameHash);
+        if (predecodeHits + predecodeMisses == 0) { return report; }
+        return report + String.format("  predecode %d/%d hits (%.1f%%)",
+                predecodeHits, predecodeHits + predecodeMisses, predecodeHitRate() * 100);
+    }
+
+}
@@ -0,0 +1,147 @@
+package headless;
+
+import cart.Cartridge;
+import cart.util.CartridgeLoader;
+import core.Core;
+import cpu.decoder.PredecodeCache;
+import ppu.FrameConstants;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+// runs a ROM on a bare Core for CI and batch jobs. nothing here or in core touches javafx, so the
+// toolkit is never loaded. frames run unthrottled, the budget is checked between frames
+
+public class HeadlessRunner {
+
+    private final HeadlessOptions options;
+
+    private final byte[] shadeBytes = new byte[FrameConstants.WIDTH * FrameConstants.HEIGHT];
+    private final CRC32 crc = new CRC32();
+
+    public HeadlessRunner(HeadlessOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        HeadlessOptions options;
+        try {
+            options = HeadlessOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(HeadlessOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            HeadlessResult result = new HeadlessRunner(options).run();
+
+            // keep the report apart from anything streamed to stdout
+            boolean stdoutTaken = HeadlessOptions.isStdout(options.serialOutput())
+                    || HeadlessOptions.isStdout(options.hashOutput());
+            (stdoutTaken ? System.err : System.out).println(result.report());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Headless run failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public HeadlessResult run() throws IOException {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.setIdleLoopSkipping(options.idleSkip());
+        core.setPredecodeEnabled(options.predecode());
+
+        InputScript script = options.inputScript() == null ? null : InputScript.load(options.inputScript().toPath());
+        if (script != null) {
+            core.setInputProvider(script);
+        }
+
+        StringBuilder serial = new StringBuilder();
+        PrintStream serialStdout = HeadlessOptions.isStdout(options.serialOutput()) ? System.out : null;
+        core.setSerialOutputListener(c -> {
+            serial.append(c);
+            if (serialStdout != null) {
+                serialStdout.print(c);
+            }
+        });
+
+        core.loadCartridge(new Cartridge(CartridgeLoader.loadRom(options.rom())));
+
+        PrintWriter hashes = openHashes();
+        long frames = 0;
+        long start = System.nanoTime();
+
+        try {
+            while (!budgetReached(core, frames)) {
+                if (script != null) {
+                    script.advance(frames);
+                }
+                core.emulateFrame();
+                frames++;
+
+                if (hashes != null) {
+                    hashes.printf("%d %08x%n", frames - 1, hash(core.getFrameBuffer().getFrame()));
+                }
+            }
+        } finally {
+            if (hashes != null) {
+                hashes.flush();
+                if (!HeadlessOptions.isStdout(options.hashOutput())) {
+                    hashes.close();
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        int[] frame = core.getFrameBuffer().getFrame();
+        long frameHash = hash(frame);
+
+        if (options.pngOutput() != null) {
+            try (OutputStream out = new FileOutputStream(options.pngOutput())) {
+                PngWriter.write(frame, out);
+            }
+        }
+        if (options.serialOutput() != null && serialStdout == null) {
+            Files.writeString(options.serialOutput().toPath(), serial, StandardCharsets.UTF_8);
+        }
+        if (serialStdout != null) {
+            serialStdout.flush();
+        }
+
+        PredecodeCache predecode = core.getPredecodeCache();
+        return new HeadlessResult(frames, core.getMTC().getTotalCycles(), elapsed, frameHash, serial.toString(),
+                predecode.getHits(), predecode.getMisses());
+    }
+
+    private boolean budgetReached(Core core, long frames) {
+        if (options.frames() > 0 && frames >= options.frames()) { return true; }
+        return options.cycles() > 0 && core.getMTC().getTotalCycles() >= options.cycles();
+    }
+
+    private PrintWriter openHashes() throws IOException {
+        if (options.hashOutput() == null) { return null; }
+        if (HeadlessOptions.isStdout(options.hashOutput())) {
+            return new PrintWriter(System.out, false, StandardCharsets.UTF_8);
+        }
+        return new PrintWriter(Files.newBufferedWriter(options.hashOutput().toPath(), StandardCharsets.UTF_8));
+    }
+
+    // CRC32 over the shade of every pixel, independent of how a display would colour them
+    private long hash(int[] shades) {
+        for (int i = 0; i < shades.length; i++) {
+            shadeBytes[i] = (byte) shades[i];
+        }
+        crc.reset();
+        crc.update(shadeBytes);
+        return crc.getValue();
+    }
+
+}
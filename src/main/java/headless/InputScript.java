@@ -0,0 +1,89 @@
+package headless;
+
+import io.Button;
+import io.InputProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// buttons held per frame. every line '<frame> [BUTTON ...]' replaces the held set from that frame
+// on, a bare frame number releases everything, '#' starts a comment
+//
+//   120 START
+//   126
+//   300 A RIGHT
+
+public class InputScript implements InputProvider {
+
+    private final long[] frames;
+    private final List<Set<Button>> states;
+
+    private int next;
+    private Set<Button> held = EnumSet.noneOf(Button.class);
+
+    private InputScript(long[] frames, List<Set<Button>> states) {
+        this.frames = frames;
+        this.states = states;
+    }
+
+    public static InputScript load(Path path) throws IOException {
+        return parse(Files.readAllLines(path));
+    }
+
+    public static InputScript parse(List<String> lines) {
+        List<Long> frames = new ArrayList<>();
+        List<Set<Button>> states = new ArrayList<>();
+
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int comment = line.indexOf('#');
+            if (comment >= 0) { line = line.substring(0, comment); }
+            line = line.trim();
+            if (line.isEmpty()) { continue; }
+
+            String[] parts = line.split("\\s+");
+            long frame;
+            try {
+                frame = Long.parseLong(parts[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Input script line " + (n + 1) + ": bad frame " + parts[0]);
+            }
+            if (!frames.isEmpty() && frame < frames.get(frames.size() - 1)) {
+                throw new IllegalArgumentException("Input script line " + (n + 1) + ": frames must not go backwards");
+            }
+
+            Set<Button> buttons = EnumSet.noneOf(Button.class);
+            for (int i = 1; i < parts.length; i++) {
+                try {
+                    buttons.add(Button.valueOf(parts[i].toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Input script line " + (n + 1) + ": unknown button " + parts[i]);
+                }
+            }
+
+            frames.add(frame);
+            states.add(buttons);
+        }
+
+        return new InputScript(frames.stream().mapToLong(Long::longValue).toArray(), states);
+    }
+
+    // called before the frame is emulated
+    public void advance(long frame) {
+        while (next < frames.length && frames[next] <= frame) {
+            held = states.get(next++);
+        }
+    }
+
+    @Override
+    public boolean isPressed(Button button) {
+        return held.contains(button);
+    }
+
+}
@@ -0,0 +1,72 @@
+package headless;
+
+import ppu.FrameConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+// writes a SHADES frame as an 8 bit greyscale PNG with java.util.zip alone, so a headless run
+// never pulls in AWT or ImageIO
+
+public class PngWriter {
+
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    // shade 0 is the lightest
+    private static final int[] GREYS = { 0xFF, 0xAA, 0x55, 0x00 };
+
+    public static void write(int[] shades, OutputStream out) throws IOException {
+        int width = FrameConstants.WIDTH;
+        int height = FrameConstants.HEIGHT;
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream h = new DataOutputStream(header);
+        h.writeInt(width);
+        h.writeInt(height);
+        h.writeByte(8);     // bit depth
+        h.writeByte(0);     // greyscale
+        h.writeByte(0);     // deflate
+        h.writeByte(0);     // adaptive filtering
+        h.writeByte(0);     // no interlace
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(data)) {
+            byte[] row = new byte[width + 1];   // filter byte 0, none
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    row[x + 1] = (byte) GREYS[shades[y * width + x] & 0x03];
+                }
+                deflater.write(row);
+            }
+        }
+
+        DataOutputStream png = new DataOutputStream(out);
+        png.write(SIGNATURE);
+        chunk(png, "IHDR", header.toByteArray());
+        chunk(png, "IDAT", data.toByteArray());
+        chunk(png, "IEND", new byte[0]);
+        png.flush();
+    }
+
+    private static void chunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data);
+
+        out.writeInt(data.length);
+        out.write(name);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private PngWriter() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
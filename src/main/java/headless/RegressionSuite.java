@@ -0,0 +1,130 @@
+package headless;
+
+import mtc.TimingConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// runs every ROM below a directory, one Core per worker on a fixed pool sized to the host. the
+// timeout is in emulated cycles so a verdict does not depend on how loaded the machine is
+
+public class RegressionSuite {
+
+    private static final String USAGE = """
+            usage: --test-roms <dir> [options]
+              --threads <n>      workers (default: available processors)
+              --timeout <s>      emulated seconds per ROM before it times out (default 120)
+              --junit <file>     write a JUnit XML report
+              --json <file>      write a JSON report""";
+
+    private final int threads;
+    private final long timeoutCycles;
+
+    public RegressionSuite(int threads, long timeoutCycles) {
+        this.threads = Math.max(1, threads);
+        this.timeoutCycles = timeoutCycles;
+    }
+
+    public static void main(String[] args) {
+        File dir = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long timeoutSeconds = 120;
+        Path junit = null;
+        Path json = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--test-roms" -> {}
+                    case "--threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--timeout" -> timeoutSeconds = Long.parseLong(value(args, ++i));
+                    case "--junit" -> junit = Path.of(value(args, ++i));
+                    case "--json" -> json = Path.of(value(args, ++i));
+                    default -> {
+                        if (args[i].startsWith("--") || dir != null) { throw new IllegalArgumentException("Unexpected argument " + args[i]); }
+                        dir = new File(args[i]);
+                    }
+                }
+            }
+            if (dir == null) { throw new IllegalArgumentException("No ROM directory given"); }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            RegressionSuite suite = new RegressionSuite(threads, timeoutSeconds * TimingConstants.CLOCK_SPEED);
+
+            long start = System.nanoTime();
+            List<TestRomResult> results = suite.run(dir.toPath());
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            String name = dir.getName();
+            if (junit != null) { TestReport.writeJUnit(name, results, seconds, junit); }
+            if (json != null) { TestReport.writeJson(name, results, seconds, json); }
+
+            long passed = results.stream().filter(TestRomResult::passed).count();
+            System.out.printf("%d/%d passed in %.1fs%n", passed, results.size(), seconds);
+            System.exit(passed == results.size() ? 0 : 1);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Regression run failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // results come back sorted by path, each is printed as soon as it is known. ROMs are named by
+    // their path below dir since suites reuse file names across folders
+    public List<TestRomResult> run(Path dir) throws IOException, InterruptedException {
+        List<Path> roms = findRoms(dir);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TestRomResult>> futures = new ArrayList<>();
+            for (Path rom : roms) {
+                String name = dir.relativize(rom).toString();
+                futures.add(pool.submit(() -> {
+                    TestRomResult result = new TestRomRunner(timeoutCycles).run(name, rom.toFile());
+                    System.out.printf("%-8s %7.2fs  %s%n", result.verdict(), result.seconds(), result.name());
+                    return result;
+                }));
+            }
+
+            List<TestRomResult> results = new ArrayList<>();
+            for (Future<TestRomResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Test ROM worker failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static List<Path> findRoms(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(".gb") || p.toString().endsWith(".gbc"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) { throw new IllegalArgumentException(args[i - 1] + " needs a value"); }
+        return args[i];
+    }
+
+}
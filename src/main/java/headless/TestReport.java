@@ -0,0 +1,107 @@
+package headless;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+// JUnit XML as CI servers read it, and the same results as JSON
+
+public class TestReport {
+
+    public static void writeJUnit(String suite, List<TestRomResult> results, double seconds, Path path) throws IOException {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append(String.format(Locale.ROOT, "<testsuite name=\"%s\" tests=\"%d\" failures=\"%d\" errors=\"%d\" time=\"%.3f\">%n",
+                xml(suite), results.size(), count(results, TestVerdict.FAILED) + count(results, TestVerdict.TIMEOUT),
+                count(results, TestVerdict.ERROR), seconds));
+
+        for (TestRomResult result : results) {
+            xml.append(String.format(Locale.ROOT, "  <testcase classname=\"%s\" name=\"%s\" time=\"%.3f\"",
+                    xml(suite), xml(result.name()), result.seconds()));
+
+            switch (result.verdict()) {
+                case PASSED -> xml.append("/>\n");
+                case FAILED, TIMEOUT -> xml.append(">\n    <failure type=\"").append(result.verdict())
+                        .append("\" message=\"").append(xml(message(result))).append("\"/>\n  </testcase>\n");
+                case ERROR -> xml.append(">\n    <error message=\"").append(xml(result.detail()))
+                        .append("\"/>\n  </testcase>\n");
+            }
+        }
+
+        xml.append("</testsuite>\n");
+        Files.writeString(path, xml, StandardCharsets.UTF_8);
+    }
+
+    public static void writeJson(String suite, List<TestRomResult> results, double seconds, Path path) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.ROOT, "{%n  \"suite\": \"%s\",%n  \"time\": %.3f,%n  \"passed\": %d,%n  \"total\": %d,%n  \"results\": [%n",
+                json(suite), seconds, count(results, TestVerdict.PASSED), results.size()));
+
+        for (int i = 0; i < results.size(); i++) {
+            TestRomResult result = results.get(i);
+            json.append(String.format(Locale.ROOT,
+                    "    { \"name\": \"%s\", \"verdict\": \"%s\", \"time\": %.3f, \"frames\": %d, \"cycles\": %d, \"detail\": \"%s\" }%s%n",
+                    json(result.name()), result.verdict(), result.seconds(), result.frames(), result.cycles(),
+                    json(result.detail()), i + 1 < results.size() ? "," : ""));
+        }
+
+        json.append("  ]\n}\n");
+        Files.writeString(path, json, StandardCharsets.UTF_8);
+    }
+
+    private static String message(TestRomResult result) {
+        return result.verdict() == TestVerdict.TIMEOUT
+                ? "no verdict after " + result.cycles() + " cycles"
+                : result.detail();
+    }
+
+    private static int count(List<TestRomResult> results, TestVerdict verdict) {
+        int count = 0;
+        for (TestRomResult result : results) {
+            if (result.verdict() == verdict) { count++; }
+        }
+        return count;
+    }
+
+    // control characters are not allowed in XML 1.0 at all, serial output can hold any byte
+    private static String xml(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\n' -> out.append("&#10;");
+                default -> out.append(c < 0x20 || c > 0x7E ? '?' : c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String json(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                default -> {
+                    if (c < 0x20 || c > 0x7E) { out.append(String.format("\\u%04x", (int) c)); }
+                    else { out.append(c); }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private TestReport() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
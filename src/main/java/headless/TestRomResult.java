@@ -0,0 +1,15 @@
+package headless;
+
+// one ROM of a regression run, detail is the failure reason or the tail of the serial output
+
+public record TestRomResult(String name, TestVerdict verdict, long frames, long cycles, long elapsedNanos, String detail) {
+
+    public boolean passed() {
+        return verdict == TestVerdict.PASSED;
+    }
+
+    public double seconds() {
+        return elapsedNanos / 1e9;
+    }
+
+}
@@ -0,0 +1,98 @@
+package headless;
+
+import cart.Cartridge;
+import cart.util.CartridgeLoader;
+import core.Core;
+import cpu.register.RegisterFile;
+import cpu.register.enums.R16;
+
+import java.io.File;
+
+// runs one test ROM until it reports a verdict or the cycle budget runs out.
+//
+// blargg ROMs print "Passed" or "Failed" over serial. mooneye ROMs finish with B C D E H L set to
+// the fibonacci numbers 3 5 8 13 21 34 (0x42 everywhere on failure), send the same six bytes over
+// serial and then spin in place, so either the bytes or registers that hold for two frames count
+
+public class TestRomRunner {
+
+    private static final String MOONEYE_PASS = new String(new char[] { 3, 5, 8, 13, 21, 34 });
+    private static final String MOONEYE_FAIL = new String(new char[] { 0x42, 0x42, 0x42, 0x42, 0x42, 0x42 });
+
+    private static final int MOONEYE_BC = 0x0305;
+    private static final int MOONEYE_DE = 0x080D;
+    private static final int MOONEYE_HL = 0x1522;
+    private static final int MOONEYE_FAILED = 0x4242;
+
+    private static final int DETAIL_LENGTH = 200;
+
+    private final long timeoutCycles;
+
+    public TestRomRunner(long timeoutCycles) {
+        this.timeoutCycles = timeoutCycles;
+    }
+
+    public TestRomResult run(String name, File rom) {
+        long start = System.nanoTime();
+        Core core = new Core();
+        long frames = 0;
+
+        try {
+            StringBuilder serial = new StringBuilder();
+            core.setFrameLimitEnabled(false);
+            core.setSerialOutputListener(serial::append);
+            core.loadCartridge(new Cartridge(CartridgeLoader.loadRom(rom)));
+
+            TestVerdict registers = null;
+            while (core.getMTC().getTotalCycles() < timeoutCycles) {
+                core.emulateFrame();
+                frames++;
+
+                TestVerdict verdict = serialVerdict(serial);
+                if (verdict != null) {
+                    return result(name, verdict, frames, core, start, tail(serial));
+                }
+
+                TestVerdict previous = registers;
+                registers = registerVerdict(core.getRegisters());
+                if (registers != null && registers == previous) {
+                    return result(name, registers, frames, core, start, registerDetail(core.getRegisters()));
+                }
+            }
+
+            return result(name, TestVerdict.TIMEOUT, frames, core, start, tail(serial));
+        } catch (Exception e) {
+            return result(name, TestVerdict.ERROR, frames, core, start, e.toString());
+        }
+    }
+
+    private static TestVerdict serialVerdict(StringBuilder serial) {
+        String output = serial.toString();
+        if (output.contains("Passed") || output.endsWith(MOONEYE_PASS)) { return TestVerdict.PASSED; }
+        if (output.contains("Failed") || output.endsWith(MOONEYE_FAIL)) { return TestVerdict.FAILED; }
+        return null;
+    }
+
+    private static TestVerdict registerVerdict(RegisterFile registers) {
+        int bc = registers.read(R16.BC);
+        int de = registers.read(R16.DE);
+        int hl = registers.read(R16.HL);
+
+        if (bc == MOONEYE_BC && de == MOONEYE_DE && hl == MOONEYE_HL) { return TestVerdict.PASSED; }
+        if (bc == MOONEYE_FAILED && de == MOONEYE_FAILED && hl == MOONEYE_FAILED) { return TestVerdict.FAILED; }
+        return null;
+    }
+
+    private static String registerDetail(RegisterFile registers) {
+        return String.format("BC=%04X DE=%04X HL=%04X", registers.read(R16.BC), registers.read(R16.DE), registers.read(R16.HL));
+    }
+
+    private static TestRomResult result(String name, TestVerdict verdict, long frames, Core core, long start, String detail) {
+        return new TestRomResult(name, verdict, frames, core.getMTC().getTotalCycles(), System.nanoTime() - start, detail);
+    }
+
+    private static String tail(StringBuilder serial) {
+        return serial.substring(Math.max(0, serial.length() - DETAIL_LENGTH)).trim();
+    }
+
+}
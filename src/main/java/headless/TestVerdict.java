@@ -0,0 +1,10 @@
+package headless;
+
+public enum TestVerdict {
+
+    PASSED,
+    FAILED,
+    TIMEOUT,
+    ERROR
+
+}
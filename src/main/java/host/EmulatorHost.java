@@ -0,0 +1,76 @@
+package host;
+
+import core.Core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// runs many independent Cores in one process. every core gets a virtual thread, so a waiting core
+// holds no carrier, and all of them are paced by one shared FrameWheel instead of sleeping and
+// spinning per instance. a real time core needs about a frame of CPU every 16.7ms, the carriers
+// are shared between whichever cores are due
+
+public class EmulatorHost implements AutoCloseable {
+
+    private final FrameWheel wheel = new FrameWheel();
+    private final ThreadFactory threads = Thread.ofVirtual().name("core-", 0).factory();
+    private final List<HostedCore> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    // the core should have its cartridge loaded, it runs until stopped
+    public HostedCore start(Core core) {
+        HostedCore session = new HostedCore(nextId.getAndIncrement(), core, wheel);
+        sessions.add(session);
+        session.start(threads.newThread(session));
+        return session;
+    }
+
+    public void stop(HostedCore session) throws InterruptedException {
+        session.stop();
+        session.join();
+        sessions.remove(session);
+    }
+
+    public List<HostedCore> getSessions() {
+        return List.copyOf(sessions);
+    }
+
+    public HostMetrics getMetrics() {
+        List<SessionMetrics> metrics = new ArrayList<>(sessions.size());
+        for (HostedCore session : sessions) {
+            metrics.add(session.getMetrics());
+        }
+        return HostMetrics.of(metrics);
+    }
+
+    // stopped cores finish their frame first. an interrupt does not cut the shutdown short, the
+    // wait carries on and the interrupt is set again once every core has ended
+    @Override
+    public void close() {
+        for (HostedCore session : sessions) {
+            session.stop();
+        }
+
+        boolean interrupted = false;
+        for (HostedCore session : sessions) {
+            while (true) {
+                try {
+                    session.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        sessions.clear();
+        wheel.close();
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
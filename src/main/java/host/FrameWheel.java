@@ -0,0 +1,135 @@
+package host;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// one timer for every hosted core instead of each spinning to its own frame end. a single thread
+// walks 1ms ticks and wakes everything due in the tick together, deadlines further out than the
+// wheel wait in their slot for the next round. a waiter picks its slot and the wheel advances
+// under the same lock, so a waiter never lands in a slot the wheel has already drained
+
+public class FrameWheel implements AutoCloseable {
+
+    static final long TICK_NANOS = 1_000_000;
+    private static final int SLOTS = 64;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final List<Queue<Waiter>> slots = new ArrayList<>(SLOTS);
+    private final long origin = System.nanoTime();
+    private final Thread thread;
+
+    // guards the slots and processedTick. a lock rather than a monitor, so virtual threads waiting
+    // on it do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private long processedTick = -1;
+    private volatile boolean running = true;
+
+    private static final class Waiter {
+        final Thread thread;
+        final long deadline;
+        volatile boolean released;
+
+        Waiter(Thread thread, long deadline) {
+            this.thread = thread;
+            this.deadline = deadline;
+        }
+    }
+
+    public FrameWheel() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        thread = Thread.ofPlatform().name("frame-wheel").daemon().start(this::run);
+    }
+
+    // parks the calling thread until about deadline, within half a tick
+    public void awaitDeadline(long deadline) {
+        if (deadline - System.nanoTime() <= TICK_NANOS / 2 || !running) {
+            return;
+        }
+
+        Waiter waiter = new Waiter(Thread.currentThread(), deadline);
+        lock.lock();
+        try {
+            long tick = Math.max(tickOf(deadline), processedTick + 1);
+            slots.get((int) (tick & SLOT_MASK)).add(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        // the timeout only matters for a waiter queued after a closed wheel's last drain
+        while (!waiter.released && running) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return;
+            }
+            LockSupport.parkNanos(this, left + SLOTS * TICK_NANOS);
+        }
+    }
+
+    private void run() {
+        List<Waiter> later = new ArrayList<>();
+
+        while (running) {
+            long current = (System.nanoTime() - origin) / TICK_NANOS;
+
+            lock.lock();
+            try {
+                while (processedTick < current) {
+                    processedTick++;
+                    drain(slots.get((int) (processedTick & SLOT_MASK)), processedTick, later);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            LockSupport.parkNanos(this, origin + (current + 1) * TICK_NANOS - System.nanoTime());
+        }
+
+        lock.lock();
+        try {
+            for (Queue<Waiter> slot : slots) {
+                Waiter waiter;
+                while ((waiter = slot.poll()) != null) {
+                    release(waiter);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain(Queue<Waiter> slot, long tick, List<Waiter> later) {
+        Waiter waiter;
+        while ((waiter = slot.poll()) != null) {
+            if (tickOf(waiter.deadline) <= tick) {
+                release(waiter);
+            } else {
+                later.add(waiter);
+            }
+        }
+        slot.addAll(later);
+        later.clear();
+    }
+
+    private static void release(Waiter waiter) {
+        waiter.released = true;
+        LockSupport.unpark(waiter.thread);
+    }
+
+    // deadlines round to the nearest tick
+    private long tickOf(long deadline) {
+        return (deadline - origin + TICK_NANOS / 2) / TICK_NANOS;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+}
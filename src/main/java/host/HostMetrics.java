@@ -0,0 +1,24 @@
+package host;
+
+import java.util.List;
+
+// all hosted cores, busyShare adds up to about the number of host cores kept busy while there are
+// carriers to spare
+
+public record HostMetrics(int sessions, long frames, double fps, long busyNanos, double busyShare, List<SessionMetrics> perSession) {
+
+    static HostMetrics of(List<SessionMetrics> sessions) {
+        long frames = 0;
+        double fps = 0;
+        long busy = 0;
+        double busyShare = 0;
+        for (SessionMetrics session : sessions) {
+            frames += session.frames();
+            fps += session.fps();
+            busy += session.busyNanos();
+            busyShare += session.busyShare();
+        }
+        return new HostMetrics(sessions.size(), frames, fps, busy, busyShare, sessions);
+    }
+
+}
@@ -0,0 +1,117 @@
+package host;
+
+import core.Core;
+import mtc.FramePacer;
+import mtc.TimingConstants;
+
+// one Core driven by its own virtual thread. the Core's frame limiter is off, frames are paced by
+// a FramePacer that waits on the host's FrameWheel, so waiting does not drift and costs no CPU.
+// the Core belongs to this thread while it runs, configure it before start or through calls the
+// Core already makes thread safe
+
+public class HostedCore implements Runnable {
+
+    private static final long METRICS_WINDOW_NANOS = 1_000_000_000;
+
+    private final int id;
+    private final Core core;
+    private final FramePacer pacer;
+
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+    private Thread thread;
+
+    // written by the core's thread only
+    private volatile long frames;
+    private volatile long busyNanos;
+    private volatile double fps;
+    private volatile double busyShare;
+
+    private long windowStart;
+    private long windowFrames;
+    private long windowBusy;
+
+    HostedCore(int id, Core core, FrameWheel wheel) {
+        this.id = id;
+        this.core = core;
+        this.pacer = new FramePacer(wheel::awaitDeadline);
+    }
+
+    void start(Thread thread) {
+        this.thread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        core.setFrameLimitEnabled(false);
+
+        windowStart = System.nanoTime();
+
+        try {
+            while (running) {
+                boolean paused = core.isPaused() || !core.isCartridgeLoaded();
+
+                long start = System.nanoTime();
+                if (!paused) {
+                    core.emulateFrame();
+                }
+                long end = System.nanoTime();
+
+                if (!paused) {
+                    frames++;
+                    busyNanos += end - start;
+                }
+                updateMetrics(end, paused ? 0 : 1, end - start);
+
+                // 0 is unthrottled, paused cores still wake once a frame to notice resume
+                double speed = core.getSpeedMultiplier();
+                if (speed <= 0 && !paused) {
+                    pacer.restart();
+                    Thread.yield();
+                    continue;
+                }
+
+                pacer.awaitNextFrame((long) (TimingConstants.FRAME_TIME_NANOS / (speed <= 0 ? 1 : speed)));
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            running = false;
+        }
+    }
+
+    private void updateMetrics(long now, int framesRun, long busy) {
+        windowFrames += framesRun;
+        windowBusy += busy;
+
+        long elapsed = now - windowStart;
+        if (elapsed >= METRICS_WINDOW_NANOS) {
+            fps = windowFrames * 1e9 / elapsed;
+            busyShare = (double) windowBusy / elapsed;
+            windowStart = now;
+            windowFrames = 0;
+            windowBusy = 0;
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    public SessionMetrics getMetrics() {
+        return new SessionMetrics(id, running, frames, fps, busyNanos, busyShare);
+    }
+
+    public int getId() { return id; }
+    public Core getCore() { return core; }
+    public boolean isRunning() { return running; }
+    public Throwable getFailure() { return failure; }
+
+}
@@ -0,0 +1,9 @@
+package host;
+
+// one hosted core. fps and busyShare are over the last second. busyNanos and busyShare are wall
+// time spent emulating, which counts time the core's virtual thread waited for a carrier as well,
+// so they are the CPU time used only while carriers are free. the JVM reports no CPU time for
+// virtual threads
+
+public record SessionMetrics(int id, boolean running, long frames, double fps, long busyNanos, double busyShare) {
+}
@@ -5,8 +5,11 @@ import cpu.register.enums.INTERRUPT;
 import mem.MemoryConstants;
 import shared.Addressable;
 import shared.Component;
+import shared.Stateful;
 
-public class JoyPad implements Addressable, Component {
+import java.nio.ByteBuffer;
+
+public class JoyPad implements Addressable, Component, Stateful {
 
     private final InterruptRequester interrupts;
     private InputProvider inputProvider;
@@ -110,4 +113,15 @@ public class JoyPad implements Addressable, Component {
             previousState = getInputState();
         }
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) select).put((byte) previousState);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        select = in.get() & 0xFF;
+        previousState = in.get() & 0xFF;
+    }
 }
@@ -3,8 +3,11 @@ package io;
 import mem.MemoryConstants;
 import shared.Addressable;
 import shared.Component;
+import shared.Stateful;
 
-public class Serial implements Addressable, Component {
+import java.nio.ByteBuffer;
+
+public class Serial implements Addressable, Component, Stateful {
 
     private int sb;
     private int sc;
@@ -74,4 +77,15 @@ public class Serial implements Addressable, Component {
         return !output.isEmpty();
     }
 
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) sb).put((byte) sc);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        sb = in.get() & 0xFF;
+        sc = in.get() & 0xFF;
+    }
+
 }
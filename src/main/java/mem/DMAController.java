@@ -2,8 +2,11 @@ package mem;
 
 import shared.Clocked;
 import shared.Component;
+import shared.Stateful;
 
-public class DMAController implements Clocked, Component {
+import java.nio.ByteBuffer;
+
+public class DMAController implements Clocked, Component, Stateful {
 
     private final OAM oam;
     private DMAMemoryAccess memory;
@@ -15,6 +18,8 @@ public class DMAController implements Clocked, Component {
 
     private int DMARegister;
 
+    private Runnable completionListener;
+
     public DMAController(OAM oam) {
         this.oam = oam;
         reset();
@@ -24,6 +29,10 @@ public class DMAController implements Clocked, Component {
         this.memory = memory;
     }
 
+    public void setCompletionListener(Runnable listener) {
+        this.completionListener = listener;
+    }
+
     public int read() {
         return DMARegister;
     }
@@ -59,9 +68,18 @@ public class DMAController implements Clocked, Component {
 
         if (currentByte >= MemoryConstants.DMA_LENGTH) {
             active = false;
+            if (completionListener != null) {
+                completionListener.run();
+            }
         }
     }
 
+    // every byte read goes through the bus at its own time
+    @Override
+    public int cyclesUntilEvent() {
+        return active ? MemoryConstants.CYCLES_PER_BYTE - cycleCounter : Integer.MAX_VALUE;
+    }
+
     public boolean isActive() { return active; }
 
     public int getCurrentByte() { return currentByte; }
@@ -78,4 +96,22 @@ public class DMAController implements Clocked, Component {
         cycleCounter = 0;
         DMARegister = 0xFF;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) (active ? 1 : 0));
+        out.put((byte) DMARegister);
+        out.putShort((short) sourceAddress);
+        out.put((byte) currentByte);
+        out.putShort((short) cycleCounter);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        active = in.get() != 0;
+        DMARegister = in.get() & 0xFF;
+        sourceAddress = in.getShort() & 0xFFFF;
+        currentByte = in.get() & 0xFF;
+        cycleCounter = in.getShort();
+    }
+}
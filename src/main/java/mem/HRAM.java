@@ -2,10 +2,14 @@ package mem;
 
 import shared.Addressable;
 import shared.Component;
+import shared.PagedMemory;
+import shared.Stateful;
 
-public class HRAM implements Addressable, Component {
+import java.nio.ByteBuffer;
 
-    private final byte[] memory = new byte[MemoryConstants.HRAM_SIZE];
+public class HRAM implements Addressable, Component, Stateful {
+
+    private final PagedMemory memory = new PagedMemory(MemoryConstants.HRAM_SIZE, (byte) 0);
 
     @Override
     public boolean accepts(int address) {
@@ -14,16 +18,30 @@ public class HRAM implements Addressable, Component {
 
     @Override
     public void reset() {
-        java.util.Arrays.fill(memory, (byte) 0);
+        memory.fill((byte) 0);
     }
 
     @Override
     public byte read(int address) {
-        return memory[(address - MemoryConstants.HRAM_START) & 0x7F];
+        return memory.read((address - MemoryConstants.HRAM_START) & 0x7F);
     }
 
     @Override
     public void write(int address, int value) {
-        memory[(address - MemoryConstants.HRAM_START) & 0x7F] = (byte) value;
+        memory.write((address - MemoryConstants.HRAM_START) & 0x7F, (byte) value);
+    }
+
+    public PagedMemory getMemory() {
+        return memory;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        memory.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        memory.loadState(in);
     }
 }
@@ -6,8 +6,11 @@ import io.Serial;
 import ppu.PPU;
 import shared.Addressable;
 import shared.Component;
+import shared.Stateful;
 
-public class IO implements Addressable, Component {
+import java.nio.ByteBuffer;
+
+public class IO implements Addressable, Component, Stateful {
 
     private final byte[] data = new byte[MemoryConstants.IO_SIZE];
 
@@ -121,4 +124,15 @@ public class IO implements Addressable, Component {
     public void setAPU(Addressable apu) { this.apu = apu; }
     public void setJoypad(Addressable joypad) { this.joypad = joypad; }
     public void setSerial(Serial serial) { this.serial = serial; }
-}
\ No newline at end of file
+
+    // only the registers kept here, the connected components save their own
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put(data);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        in.get(data);
+    }
+}
@@ -12,6 +12,11 @@ public class MemoryConstants {
     public static final int VRAM_END = 0x9FFF;
     public static final int VRAM_SIZE = 0x2000;
 
+    public static final int TILE_DATA_END = 0x97FF;
+    public static final int TILE_MAP_START = 0x9800;
+    public static final int TILE_COUNT = 384;
+    public static final int TILE_SIZE = 16;
+
     public static final int ERAM_START = 0xA000;
     public static final int ERAM_END = 0xBFFF;
 
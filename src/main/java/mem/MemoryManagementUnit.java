@@ -5,10 +5,12 @@ import cpu.interrupt.InterruptController;
 import cpu.interrupt.Timer;
 import io.JoyPad;
 import io.Serial;
+import mtc.MasterTimeController;
 import ppu.PPU;
 import ppu.PPUMode;
 import shared.Addressable;
 import shared.Component;
+import shared.PagedMemory;
 
 public class MemoryManagementUnit implements Addressable, Component {
 
@@ -20,12 +22,22 @@ public class MemoryManagementUnit implements Addressable, Component {
     private final HRAM hram;
     private final InterruptController ic;
     private final DMAController dma;
+    private final PageTable pages;
+    // pages replaced while VRAM is mapped for reading are mapped again one by one
+    private boolean vramReadable;
 
     private PPU ppu;
+    private MasterTimeController mtc;
 
-    public void loadCartridge(Cartridge cartridge) { this.cart = cartridge; }
+    public void loadCartridge(Cartridge cartridge) {
+        this.cart = cartridge;
+        remap();
+    }
 
-    public void removeCartridge() { this.cart = null; }
+    public void removeCartridge() {
+        this.cart = null;
+        remap();
+    }
 
     public MemoryManagementUnit(InterruptController ic) {
         this.vram = new VRAM();
@@ -36,11 +48,22 @@ public class MemoryManagementUnit implements Addressable, Component {
         this.ic = ic;
         this.cart = null;
         this.dma = new DMAController(oam);
+        this.pages = new PageTable();
         this.ppu = null;
 
         this.io.setInterrupts(ic);
 
         this.dma.setMemory(this::readDirect);
+        this.dma.setCompletionListener(this::remap);
+
+        // a page that is copied on write or starts being shared is mapped again
+        this.wram.getMemory().setPageListener(this::mapWRAMPage);
+        this.vram.getMemory().setPageListener(this::mapVRAMPage);
+
+        for (int page = 0; page < vram.getMemory().getPageCount(); page++) {
+            mapVRAMPage(page);
+        }
+        remap();
     }
 
     public void connectTimer(Timer timer) {
@@ -50,6 +73,8 @@ public class MemoryManagementUnit implements Addressable, Component {
     public void connectPpu(PPU ppu) {
         this.ppu = ppu;
         io.setPPU(ppu);
+        ppu.setModeListener(this::mapVRAM);
+        mapVRAM();
     }
 
     public void connectJoypad(JoyPad joypad) {
@@ -64,6 +89,10 @@ public class MemoryManagementUnit implements Addressable, Component {
         io.setAPU(apu);
     }
 
+    public void connectTimeController(MasterTimeController mtc) {
+        this.mtc = mtc;
+    }
+
 
     @Override
     public boolean accepts(int address) {
@@ -74,6 +103,11 @@ public class MemoryManagementUnit implements Addressable, Component {
     public byte read(int address) {
         address &= 0xFFFF;
 
+        int value = pages.read(address);
+        if (value >= 0) {
+            return (byte) value;
+        }
+
         if (isDMABlocked(address)) {
             return (byte) 0xFF;
         }
@@ -83,6 +117,7 @@ public class MemoryManagementUnit implements Addressable, Component {
         }
 
         if (address <= MemoryConstants.VRAM_END) {
+            sync();
             if (!isVRAMAccessible()) {
                 return (byte) 0xFF;
             }
@@ -102,6 +137,7 @@ public class MemoryManagementUnit implements Addressable, Component {
         }
 
         if (address <= MemoryConstants.OAM_END) {
+            sync();
             if (!isOAMAccessible()) {
                 return (byte) 0xFF;
             }
@@ -113,6 +149,7 @@ public class MemoryManagementUnit implements Addressable, Component {
         }
 
         if (address <= MemoryConstants.IO_END) {
+            sync();
             if (address == MemoryConstants.DMA) {
                 return (byte) dma.read();
             }
@@ -131,14 +168,20 @@ public class MemoryManagementUnit implements Addressable, Component {
         address &= 0xFFFF;
         value &= 0xFF;
 
+        if (pages.write(address, value)) {
+            return;
+        }
+
         if (address <= MemoryConstants.ROM_BANK_N_END) {
             if (cart != null) {
                 cart.write(address, value);
+                mapROM();
             }
             return;
         }
 
         if (address <= MemoryConstants.VRAM_END) {
+            sync();
             vram.write(address, value);
             return;
         }
@@ -161,6 +204,7 @@ public class MemoryManagementUnit implements Addressable, Component {
         }
 
         if (address <= MemoryConstants.OAM_END) {
+            sync();
             oam.write(address, value);
             return;
         }
@@ -170,11 +214,16 @@ public class MemoryManagementUnit implements Addressable, Component {
         }
 
         if (address <= MemoryConstants.IO_END) {
+            sync();
             if (address == MemoryConstants.DMA) {
                 dma.write(value);
-                return;
+                remap();
+            } else {
+                io.write(address, value);
+            }
+            if (movesEvents(address) && mtc != null) {
+                mtc.reschedule();
             }
-            io.write(address, value);
             return;
         }
 
@@ -211,6 +260,116 @@ public class MemoryManagementUnit implements Addressable, Component {
         return mode == PPUMode.HBLANK || mode == PPUMode.VBLANK;
     }
 
+    // rebuilds the read mappings, anything but HRAM is blocked while OAM DMA runs
+    public void remap() {
+        mapROM();
+        mapVRAM();
+        for (int page = 0; page < wram.getMemory().getPageCount(); page++) {
+            mapWRAMPage(page);
+        }
+    }
+
+    // writes to WRAM are never blocked, but a page shared with a snapshot or fork or not yet written
+    // since the last mark is left to the handler, which copies or records it first. the echo
+    // mirrors all but the last 512 bytes
+    private void mapWRAMPage(int page) {
+        PagedMemory memory = wram.getMemory();
+        byte[] data = memory.getPage(page);
+        int address = MemoryConstants.WRAM_START + (page << PagedMemory.PAGE_SHIFT);
+        int echo = address + (MemoryConstants.ECHO_START - MemoryConstants.WRAM_START);
+        // the last two WRAM pages would mirror onto OAM and IO, which are never page mapped
+        boolean mirrored = echo <= MemoryConstants.ECHO_END;
+
+        if (dma.isActive()) {
+            pages.unmapRead(address, address);
+            if (mirrored) {
+                pages.unmapRead(echo, echo);
+            }
+        } else {
+            pages.mapRead(address, address, data, 0);
+            if (mirrored) {
+                pages.mapRead(echo, echo, data, 0);
+            }
+        }
+
+        if (!memory.isWritable(page)) {
+            pages.unmapWrite(address, address);
+            if (mirrored) {
+                pages.unmapWrite(echo, echo);
+            }
+        } else {
+            pages.mapWrite(address, address, data, 0);
+            if (mirrored) {
+                pages.mapWrite(echo, echo, data, 0);
+            }
+        }
+    }
+
+    // MBC register writes land here, the banks they select are pointed at directly
+    private void mapROM() {
+        mapROMBank(MemoryConstants.ROM_BANK_0_START, MemoryConstants.ROM_BANK_0_END);
+        mapROMBank(MemoryConstants.ROM_BANK_N_START, MemoryConstants.ROM_BANK_N_END);
+    }
+
+    private void mapROMBank(int start, int end) {
+        int offset = cart != null && !dma.isActive() ? cart.getROMOffset(start) : -1;
+        if (offset >= 0 && offset + (end - start) < cart.getROMData().length) {
+            pages.mapRead(start, end, cart.getROMData(), offset);
+        } else {
+            pages.unmapRead(start, end);
+        }
+    }
+
+    // the PPU's mode changes are events, so between them this mapping matches what a synced read
+    // would see and VRAM can be read without catching up
+    private void mapVRAM() {
+        boolean readable = !dma.isActive() && isVRAMAccessible();
+        if (readable == vramReadable) {
+            return;
+        }
+        vramReadable = readable;
+
+        if (readable) {
+            PagedMemory memory = vram.getMemory();
+            for (int page = 0; page < memory.getPageCount(); page++) {
+                int address = MemoryConstants.VRAM_START + (page << PagedMemory.PAGE_SHIFT);
+                pages.mapRead(address, address, memory.getPage(page), 0);
+            }
+        } else {
+            pages.unmapRead(MemoryConstants.VRAM_START, MemoryConstants.VRAM_END);
+        }
+    }
+
+    // writes to VRAM are never blocked either. only the tile maps are written directly, tile data
+    // goes through VRAM so the PPU's decoded tiles are invalidated
+    private void mapVRAMPage(int page) {
+        PagedMemory memory = vram.getMemory();
+        int address = MemoryConstants.VRAM_START + (page << PagedMemory.PAGE_SHIFT);
+
+        if (vramReadable) {
+            pages.mapRead(address, address, memory.getPage(page), 0);
+        }
+
+        if (address >= MemoryConstants.TILE_MAP_START && memory.isWritable(page)) {
+            pages.mapWrite(address, address, memory.getPage(page), 0);
+        } else {
+            pages.unmapWrite(address, address);
+        }
+    }
+
+    // the PPU, timer and DMA only change what the bus sees at their events, everything between
+    // is caught up here before one of them is touched
+    private void sync() {
+        if (mtc != null) {
+            mtc.sync();
+        }
+    }
+
+    private boolean movesEvents(int address) {
+        return (address >= MemoryConstants.DIV && address <= MemoryConstants.TAC)
+                || (address >= MemoryConstants.LCDC && address <= MemoryConstants.WX);
+    }
+
     private boolean isDMABlocked(int address) {
         if (!dma.isActive()) {
             return false;
@@ -254,6 +413,7 @@ public class MemoryManagementUnit implements Addressable, Component {
     public HRAM getHRAM() { return hram; }
     public DMAController getDMA() { return dma; }
     public Cartridge getCartridge() { return cart; }
+    public PageTable getPageTable() { return pages; }
 
     public boolean isDMAActive() { return dma.isActive(); }
 }
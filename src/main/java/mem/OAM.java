@@ -2,12 +2,15 @@ package mem;
 
 import shared.Addressable;
 import shared.Component;
+import shared.PagedMemory;
+import shared.Stateful;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 
-public class OAM implements Addressable, Component {
+public class OAM implements Addressable, Component, Stateful {
 
-    private final byte[] memory = new byte[MemoryConstants.OAM_SIZE];
+    // all of OAM fits one page
+    private final PagedMemory memory = new PagedMemory(MemoryConstants.OAM_SIZE, (byte) 0);
 
     @Override
     public boolean accepts(int address) {
@@ -16,30 +19,49 @@ public class OAM implements Addressable, Component {
 
     @Override
     public void reset() {
-        Arrays.fill(memory, (byte) 0);
+        memory.fill((byte) 0);
     }
 
     @Override
     public byte read(int address) {
-        return memory[(address - MemoryConstants.OAM_START) & 0xFF];
+        return memory.read((address - MemoryConstants.OAM_START) & 0xFF);
     }
 
     @Override
     public void write(int address, int value) {
         int index = (address - MemoryConstants.OAM_START) & 0xFF;
         if (index < MemoryConstants.OAM_SIZE) {
-            memory[index] = (byte) value;
+            memory.write(index, (byte) value);
         }
     }
 
+    // for reading, valid until OAM is next written
     public byte[] directMemoryAccess() {
+        return memory.getPage(0);
+    }
+
+    public PagedMemory getMemory() {
         return memory;
     }
 
+    public void share(OAM source) {
+        memory.share(source.memory);
+    }
+
     public void directMemoryAccessWrite(int index, byte value) {
         if (index < MemoryConstants.OAM_SIZE) {
-            memory[index] = value;
+            memory.write(index, value);
         }
     }
 
+    @Override
+    public void saveState(ByteBuffer out) {
+        memory.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        memory.loadState(in);
+    }
+
 }
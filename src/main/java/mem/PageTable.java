@@ -0,0 +1,70 @@
+package mem;
+
+// the address space in 256 byte pages. a mapped page is read or written straight from its backing
+// array, an unmapped one is left to the MMU's handlers (IO, cartridge RAM, blocked VRAM, DMA)
+
+public class PageTable {
+
+    public static final int PAGE_SHIFT = 8;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    public static final int PAGE_COUNT = 0x10000 >> PAGE_SHIFT;
+
+    private final byte[][] readPages = new byte[PAGE_COUNT][];
+    private final int[] readOffsets = new int[PAGE_COUNT];
+    private final byte[][] writePages = new byte[PAGE_COUNT][];
+    private final int[] writeOffsets = new int[PAGE_COUNT];
+
+    // -1 when the page is not mapped for reading
+    public int read(int address) {
+        int page = address >>> PAGE_SHIFT;
+        byte[] memory = readPages[page];
+        if (memory == null) {
+            return -1;
+        }
+        return memory[readOffsets[page] + (address & (PAGE_SIZE - 1))] & 0xFF;
+    }
+
+    // false when the page is not mapped for writing
+    public boolean write(int address, int value) {
+        int page = address >>> PAGE_SHIFT;
+        byte[] memory = writePages[page];
+        if (memory == null) {
+            return false;
+        }
+        memory[writeOffsets[page] + (address & (PAGE_SIZE - 1))] = (byte) value;
+        return true;
+    }
+
+    public boolean isReadMapped(int address) {
+        return readPages[(address & 0xFFFF) >>> PAGE_SHIFT] != null;
+    }
+
+    public boolean isWriteMapped(int address) {
+        return writePages[(address & 0xFFFF) >>> PAGE_SHIFT] != null;
+    }
+
+    // start and end are page aligned and inclusive, start lands on memory[offset]
+    public void mapRead(int start, int end, byte[] memory, int offset) {
+        map(readPages, readOffsets, start, end, memory, offset);
+    }
+
+    public void mapWrite(int start, int end, byte[] memory, int offset) {
+        map(writePages, writeOffsets, start, end, memory, offset);
+    }
+
+    public void unmapRead(int start, int end) {
+        map(readPages, readOffsets, start, end, null, 0);
+    }
+
+    public void unmapWrite(int start, int end) {
+        map(writePages, writeOffsets, start, end, null, 0);
+    }
+
+    private static void map(byte[][] pages, int[] offsets, int start, int end, byte[] memory, int offset) {
+        for (int page = start >>> PAGE_SHIFT; page <= end >>> PAGE_SHIFT; page++) {
+            pages[page] = memory;
+            offsets[page] = memory == null ? 0 : offset + (page << PAGE_SHIFT) - start;
+        }
+    }
+
+}
@@ -2,12 +2,18 @@ package mem;
 
 import shared.Addressable;
 import shared.Component;
+import shared.PagedMemory;
+import shared.Stateful;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
-public class VRAM implements Addressable, Component {
+public class VRAM implements Addressable, Component, Stateful {
 
-    private final byte[] memory = new byte[MemoryConstants.VRAM_SIZE];
+    private final PagedMemory memory = new PagedMemory(MemoryConstants.VRAM_SIZE, (byte) 0);
+
+    // tiles written since the PPU last decoded them
+    private final boolean[] dirtyTiles = new boolean[MemoryConstants.TILE_COUNT];
 
     @Override
     public boolean accepts(int address) {
@@ -16,20 +22,51 @@ public class VRAM implements Addressable, Component {
 
     @Override
     public void reset() {
-        Arrays.fill(memory, (byte) 0);
+        memory.fill((byte) 0);
+        Arrays.fill(dirtyTiles, true);
     }
 
     @Override
     public byte read(int address) {
-        return memory[(address - MemoryConstants.VRAM_START) & (MemoryConstants.VRAM_SIZE - 1)];
+        return memory.read((address - MemoryConstants.VRAM_START) & (MemoryConstants.VRAM_SIZE - 1));
     }
 
     @Override
     public void write(int address, int value) {
-        memory[(address - MemoryConstants.VRAM_START) & (MemoryConstants.VRAM_SIZE - 1)] = (byte) value;
+        int index = (address - MemoryConstants.VRAM_START) & (MemoryConstants.VRAM_SIZE - 1);
+        memory.write(index, (byte) value);
+        if (index < MemoryConstants.TILE_COUNT * MemoryConstants.TILE_SIZE) {
+            dirtyTiles[index / MemoryConstants.TILE_SIZE] = true;
+        }
+    }
+
+    public boolean isTileDirty(int tile) {
+        return dirtyTiles[tile];
     }
 
-    public byte[] directMemoryAccess() {
+    public void clearTileDirty(int tile) {
+        dirtyTiles[tile] = false;
+    }
+
+    public PagedMemory getMemory() {
         return memory;
     }
+
+    // another VRAM's pages, for a forked machine. its tiles are decoded again like after a load
+    public void share(VRAM source) {
+        memory.share(source.memory);
+        Arrays.fill(dirtyTiles, true);
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        memory.saveState(out);
+    }
+
+    // every tile is decoded again from the restored bytes
+    @Override
+    public void loadState(ByteBuffer in) {
+        memory.loadState(in);
+        Arrays.fill(dirtyTiles, true);
+    }
 }
@@ -2,10 +2,14 @@ package mem;
 
 import shared.Addressable;
 import shared.Component;
+import shared.PagedMemory;
+import shared.Stateful;
 
-public class WRAM implements Addressable, Component {
+import java.nio.ByteBuffer;
 
-    private final byte[] memory = new byte[MemoryConstants.WRAM_SIZE];
+public class WRAM implements Addressable, Component, Stateful {
+
+    private final PagedMemory memory = new PagedMemory(MemoryConstants.WRAM_SIZE, (byte) 0);
 
     @Override
     public boolean accepts(int address) {
@@ -14,21 +18,35 @@ public class WRAM implements Addressable, Component {
 
     @Override
     public void reset() {
-        java.util.Arrays.fill(memory, (byte) 0);
+        memory.fill((byte) 0);
     }
 
     @Override
     public byte read(int address) {
-        return memory[(address - MemoryConstants.WRAM_START) & (MemoryConstants.WRAM_SIZE - 1)];
+        return memory.read((address - MemoryConstants.WRAM_START) & (MemoryConstants.WRAM_SIZE - 1));
     }
 
     @Override
     public void write(int address, int value) {
-        memory[(address - MemoryConstants.WRAM_START) & (MemoryConstants.WRAM_SIZE - 1)] = (byte) value;
+        memory.write((address - MemoryConstants.WRAM_START) & (MemoryConstants.WRAM_SIZE - 1), (byte) value);
     }
 
-    public byte[] directMemoryAccess() {
+    public PagedMemory getMemory() {
         return memory;
     }
 
+    public void share(WRAM source) {
+        memory.share(source.memory);
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        memory.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        memory.loadState(in);
+    }
+
 }
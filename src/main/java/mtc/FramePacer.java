@@ -0,0 +1,154 @@
+package mtc;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+// waits out the rest of a frame. PARK learns how late parkNanos wakes on this host and parks that
+// much shorter, HYBRID spins only over a fixed margin, EXTERNAL waits for the first signal() at or
+// after the deadline and falls back to the deadline if no signal comes for two frames. a display
+// faster than 60Hz signals more often than frames are due, those in between are let pass
+//
+// frames are due a period apart from the first paced one, so wake up lateness does not add up. a
+// frame that ends more than MAX_LAG periods late restarts the schedule instead of the following
+// ones rushing to catch up
+
+public class FramePacer {
+
+    private static final int MAX_LAG = 4;
+    private static final long SPIN_SLEEP_MARGIN = 2_000_000;
+    private static final long HYBRID_SPIN_MARGIN = 200_000;
+    private static final long EXTERNAL_TIMEOUT = 2 * TimingConstants.FRAME_TIME_NANOS;
+
+    private volatile PacingMode mode = PacingMode.PARK;
+
+    // moving average of how far past its target parkNanos returns
+    private long oversleep = 50_000;
+
+    private volatile Thread waiter;
+    private volatile long lastSignal = Long.MIN_VALUE;
+
+    // set when something else does the waiting, the mode is not used then
+    private final LongConsumer awaitDeadline;
+
+    // the pacer's thread only
+    private long nextDeadline;
+    private boolean scheduled;
+
+    public FramePacer() {
+        this(null);
+    }
+
+    public FramePacer(LongConsumer awaitDeadline) {
+        this.awaitDeadline = awaitDeadline;
+    }
+
+    // waits for the next frame on the schedule, false when it was restarted instead
+    public boolean awaitNextFrame(long period) {
+        long now = System.nanoTime();
+        boolean onSchedule = scheduled && now - nextDeadline <= MAX_LAG * period;
+        if (!onSchedule) {
+            nextDeadline = now;
+            scheduled = true;
+        }
+        nextDeadline += period;
+
+        waitUntil(nextDeadline);
+        return onSchedule;
+    }
+
+    // the next frame starts a new schedule
+    public void restart() {
+        scheduled = false;
+    }
+
+    public void waitUntil(long deadline) {
+        if (awaitDeadline != null) {
+            awaitDeadline.accept(deadline);
+            return;
+        }
+        switch (mode) {
+            case SPIN -> spin(deadline);
+            case PARK -> park(deadline);
+            case HYBRID -> hybrid(deadline);
+            case EXTERNAL -> external(deadline);
+        }
+    }
+
+    // frame clock for EXTERNAL, callable from any thread
+    public void signal() {
+        lastSignal = System.nanoTime();
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void spin(long deadline) {
+        long remaining = deadline - System.nanoTime();
+
+        if (remaining > SPIN_SLEEP_MARGIN) {
+            try {
+                Thread.sleep((remaining - 1000000) / 1000000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void park(long deadline) {
+        while (true) {
+            long target = deadline - oversleep;
+            long now = System.nanoTime();
+            if (now >= target) {
+                return;
+            }
+
+            LockSupport.parkNanos(target - now);
+            long late = System.nanoTime() - target;
+            if (late > 0) {
+                oversleep += (late - oversleep) / 8;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void hybrid(long deadline) {
+        long now;
+        while ((now = System.nanoTime()) < deadline - HYBRID_SPIN_MARGIN) {
+            LockSupport.parkNanos(deadline - HYBRID_SPIN_MARGIN - now);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void external(long deadline) {
+        long timeout = deadline + EXTERNAL_TIMEOUT;
+        waiter = Thread.currentThread();
+
+        long now;
+        while (lastSignal < deadline && (now = System.nanoTime()) < timeout) {
+            LockSupport.parkNanos(this, timeout - now);
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+
+        waiter = null;
+    }
+
+    public PacingMode getMode() { return mode; }
+    public void setMode(PacingMode mode) { this.mode = mode; }
+
+}
@@ -0,0 +1,65 @@
+package mtc;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// how far each paced frame's length strayed from the target, in 100us buckets up to 10ms with the
+// last bucket collecting everything beyond. recorded on the emulator thread, readable from any
+
+public class JitterHistogram {
+
+    public static final long BUCKET_NANOS = 100_000;
+    public static final int BUCKETS = 101;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(2);  // samples, summed nanos
+    private volatile long max;
+
+    public void record(long jitterNanos) {
+        long jitter = Math.abs(jitterNanos);
+        int bucket = (int) Math.min(BUCKETS - 1, jitter / BUCKET_NANOS);
+
+        counts.incrementAndGet(bucket);
+        totals.incrementAndGet(0);
+        totals.addAndGet(1, jitter);
+        if (jitter > max) {
+            max = jitter;
+        }
+    }
+
+    public long getCount(int bucket) { return counts.get(bucket); }
+    public long getSamples() { return totals.get(0); }
+    public long getMaxNanos() { return max; }
+
+    public double getMeanNanos() {
+        long samples = totals.get(0);
+        return samples == 0 ? 0 : (double) totals.get(1) / samples;
+    }
+
+    // upper edge of the bucket holding the given fraction of samples, e.g. 0.99
+    public long percentileNanos(double fraction) {
+        long samples = totals.get(0);
+        if (samples == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(samples * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return i == BUCKETS - 1 ? max : (i + 1) * BUCKET_NANOS;
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totals.set(0, 0);
+        totals.set(1, 0);
+        max = 0;
+    }
+
+}
@@ -1,26 +1,40 @@
 package mtc;
 
+import cpu.callback.CycleCallback;
 import shared.Clocked;
 import shared.Component;
+import shared.Stateful;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
-public class MasterTimeController implements Component {
+public class MasterTimeController implements Component, CycleCallback, Stateful {
 
     private long totalCycles;
     private int frameCycles;
     private long frameCount;
 
+    // components run behind the CPU until the earliest of their events or a bus access to them
+    private int pendingCycles;
+    private long nextEventCycle;
+
     private final List<Clocked> components = new ArrayList<>();
 
     private boolean frameLimiter = true;
+    // frames are paced at this multiple of the DMG rate, 0 runs as fast as the host allows
+    private double speedMultiplier = 1.0;
 
-    private long frameStart;
+    private final FramePacer pacer = new FramePacer();
+    private final JitterHistogram jitter = new JitterHistogram();
+    // 0 until a paced frame ended, the next one starts a new schedule then
+    private long lastFrameEnd;
 
     private double currentFPS;
     private long lastFPSUpdate;
     private int framesSinceLastUpdate;
+    private double currentSpeed;
+    private long cyclesAtLastUpdate;
 
     public MasterTimeController() {
         reset();
@@ -28,24 +42,66 @@ public class MasterTimeController implements Component {
 
     public void registerComponent(Clocked component) {
         components.add(component);
+        nextEventCycle = totalCycles;
     }
 
     public void deregisterComponent(Clocked component) {
         components.remove(component);
+        nextEventCycle = totalCycles;
     }
 
     public void addCycles(int cycles) {
         totalCycles += cycles;
         frameCycles += cycles;
+        pendingCycles += cycles;
+
+        if (totalCycles >= nextEventCycle) {
+            reschedule();
+        }
+    }
+
+    @Override
+    public void consumeCycles(int tCycles) {
+        addCycles(tCycles);
+    }
+
+    // no component event before this, and the frame loop wants control back at the frame end
+    @Override
+    public int idleCycles() {
+        long untilEvent = nextEventCycle - totalCycles;
+        int untilFrameEnd = TimingConstants.CYCLES_PER_FRAME - frameCycles;
+        return (int) Math.max(0, Math.min(untilEvent, untilFrameEnd));
+    }
+
+    // brings every component up to the current cycle
+    public void sync() {
+        int cycles = pendingCycles;
+        if (cycles == 0) {
+            return;
+        }
+        pendingCycles = 0;
 
         for (int i = 0; i < components.size(); i++) {
             components.get(i).tick(cycles);
         }
     }
 
+    // syncs and looks up the next event, needed whenever a write may have moved one
+    public void reschedule() {
+        sync();
+
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < components.size(); i++) {
+            int until = components.get(i).cyclesUntilEvent();
+            if (until != Integer.MAX_VALUE) {
+                next = Math.min(next, totalCycles + until);
+            }
+        }
+        nextEventCycle = next;
+    }
+
     public void startFrame() {
         frameCycles = 0;
-        frameStart = System.nanoTime();
     }
 
     public boolean isFrameComplete() {
@@ -53,33 +109,32 @@ public class MasterTimeController implements Component {
     }
 
     public void endFrame() {
+        sync();
         frameCount++;
         framesSinceLastUpdate++;
 
         updateFPS();
 
-        if (frameLimiter) {
+        if (frameLimiter && speedMultiplier > 0) {
             waitForFrameEnd();
+        } else {
+            lastFrameEnd = 0;
         }
     }
 
     public void waitForFrameEnd() {
-        long targetEndTime = frameStart + TimingConstants.FRAME_TIME_NANOS;
-        long now = System.nanoTime();
-        long remaining = targetEndTime - now;
-
-        if (remaining > 2000000) {
-            try {
-                Thread.sleep((remaining - 1000000) / 1000000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
-            }
+        long period = (long) (TimingConstants.FRAME_TIME_NANOS / speedMultiplier);
+        if (lastFrameEnd == 0) {
+            pacer.restart();
         }
 
-        while (System.nanoTime() < targetEndTime) {
-            Thread.onSpinWait();
+        boolean onSchedule = pacer.awaitNextFrame(period);
+
+        long end = System.nanoTime();
+        if (onSchedule) {
+            jitter.record(end - lastFrameEnd - period);
         }
+        lastFrameEnd = end;
     }
 
     private void updateFPS() {
@@ -88,7 +143,9 @@ public class MasterTimeController implements Component {
 
         if (elapsed >= 1000000000) {
             currentFPS = framesSinceLastUpdate * 1000000000.0 / elapsed;
+            currentSpeed = (totalCycles - cyclesAtLastUpdate) * 1000000000.0 / elapsed / TimingConstants.CLOCK_SPEED;
             framesSinceLastUpdate = 0;
+            cyclesAtLastUpdate = totalCycles;
             lastFPSUpdate = now;
         }
     }
@@ -97,11 +154,15 @@ public class MasterTimeController implements Component {
     public void reset() {
         totalCycles = 0;
         frameCycles = 0;
+        pendingCycles = 0;
+        nextEventCycle = 0;
         frameCount = 0;
         currentFPS = 0;
+        currentSpeed = 0;
+        cyclesAtLastUpdate = 0;
         lastFPSUpdate = System.nanoTime();
         framesSinceLastUpdate = 0;
-        frameStart = System.nanoTime();
+        lastFrameEnd = 0;
     }
 
     public long getTotalCycles() { return totalCycles; }
@@ -110,9 +171,38 @@ public class MasterTimeController implements Component {
     public int getCurrentScanline() { return frameCycles / TimingConstants.CYCLES_PER_SCANLINE; }
     public long getFrameCount() { return frameCount; }
     public double getCurrentFps() { return currentFPS; }
+    public double getCurrentSpeed() { return currentSpeed; }
     public boolean isFrameLimitEnabled() { return frameLimiter; }
+    public double getSpeedMultiplier() { return speedMultiplier; }
 
     public void setFrameLimitEnabled(boolean enabled) { this.frameLimiter = enabled; }
+    public void setSpeedMultiplier(double multiplier) { this.speedMultiplier = Math.max(0, multiplier); }
+
+    public FramePacer getPacer() { return pacer; }
+    public JitterHistogram getJitter() { return jitter; }
 
+    // components are synced before saving, so nothing is pending
+    @Override
+    public void saveState(ByteBuffer out) {
+        sync();
+        out.putLong(totalCycles);
+        out.putInt(frameCycles);
+        out.putLong(frameCount);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        totalCycles = in.getLong();
+        frameCycles = in.getInt();
+        frameCount = in.getLong();
+        pendingCycles = 0;
+        nextEventCycle = totalCycles;
+        lastFrameEnd = 0;
+
+        // the cycle count jumped, fps and speed are measured again from here
+        cyclesAtLastUpdate = totalCycles;
+        lastFPSUpdate = System.nanoTime();
+        framesSinceLastUpdate = 0;
+    }
 
 }
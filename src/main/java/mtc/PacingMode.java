@@ -0,0 +1,10 @@
+package mtc;
+
+public enum PacingMode {
+
+    SPIN,       // sleep, then spin the last 1-2ms: tightest, keeps a core busy
+    PARK,       // parkNanos only, early by the measured oversleep: next to no CPU
+    HYBRID,     // park to just short of the deadline, spin the rest
+    EXTERNAL    // wait for the first signal() past the deadline from an outside clock such as vsync
+
+}
@@ -1,75 +1,115 @@
 package ppu;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// three direct pixel buffers passed from the emulator thread to a display without copies or locks.
+// the PPU draws into one, the last finished frame waits in the second and the display shows the
+// third. a finished frame the display never picked up is replaced by the next one
+
 public class FrameBuffer {
 
-    private final int[] buffer = new int[FrameConstants.WIDTH * FrameConstants.HEIGHT];
+    public static final int BUFFERS = 3;
+
+    private static final int PIXELS = FrameConstants.WIDTH * FrameConstants.HEIGHT;
+    private static final int INDEX_MASK = 0x03;
+    private static final int FRESH = 0x04;
+
+    private final IntBuffer[] buffers = new IntBuffer[BUFFERS];
+
+    // lines that changed in each buffer since the display last showed it, top > bottom when none.
+    // the display only uploads these, the rest of its copy still matches
+    private final int[] dirtyTop = new int[BUFFERS];
+    private final int[] dirtyBottom = new int[BUFFERS];
 
-    private final int[] backBuffer = new int[FrameConstants.WIDTH * FrameConstants.HEIGHT];
+    // index of the waiting frame, FRESH while the display has not taken it
+    private final AtomicInteger ready = new AtomicInteger(1);
 
-    private boolean useBackBuffer = false;
+    private int drawIndex = 0;      // emulator thread
+    private int publishedIndex = 1; // emulator thread, last finished frame
+    private int frontIndex = 2;     // display thread
 
-    public void setPixel(int x, int y, int color) {
-        if (x >= 0 && x < FrameConstants.WIDTH && y >= 0 && y < FrameConstants.HEIGHT) {
-            int index = y * FrameConstants.WIDTH + x;
-            if (useBackBuffer) {
-                backBuffer[index] = color;
-            } else {
-                buffer[index] = color;
-            }
+    private final int[] frame = new int[PIXELS];
+
+    public FrameBuffer() {
+        for (int i = 0; i < BUFFERS; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(PIXELS * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+            markAll(i);
         }
     }
 
-    public int getPixel(int x, int y) {
-        if (x >= 0 && x < FrameConstants.WIDTH && y >= 0 && y < FrameConstants.HEIGHT) {
-            return useBackBuffer ? buffer[y * FrameConstants.WIDTH + x] : backBuffer[y * FrameConstants.WIDTH + x];
-        }
-        return 0;
+    // the buffer being drawn, rows of WIDTH pixels
+    public IntBuffer getDrawBuffer() {
+        return buffers[drawIndex];
     }
 
-    public int[] getFrame() {
-        return useBackBuffer ? buffer : backBuffer;
+    public void lineChanged(int y) {
+        dirtyTop[drawIndex] = Math.min(dirtyTop[drawIndex], y);
+        dirtyBottom[drawIndex] = Math.max(dirtyBottom[drawIndex], y);
     }
 
+    // the drawn frame becomes the waiting one, drawing continues in whatever the display let go of
     public void swapBuffers() {
-        useBackBuffer = !useBackBuffer;
+        publishedIndex = drawIndex;
+        drawIndex = ready.getAndSet(drawIndex | FRESH) & INDEX_MASK;
     }
 
-    public void clear() {
-        if (useBackBuffer) {
-            java.util.Arrays.fill(backBuffer, 0);
-        } else {
-            java.util.Arrays.fill(buffer, 0);
+    // display side, index of the newest frame or -1 when nothing was finished since the last call
+    public int acquire() {
+        if ((ready.get() & FRESH) == 0) {
+            return -1;
         }
+        frontIndex = ready.getAndSet(frontIndex) & INDEX_MASK;
+        return frontIndex;
+    }
+
+    public IntBuffer getBuffer(int index) {
+        return buffers[index];
     }
 
-    public static int[] toARGB(int[] gbColors) {
-        int[] palette = {
-                0xFFE0F8D0,
-                0xFF88C070,
-                0xFF346856,
-                0xFF081820
-        };
-
-        int[] argb = new int[gbColors.length];
-        for (int i = 0; i < gbColors.length; i++) {
-            argb[i] = palette[gbColors[i] & 0x03];
+    public int getDirtyTop(int index) { return dirtyTop[index]; }
+    public int getDirtyBottom(int index) { return dirtyBottom[index]; }
+
+    // display side, once the buffer's dirty lines were shown
+    public void clearDirty(int index) {
+        dirtyTop[index] = FrameConstants.HEIGHT;
+        dirtyBottom[index] = -1;
+    }
+
+    // copy of the last finished frame for callers on the emulator thread
+    public int[] getFrame() {
+        buffers[publishedIndex].get(0, frame);
+        return frame;
+    }
+
+    // emulator thread. the display keeps the frame it holds, the waiting one is replaced by a
+    // cleared frame and drawing carries on in another cleared one
+    public void clear(int color) {
+        fill(drawIndex, color);
+        swapBuffers();
+        fill(drawIndex, color);
+    }
+
+    private void fill(int index, int color) {
+        IntBuffer buffer = buffers[index];
+        for (int p = 0; p < PIXELS; p++) {
+            buffer.put(p, color);
         }
-        return argb;
+        markAll(index);
+    }
+
+    private void markAll(int index) {
+        dirtyTop[index] = 0;
+        dirtyBottom[index] = FrameConstants.HEIGHT - 1;
     }
 
-    public static int[] toGrayscale(int[] gbColors) {
-        int[] palette = {
-                0xFFFFFFFF,
-                0xFFAAAAAA,
-                0xFF555555,
-                0xFF000000
-        };
-
-        int[] argb = new int[gbColors.length];
-        for (int i = 0; i < gbColors.length; i++) {
-            argb[i] = palette[gbColors[i] & 0x03];
+    // colours a SHADES frame into out, no allocation
+    public static void toARGB(int[] shades, int[] palette, int[] out) {
+        for (int i = 0; i < shades.length; i++) {
+            out[i] = palette[shades[i] & 0x03];
         }
-        return argb;
     }
 
 }
@@ -0,0 +1,9 @@
+package ppu;
+
+// what the frame buffer holds: the 2 bit shade after BGP/OBP, or the final ARGB colour of the
+// display palette
+
+public enum OutputMode {
+    SHADES,
+    ARGB
+}
@@ -8,12 +8,18 @@ import mem.VRAM;
 import shared.Addressable;
 import shared.Clocked;
 import shared.Component;
+import shared.PagedMemory;
+import shared.Stateful;
 import snapshot.PictureRegisterSnapshot;
 
-public class PPU implements Clocked, Addressable, Component {
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+public class PPU implements Clocked, Addressable, Component, Stateful {
 
     private final VRAM vram;
     private final OAM oam;
+    private final TileCache tiles;
     private final InterruptRequester interrupts;
 
     private int lcdc;
@@ -34,8 +40,16 @@ public class PPU implements Clocked, Addressable, Component {
     private boolean statInterruptLine;
 
     private final FrameBuffer frameBuffer;
-    private final int[] scanlineBuffer;
     private final int[] bgPriorityBuffer;
+    private final int[] previousRow = new int[FrameConstants.WIDTH];
+
+    // BGP/OBP0/OBP1 resolved through the display colours, rebuilt when either changes
+    private static final int[] SHADES = { 0, 1, 2, 3 };
+    private OutputMode outputMode = OutputMode.SHADES;
+    private int[] displayColors = SHADES;
+    private final int[] bgColors = new int[4];
+    private final int[] obp0Colors = new int[4];
+    private final int[] obp1Colors = new int[4];
 
     private final int[] spriteX = new int[10];
     private final int[] spriteY = new int[10];
@@ -43,13 +57,20 @@ public class PPU implements Clocked, Addressable, Component {
     private final int[] spriteFlags = new int[10];
     private int spriteCount;
 
+    private Runnable modeListener;
+
+    // only 1 in frameSkip frames is drawn and published, the rest keep full timing and interrupts
+    private int frameSkip = 1;
+    private int skipCounter;
+    private boolean rendering = true;
+
     public PPU(VRAM vram, OAM oam, InterruptRequester interrupts) {
         this.vram = vram;
         this.oam = oam;
         this.interrupts = interrupts;
+        this.tiles = new TileCache(vram);
 
         this.frameBuffer = new FrameBuffer();
-        this.scanlineBuffer = new int[FrameConstants.WIDTH];
         this.bgPriorityBuffer = new int[FrameConstants.WIDTH];
 
         reset();
@@ -61,19 +82,77 @@ public class PPU implements Clocked, Addressable, Component {
         for (int i = 0; i < cycles; i++) { tickDot(); }
     }
 
+    // walks the mode/line transitions tickDot would take until one raises VBLANK or a STAT edge, or
+    // enters or leaves DRAWING where VRAM access flips and the line is rendered. VBLANK comes around
+    // at least once a frame so the walk is bounded
+    @Override
+    public int cyclesUntilEvent() {
+        if (!isLCDEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+
+        PPUMode nextMode = mode;
+        int nextDot = dot;
+        int nextLy = ly;
+        boolean line = statInterruptLine;
+        int cycles = 0;
+
+        while (true) {
+            int end = switch (nextMode) {
+                case OAM_SCAN -> FrameConstants.OAM_SCAN_DOTS;
+                case DRAWING  -> FrameConstants.OAM_SCAN_DOTS + FrameConstants.DRAWING_MIN_DOTS;
+                default       -> FrameConstants.DOTS_PER_SCANLINE;
+            };
+            cycles += Math.max(end - nextDot, 1);
+            nextDot = end;
+
+            switch (nextMode) {
+                case OAM_SCAN, DRAWING -> {
+                    return cycles;
+                }
+                case HBLANK   -> {
+                    nextDot = 0;
+                    nextLy++;
+                    if (nextLy >= FrameConstants.HEIGHT) {
+                        return cycles;
+                    }
+                    nextMode = PPUMode.OAM_SCAN;
+                }
+                case VBLANK   -> {
+                    nextDot = 0;
+                    nextLy++;
+                    if (nextLy >= FrameConstants.TOTAL_SCANLINES) {
+                        nextLy = 0;
+                        nextMode = PPUMode.OAM_SCAN;
+                    }
+                }
+            }
+
+            boolean interrupt = statCondition(nextMode, nextLy);
+            if (interrupt && !line) {
+                return cycles;
+            }
+            line = interrupt;
+        }
+    }
+
     private void tickDot() {
         dot++;
 
         switch (mode) {
             case OAM_SCAN -> {
                 if (dot >= FrameConstants.OAM_SCAN_DOTS) {
-                    oamScan();
+                    if (rendering) {
+                        oamScan();
+                    }
                     setMode(PPUMode.DRAWING);
                 }
             }
             case DRAWING -> {
                 if (dot >= FrameConstants.OAM_SCAN_DOTS + FrameConstants.DRAWING_MIN_DOTS) {
-                    renderScanline();
+                    if (rendering) {
+                        renderScanline();
+                    }
                     setMode(PPUMode.HBLANK);
                 }
             }
@@ -85,7 +164,9 @@ public class PPU implements Clocked, Addressable, Component {
                     if (ly >= FrameConstants.HEIGHT) {
                         setMode(PPUMode.VBLANK);
                         interrupts.request(INTERRUPT.VBLANK);
-                        frameBuffer.swapBuffers();
+                        if (rendering) {
+                            frameBuffer.swapBuffers();
+                        }
                     } else {
                         setMode(PPUMode.OAM_SCAN);
                     }
@@ -101,6 +182,7 @@ public class PPU implements Clocked, Addressable, Component {
                     if (ly >= FrameConstants.TOTAL_SCANLINES) {
                         ly = 0;
                         windowLineCounter = 0;
+                        nextFrame();
                         setMode(PPUMode.OAM_SCAN);
                     }
 
@@ -110,12 +192,33 @@ public class PPU implements Clocked, Addressable, Component {
         }
     }
 
+    private void nextFrame() {
+        skipCounter = (skipCounter + 1) % frameSkip;
+        rendering = skipCounter == 0;
+    }
+
     private void setMode(PPUMode newMode) {
         mode = newMode;
+        modeChanged();
         checkStatInterrupt();
     }
 
+    private void modeChanged() {
+        if (modeListener != null) {
+            modeListener.run();
+        }
+    }
+
     private void checkStatInterrupt() {
+        boolean interrupt = statCondition(mode, ly);
+
+        if (interrupt && !statInterruptLine) {
+            interrupts.request(INTERRUPT.LCD_STAT);
+        }
+        statInterruptLine = interrupt;
+    }
+
+    private boolean statCondition(PPUMode mode, int ly) {
         boolean interrupt = false;
 
         switch (mode) {
@@ -128,10 +231,7 @@ public class PPU implements Clocked, Addressable, Component {
             interrupt = true;
         }
 
-        if (interrupt && !statInterruptLine) {
-            interrupts.request(INTERRUPT.LCD_STAT);
-        }
-        statInterruptLine = interrupt;
+        return interrupt;
     }
 
     private void checkLycInterrupt() {
@@ -160,58 +260,47 @@ public class PPU implements Clocked, Addressable, Component {
         }
     }
 
+    // layers are drawn straight into the frame buffer row, bgPriorityBuffer keeps the BG/window
+    // colour indices the sprites test against. the row is only reported when it came out different
+    // from what the buffer held, a still screen uploads nothing
     private void renderScanline() {
-        java.util.Arrays.fill(scanlineBuffer, 0);
-        java.util.Arrays.fill(bgPriorityBuffer, 0);
+        IntBuffer out = frameBuffer.getDrawBuffer();
+        int rowStart = ly * FrameConstants.WIDTH;
+        out.get(rowStart, previousRow);
 
         if ((lcdc & FrameConstants.LCDC_BG_ENABLE) != 0) {
-            renderBackground();
+            renderBackground(out, rowStart);
+        } else {
+            for (int x = 0; x < FrameConstants.WIDTH; x++) {
+                out.put(rowStart + x, displayColors[0]);
+            }
+            java.util.Arrays.fill(bgPriorityBuffer, 0);
         }
 
         if ((lcdc & FrameConstants.LCDC_WIN_ENABLE) != 0 && (lcdc & FrameConstants.LCDC_BG_ENABLE) != 0) {
-            renderWindow();
+            renderWindow(out, rowStart);
         }
 
         if ((lcdc & FrameConstants.LCDC_OBJ_ENABLE) != 0) {
-            renderSprites();
+            renderSprites(out, rowStart);
         }
 
         for (int x = 0; x < FrameConstants.WIDTH; x++) {
-            frameBuffer.setPixel(x, ly, scanlineBuffer[x]);
+            if (out.get(rowStart + x) != previousRow[x]) {
+                frameBuffer.lineChanged(ly);
+                break;
+            }
         }
     }
 
-    private void renderBackground() {
-        int tileMapBase = (lcdc &FrameConstants. LCDC_BG_TILEMAP) != 0 ? 0x1C00 : 0x1800;
-
-        boolean signedAddressing = (lcdc & FrameConstants.LCDC_TILE_DATA) == 0;
-        int tileDataBase = signedAddressing ? 0x1000 : 0x0000;
+    private void renderBackground(IntBuffer out, int rowStart) {
+        int tileMapBase = (lcdc & FrameConstants.LCDC_BG_TILEMAP) != 0 ? 0x1C00 : 0x1800;
 
         int y = (ly + scy) & 0xFF;
-        int tileRow = y / 8;
-        int tileY = y % 8;
-
-        for (int x = 0; x < FrameConstants.WIDTH; x++) {
-            int scrolledX = (x + scx) & 0xFF;
-            int tileCol = scrolledX / 8;
-            int tileX = scrolledX % 8;
-
-            int tileMapAddr = tileMapBase + tileRow * 32 + tileCol;
-            int tileIndex = vram.directMemoryAccess()[tileMapAddr] & 0xFF;
-
-            if (signedAddressing) {
-                tileIndex = (byte) tileIndex;  // Sign extend
-            }
-
-            int tileAddr = tileDataBase + tileIndex * 16 + tileY * 2;
-            int color = getTilePixel(tileAddr, 7 - tileX);
-
-            scanlineBuffer[x] = applyPalette(color, bgp);
-            bgPriorityBuffer[x] = color;
-        }
+        renderTiles(out, rowStart, 0, tileMapBase + (y / 8) * 32, scx / 8, scx % 8, y % 8);
     }
 
-    private void renderWindow() {
+    private void renderWindow(IntBuffer out, int rowStart) {
         if (ly < wy || wx > 166) {
             return;
         }
@@ -221,42 +310,44 @@ public class PPU implements Clocked, Addressable, Component {
 
         int tileMapBase = (lcdc & FrameConstants.LCDC_WIN_TILEMAP) != 0 ? 0x1C00 : 0x1800;
 
-        boolean signedAddressing = (lcdc & FrameConstants.LCDC_TILE_DATA) == 0;
-        int tileDataBase = signedAddressing ? 0x1000 : 0x0000;
-
         int y = windowLineCounter;
-        int tileRow = y / 8;
-        int tileY = y % 8;
+        renderTiles(out, rowStart, windowX, tileMapBase + (y / 8) * 32, 0, 0, y % 8);
 
-        boolean windowUsed = false;
-
-        for (int x = windowX; x < FrameConstants.WIDTH; x++) {
-            int winX = x - windowX;
-            int tileCol = winX / 8;
-            int tileX = winX % 8;
+        windowLineCounter++;
+    }
 
-            int tileMapAddr = tileMapBase + tileRow * 32 + tileCol;
-            int tileIndex = vram.directMemoryAccess()[tileMapAddr] & 0xFF;
+    // one tile map row from screen x to the end of the line, each tile is looked up once and its
+    // decoded row copied. only the first tile can start part way in (fine scroll), the last one is
+    // cut off by the screen edge
+    private void renderTiles(IntBuffer out, int rowStart, int x, int mapRow, int tileCol, int fine, int tileY) {
+        boolean signedAddressing = (lcdc & FrameConstants.LCDC_TILE_DATA) == 0;
+        // a map row is 32 bytes, it never crosses a page
+        byte[] map = vram.getMemory().getPage(mapRow >> PagedMemory.PAGE_SHIFT);
+        int mapOffset = mapRow & (PagedMemory.PAGE_SIZE - 1);
+        byte[] pixels = tiles.getPixels();
 
+        while (x < FrameConstants.WIDTH) {
+            int tileIndex = map[mapOffset + (tileCol & 31)] & 0xFF;
             if (signedAddressing) {
-                tileIndex = (byte) tileIndex;
+                tileIndex = 256 + (byte) tileIndex;  // Sign extend, 0x9000 is tile 256
             }
 
-            int tileAddr = tileDataBase + tileIndex * 16 + tileY * 2;
+            int row = tiles.row(tileIndex, tileY);
+            int count = Math.min(8 - fine, FrameConstants.WIDTH - x);
 
-            int color = getTilePixel(tileAddr, 7 - tileX);
-
-            scanlineBuffer[x] = applyPalette(color, bgp);
-            bgPriorityBuffer[x] = color;
-            windowUsed = true;
-        }
+            for (int i = 0; i < count; i++) {
+                int color = pixels[row + fine + i];
+                out.put(rowStart + x + i, bgColors[color]);
+                bgPriorityBuffer[x + i] = color;
+            }
 
-        if (windowUsed) {
-            windowLineCounter++;
+            x += count;
+            fine = 0;
+            tileCol++;
         }
     }
 
-    private void renderSprites() {
+    private void renderSprites(IntBuffer out, int rowStart) {
         for (int i = spriteCount - 1; i >= 0; i--) {
             int x = spriteX[i];
             int y = spriteY[i];
@@ -266,7 +357,7 @@ public class PPU implements Clocked, Addressable, Component {
             boolean flipX = (flags & 0x20) != 0;
             boolean flipY = (flags & 0x40) != 0;
             boolean bgPriority = (flags & 0x80) != 0;
-            int palette = (flags & 0x10) != 0 ? obp1 : obp0;
+            int[] colors = (flags & 0x10) != 0 ? obp1Colors : obp0Colors;
 
             int spriteHeight = (lcdc & FrameConstants.LCDC_OBJ_SIZE) != 0 ? 16 : 8;
             int spriteY = ly - y;
@@ -279,37 +370,38 @@ public class PPU implements Clocked, Addressable, Component {
                 tile &= 0xFE;
             }
 
-            int tileAddr = tile * 16 + spriteY * 2;
+            byte[] pixels = flipX ? tiles.getFlipped() : tiles.getPixels();
+            int row = tiles.row(tile + spriteY / 8, spriteY % 8);
 
             for (int px = 0; px < 8; px++) {
                 int screenX = x + px;
                 if (screenX < 0 || screenX >= FrameConstants.WIDTH) continue;
 
-                int tileX = flipX ? px : (7 - px);
-                int color = getTilePixel(tileAddr, tileX);
+                int color = pixels[row + px];
 
                 if (color == 0) continue;
 
                 if (bgPriority && bgPriorityBuffer[screenX] != 0) continue;
 
-                scanlineBuffer[screenX] = applyPalette(color, palette);
+                out.put(rowStart + screenX, colors[color]);
             }
         }
     }
 
-    private int getTilePixel(int tileAddr, int bit) {
-        byte[] data = vram.directMemoryAccess();
-        int lo = data[tileAddr] & 0xFF;
-        int hi = data[tileAddr + 1] & 0xFF;
-
-        int loBit = (lo >> bit) & 1;
-        int hiBit = (hi >> bit) & 1;
+    private int applyPalette(int color, int palette) {
+        return (palette >> (color * 2)) & 0x03;
+    }
 
-        return (hiBit << 1) | loBit;
+    private void resolveColors(int[] colors, int palette) {
+        for (int color = 0; color < 4; color++) {
+            colors[color] = displayColors[applyPalette(color, palette)];
+        }
     }
 
-    private int applyPalette(int color, int palette) {
-        return (palette >> (color * 2)) & 0x03;
+    private void resolveColors() {
+        resolveColors(bgColors, bgp);
+        resolveColors(obp0Colors, obp0);
+        resolveColors(obp1Colors, obp1);
     }
 
     @Override
@@ -351,15 +443,18 @@ public class PPU implements Clocked, Addressable, Component {
                     mode = PPUMode.OAM_SCAN;
                     dot = 0;
                 }
+                if (wasEnabled != isLCDEnabled()) {
+                    modeChanged();
+                }
             }
             case MemoryConstants.STAT -> stat = (stat & 0x07) | (value & 0x78);
             case MemoryConstants.SCY  -> scy = value;
             case MemoryConstants.SCX  -> scx = value;
             case MemoryConstants.LY   -> {}
             case MemoryConstants.LYC  -> { lyc = value; checkLycInterrupt(); }
-            case MemoryConstants.BGP  -> bgp = value;
-            case MemoryConstants.OBP0 -> obp0 = value;
-            case MemoryConstants.OBP1 -> obp1 = value;
+            case MemoryConstants.BGP  -> { bgp = value; resolveColors(bgColors, bgp); }
+            case MemoryConstants.OBP0 -> { obp0 = value; resolveColors(obp0Colors, obp0); }
+            case MemoryConstants.OBP1 -> { obp1 = value; resolveColors(obp1Colors, obp1); }
             case MemoryConstants.WY   -> wy = value;
             case MemoryConstants.WX   -> wx = value;
         }
@@ -378,13 +473,16 @@ public class PPU implements Clocked, Addressable, Component {
         obp1 = 0xFF;
         wy = 0;
         wx = 0;
+        resolveColors();
 
         mode = PPUMode.OAM_SCAN;
         dot = 0;
         windowLineCounter = 0;
         statInterruptLine = false;
+        skipCounter = 0;
+        rendering = true;
 
-        frameBuffer.clear();
+        frameBuffer.clear(displayColors[0]);
     }
 
     public boolean isLCDEnabled() {
@@ -397,6 +495,37 @@ public class PPU implements Clocked, Addressable, Component {
 
     public FrameBuffer getFrameBuffer() { return frameBuffer; }
 
+    // ARGB draws the display palette's colours straight into the frame, SHADES leaves colouring
+    // to whoever shows the frame
+    public void setOutputMode(OutputMode mode, int[] palette) {
+        boolean changed = mode != outputMode;
+        this.outputMode = mode;
+        this.displayColors = mode == OutputMode.ARGB ? palette.clone() : SHADES;
+        resolveColors();
+
+        // frames drawn in the other format would be shown wrong
+        if (changed) {
+            frameBuffer.clear(displayColors[0]);
+        }
+    }
+
+    public OutputMode getOutputMode() { return outputMode; }
+    public int[] getDisplayColors() { return displayColors.clone(); }
+
+    // takes effect from the next frame, which is always drawn, so the one in progress is finished
+    // as it started
+    public void setFrameSkip(int frames) {
+        this.frameSkip = Math.max(1, frames);
+        this.skipCounter = frameSkip - 1;
+    }
+
+    public int getFrameSkip() { return frameSkip; }
+
+    // runs whenever the mode or the LCD enable changes what the CPU may access
+    public void setModeListener(Runnable listener) {
+        this.modeListener = listener;
+    }
+
     public boolean isVBlankStart() {
         return mode == PPUMode.VBLANK && ly == 144 && dot == 0;
     }
@@ -417,4 +546,43 @@ public class PPU implements Clocked, Addressable, Component {
                 mode
         );
     }
+
+    // OAM has to be restored first, a line caught in DRAWING scans its sprites again
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) lcdc).put((byte) stat).put((byte) scy).put((byte) scx)
+                .put((byte) ly).put((byte) lyc).put((byte) bgp).put((byte) obp0)
+                .put((byte) obp1).put((byte) wy).put((byte) wx);
+        out.put((byte) mode.ordinal());
+        out.putShort((short) dot);
+        out.put((byte) windowLineCounter);
+        out.put((byte) (statInterruptLine ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        lcdc = in.get() & 0xFF;
+        stat = in.get() & 0xFF;
+        scy = in.get() & 0xFF;
+        scx = in.get() & 0xFF;
+        ly = in.get() & 0xFF;
+        lyc = in.get() & 0xFF;
+        bgp = in.get() & 0xFF;
+        obp0 = in.get() & 0xFF;
+        obp1 = in.get() & 0xFF;
+        wy = in.get() & 0xFF;
+        wx = in.get() & 0xFF;
+        mode = PPUMode.values()[in.get()];
+        dot = in.getShort();
+        windowLineCounter = in.get() & 0xFF;
+        statInterruptLine = in.get() != 0;
+
+        resolveColors();
+        skipCounter = 0;
+        rendering = true;
+        if (mode == PPUMode.DRAWING) {
+            oamScan();
+        }
+        modeChanged();
+    }
 }
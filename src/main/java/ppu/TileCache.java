@@ -0,0 +1,56 @@
+package ppu;
+
+import mem.MemoryConstants;
+import mem.VRAM;
+import shared.PagedMemory;
+
+// the 384 VRAM tiles decoded to one 2 bit colour per byte, 8 rows of 8 pixels each, plus a
+// horizontally flipped copy for sprites. a tile is decoded again the first time it is drawn after
+// VRAM wrote into it
+
+public class TileCache {
+
+    public static final int TILE_PIXELS = 64;
+
+    private final VRAM vram;
+    private final byte[] pixels = new byte[MemoryConstants.TILE_COUNT * TILE_PIXELS];
+    private final byte[] flipped = new byte[MemoryConstants.TILE_COUNT * TILE_PIXELS];
+
+    public TileCache(VRAM vram) {
+        this.vram = vram;
+    }
+
+    // offset of the row's first pixel in getPixels() / getFlipped(), tile 0-383 as VRAM numbers them
+    public int row(int tile, int y) {
+        if (vram.isTileDirty(tile)) {
+            decode(tile);
+        }
+        return tile * TILE_PIXELS + y * 8;
+    }
+
+    private void decode(int tile) {
+        // 16 tiles to a page
+        int address = tile * MemoryConstants.TILE_SIZE;
+        byte[] data = vram.getMemory().getPage(address >> PagedMemory.PAGE_SHIFT);
+        int base = address & (PagedMemory.PAGE_SIZE - 1);
+
+        for (int y = 0; y < 8; y++) {
+            int lo = data[base + y * 2] & 0xFF;
+            int hi = data[base + y * 2 + 1] & 0xFF;
+            int row = tile * TILE_PIXELS + y * 8;
+
+            for (int x = 0; x < 8; x++) {
+                int bit = 7 - x;
+                byte color = (byte) ((((hi >> bit) & 1) << 1) | ((lo >> bit) & 1));
+                pixels[row + x] = color;
+                flipped[row + 7 - x] = color;
+            }
+        }
+
+        vram.clearTileDirty(tile);
+    }
+
+    public byte[] getPixels() { return pixels; }
+    public byte[] getFlipped() { return flipped; }
+
+}
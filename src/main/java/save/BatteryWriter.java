@@ -0,0 +1,131 @@
+package save;
+
+import shared.PagedMemory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// keeps a battery save file up to date while the game runs. the emulation thread only takes a
+// snapshot of the RAM's pages, which copies page references, and the writes after it copy just
+// the pages they touch. a writer thread turns the snapshot into the file, written next to it and
+// renamed over it, so a crash leaves the last complete save
+//
+// saves wait for the RAM to stay unchanged for a moment, games write a save in many small pieces,
+// but one that never settles is still written every few seconds
+
+public class BatteryWriter {
+
+    public static final long DEBOUNCE_NANOS = 500_000_000L;
+    public static final long MAX_DELAY_NANOS = 5_000_000_000L;
+    private static final long RETRY_NANOS = 1_000_000_000L;
+
+    private final PagedMemory memory;
+    private final Path file;
+    private final Thread thread;
+
+    // emulation thread only, writes since the mark have not been seen by poll or flush yet
+    private long mark;
+    private boolean changed;
+    private long firstChange;
+    private long lastChange;
+
+    private final AtomicReference<PagedMemory.Snapshot> pending = new AtomicReference<>();
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    // what the memory holds now counts as saved, load the save file into it first
+    public BatteryWriter(PagedMemory memory, Path file) {
+        this.memory = memory;
+        this.file = file;
+
+        this.mark = memory.mark();
+
+        this.thread = new Thread(this::run, "battery-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // call from the emulation thread, once a frame or more often
+    public void poll(long now) {
+        if (memory.hasWritesSince(mark)) {
+            mark = memory.mark();
+            if (!changed) {
+                firstChange = now;
+            }
+            lastChange = now;
+            changed = true;
+        }
+
+        if (changed && (now - lastChange >= DEBOUNCE_NANOS || now - firstChange >= MAX_DELAY_NANOS)) {
+            flush();
+        }
+    }
+
+    // hands whatever changed to the writer without waiting, emulation thread only
+    public void flush() {
+        if (!changed && !memory.hasWritesSince(mark)) {
+            return;
+        }
+        pending.set(memory.snapshot());
+        mark = memory.mark();
+        changed = false;
+        LockSupport.unpark(thread);
+    }
+
+    // flushes and stops the writer, completes once the file is written. emulation thread only
+    public CompletableFuture<Void> close() {
+        if (!closing) {
+            flush();
+            closing = true;
+            LockSupport.unpark(thread);
+        }
+        return closed;
+    }
+
+    // changes seen by poll that were not handed to the writer yet
+    public boolean hasUnsavedChanges() {
+        return changed;
+    }
+
+    // why the last write failed, null once one succeeds. failed writes are retried until closed
+    public IOException getFailure() {
+        return failure;
+    }
+
+    public Path getFile() { return file; }
+
+    private void run() {
+        byte[] data = new byte[memory.getSize()];
+
+        while (true) {
+            boolean last = closing;
+            PagedMemory.Snapshot snapshot = pending.getAndSet(null);
+
+            if (snapshot != null) {
+                snapshot.copyTo(data, data.length);
+                try {
+                    SaveManager.writeAtomically(file, data);
+                    failure = null;
+                } catch (IOException e) {
+                    failure = e;
+                    // kept for another try unless a newer snapshot took its place
+                    if (!last) {
+                        pending.compareAndSet(null, snapshot);
+                        LockSupport.parkNanos(this, RETRY_NANOS);
+                    }
+                }
+            } else if (last) {
+                break;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+
+        closed.complete(null);
+    }
+
+}
@@ -0,0 +1,238 @@
+package save;
+
+import core.Core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// keeps the last states of a Core for stepping back through them. the newest state is held in
+// full, every older one only as the XOR against the state after it, run length coded. between
+// captured frames most of WRAM and VRAM is unchanged, so a delta is mostly zero runs and a few
+// hundred bytes. the deltas live in a fixed direct buffer, the oldest are dropped when it or the
+// state count is full. stepping back XORs the newest delta into the held state and loads it
+//
+// a delta is a sequence of (zero run, literal length, literal bytes), both lengths as varints.
+// literals only end at 4 or more zeros, so a chunk never costs more than the zeros it leaves out
+
+public class RewindBuffer {
+
+    private static final int MIN_ZERO_RUN = 4;
+
+    private final ByteBuffer ring;
+    private final int interval;
+    private final int maxStates;
+
+    // where each delta starts in the ring and how long it is, oldest at first
+    private final int[] starts;
+    private final int[] lengths;
+    private int first;
+    private int count;
+    private int head;
+
+    private ByteBuffer scratch;
+    private byte[] current;
+    private byte[] delta;
+    private int stateLength = -1;
+    private int framesSinceCapture;
+
+    public RewindBuffer(int capacityBytes, int interval, int maxStates) {
+        this.ring = ByteBuffer.allocateDirect(capacityBytes);
+        this.interval = Math.max(1, interval);
+        this.maxStates = Math.max(1, maxStates);
+        this.starts = new int[this.maxStates];
+        this.lengths = new int[this.maxStates];
+    }
+
+    // call after every emulated frame, a state is captured every interval frames
+    public void onFrame(Core core) {
+        if (++framesSinceCapture >= interval) {
+            capture(core);
+        }
+    }
+
+    public void capture(Core core) {
+        framesSinceCapture = 0;
+
+        // sized by the cartridge's RAM
+        int maxLength = core.getStateSize();
+        if (scratch == null || scratch.capacity() < maxLength) {
+            scratch = SaveState.allocate(maxLength);
+        }
+        scratch.clear();
+        core.saveState(scratch);
+        int length = scratch.position();
+        byte[] state = scratch.array();
+
+        // a different cartridge or layout starts over
+        if (length != stateLength) {
+            clear();
+            stateLength = length;
+            current = Arrays.copyOf(state, length);
+            delta = new byte[length + 16];
+            return;
+        }
+
+        int size = encode(state, current, length, delta);
+        System.arraycopy(state, 0, current, 0, length);
+        push(delta, size);
+    }
+
+    // loads the newest state, or the one before it when nothing ran since that was loaded. false
+    // once there is nothing older
+    public boolean stepBack(Core core) {
+        if (current == null) {
+            return false;
+        }
+
+        if (framesSinceCapture == 0) {
+            if (count == 0) {
+                return false;
+            }
+            int last = (first + count - 1) % maxStates;
+            decode(ring, starts[last], lengths[last], current);
+            head = starts[last];
+            count--;
+        }
+
+        framesSinceCapture = 0;
+        core.loadState(current);
+        return true;
+    }
+
+    public void clear() {
+        first = 0;
+        count = 0;
+        head = 0;
+        current = null;
+        stateLength = -1;
+        framesSinceCapture = 0;
+    }
+
+    // states that can still be stepped back to, the held one included
+    public int getStateCount() {
+        return current == null ? 0 : count + 1;
+    }
+
+    public int getInterval() { return interval; }
+    public int getCapacity() { return ring.capacity(); }
+
+    public int getUsedBytes() {
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            used += lengths[(first + i) % maxStates];
+        }
+        return used;
+    }
+
+    private void push(byte[] data, int size) {
+        if (size > ring.capacity()) {
+            clearHistory();
+            return;
+        }
+
+        // a delta never wraps, the space left at the end is skipped along with the deltas in it,
+        // which are the oldest
+        if (head + size > ring.capacity()) {
+            while (count > 0 && starts[first] >= head) {
+                dropOldest();
+            }
+            head = 0;
+        }
+        while (count > 0 && (count == maxStates || overlaps(starts[first], lengths[first], head, size))) {
+            dropOldest();
+        }
+
+        ring.put(head, data, 0, size);
+        int index = (first + count) % maxStates;
+        starts[index] = head;
+        lengths[index] = size;
+        count++;
+        head += size;
+    }
+
+    private void clearHistory() {
+        first = 0;
+        count = 0;
+        head = 0;
+    }
+
+    private void dropOldest() {
+        first = (first + 1) % maxStates;
+        count--;
+    }
+
+    private static boolean overlaps(int start, int length, int otherStart, int otherLength) {
+        return start < otherStart + otherLength && otherStart < start + length;
+    }
+
+    private static int encode(byte[] a, byte[] b, int length, byte[] out) {
+        int in = 0;
+        int pos = 0;
+
+        while (in < length) {
+            int zeroStart = in;
+            while (in < length && a[in] == b[in]) {
+                in++;
+            }
+            int zeros = in - zeroStart;
+
+            int literalStart = in;
+            int run = 0;
+            while (in < length && run < MIN_ZERO_RUN) {
+                run = a[in] == b[in] ? run + 1 : 0;
+                in++;
+            }
+            if (run == MIN_ZERO_RUN) {
+                in -= run;
+            }
+            int literals = in - literalStart;
+
+            pos = putVarint(out, pos, zeros);
+            pos = putVarint(out, pos, literals);
+            for (int i = literalStart; i < in; i++) {
+                out[pos++] = (byte) (a[i] ^ b[i]);
+            }
+        }
+        return pos;
+    }
+
+    private static void decode(ByteBuffer ring, int start, int length, byte[] target) {
+        int pos = start;
+        int end = start + length;
+        int out = 0;
+
+        while (pos < end) {
+            int zeros = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = ring.get(pos++);
+                zeros |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            int literals = 0;
+            shift = 0;
+            do {
+                b = ring.get(pos++);
+                literals |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            out += zeros;
+            for (int i = 0; i < literals; i++) {
+                target[out++] ^= ring.get(pos++);
+            }
+        }
+    }
+
+    private static int putVarint(byte[] out, int pos, int value) {
+        while (value >= 0x80) {
+            out[pos++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+}
@@ -1,22 +1,33 @@
 package save;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class SaveManager {
 
     private static final File BASE_DIR = resolveBaseDirectory();
     private static final File SAVES_DIR = new File(BASE_DIR, "saves");
     private static final File HISTORY_FILE = new File(BASE_DIR, "game_history.dat");
+    private static final File IDLE_SKIP_FILE = new File(BASE_DIR, "idle_skip_enabled.dat");
 
     private List<GameHistory> history = new ArrayList<>();
+    private Set<String> idleSkipEnabled = new HashSet<>();
 
     public SaveManager() {
         SAVES_DIR.mkdirs();
         loadHistory();
+        loadIdleSkipSettings();
     }
 
 
@@ -59,6 +70,38 @@ public class SaveManager {
         saveHistory();
     }
 
+    // idle loop skipping is a heuristic, it stays off unless it was turned on for this ROM
+    public boolean isIdleSkipEnabled(File romPath) {
+        return idleSkipEnabled.contains(romPath.getAbsolutePath());
+    }
+
+    public void setIdleSkipEnabled(File romPath, boolean enabled) {
+        boolean changed = enabled
+                ? idleSkipEnabled.add(romPath.getAbsolutePath())
+                : idleSkipEnabled.remove(romPath.getAbsolutePath());
+        if (changed) {
+            saveIdleSkipSettings();
+        }
+    }
+
+    private void loadIdleSkipSettings() {
+        if (!IDLE_SKIP_FILE.exists()) return;
+
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(IDLE_SKIP_FILE))) {
+            idleSkipEnabled = (Set<String>) ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            idleSkipEnabled = new HashSet<>();
+        }
+    }
+
+    private void saveIdleSkipSettings() {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(IDLE_SKIP_FILE))) {
+            oos.writeObject(idleSkipEnabled);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to Save Settings");
+        }
+    }
+
     private File getSaveFile(File romPath) {
         String romName = romPath.getName();
         String saveName = romName.substring(0, romName.lastIndexOf('.')) + ".sav";
@@ -79,17 +122,55 @@ public class SaveManager {
         }
     }
 
+    // where a BatteryWriter keeps the ROM's battery save
+    public Path getSavePath(File romPath) {
+        return getSaveFile(romPath).toPath();
+    }
+
     public boolean createSave(File romPath, byte[] saveData) {
         File saveFile = getSaveFile(romPath);
 
         try {
-            Files.write(saveFile.toPath(), saveData);
+            writeAtomically(saveFile.toPath(), saveData);
             return true;
         } catch (IOException e) {
             throw new RuntimeException("Failed to Create Save");
         }
     }
 
+    // one save state slot per ROM next to its battery save
+    private File getStateFile(File romPath) {
+        String romName = romPath.getName();
+        String stateName = romName.substring(0, romName.lastIndexOf('.')) + ".state";
+        return new File(SAVES_DIR, stateName);
+    }
+
+    public byte[] loadState(File romPath) {
+        File stateFile = getStateFile(romPath);
+
+        if (!stateFile.exists()) {
+            return null;
+        }
+
+        try {
+            return Files.readAllBytes(stateFile.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to Load State");
+        }
+    }
+
+    public void createState(File romPath, byte[] state) {
+        try {
+            writeAtomically(getStateFile(romPath).toPath(), state);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to Create State");
+        }
+    }
+
+    public boolean hasStateFile(File romPath) {
+        return getStateFile(romPath).exists();
+    }
+
     public boolean hasSaveFile(File romPath) {
         return getSaveFile(romPath).exists();
     }
@@ -110,6 +191,31 @@ public class SaveManager {
         return new ArrayList<>(history);
     }
 
+    // written next to the file and renamed over it, a crash leaves either the old file or the new one.
+    // every write has its own temporary, a manual save and the battery writer can overlap
+    static void writeAtomically(Path file, byte[] data) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
     private static File resolveBaseDirectory() {
         try {
             File appDir = new File(
@@ -0,0 +1,109 @@
+package save;
+
+import save.exceptions.InvalidSaveStateException;
+import shared.Stateful;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// full machine state, little endian:
+//   "JGBS", u16 version, u16 section count, u32 CRC32 of the ROM
+//   per section: u16 index, u32 length, whatever the component wrote
+// the framing is checked before any component is touched, so a truncated state or one of
+// another ROM or version fails right away. a section whose contents are damaged only fails while
+// its component loads it, after the ones before it, so Core reads a state into a scratch machine
+// before its own
+
+public final class SaveState {
+
+    public static final int MAGIC = 0x5342474A;     // "JGBS" once little endian
+    public static final int VERSION = 1;
+
+    // 8K VRAM, 8K WRAM and the small components stay well under this, cartridge RAM of up to 128K
+    // comes on top
+    public static final int BASE_SIZE = 24 * 1024;
+
+    private static final int HEADER_SIZE = 12;
+    private static final int SECTION_HEADER_SIZE = 6;
+
+    public static int maxSize(int cartridgeRAMSize) {
+        return BASE_SIZE + cartridgeRAMSize;
+    }
+
+    public static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static void write(ByteBuffer out, int romChecksum, Stateful... sections) {
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC);
+        out.putShort((short) VERSION);
+        out.putShort((short) sections.length);
+        out.putInt(romChecksum);
+
+        for (int i = 0; i < sections.length; i++) {
+            int start = out.position();
+            out.putShort((short) i);
+            out.putInt(0);
+            sections[i].saveState(out);
+            out.putInt(start + 2, out.position() - start - SECTION_HEADER_SIZE);
+        }
+    }
+
+    public static void read(ByteBuffer in, int romChecksum, Stateful... sections) {
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        int base = in.position();
+        verify(in, base, romChecksum, sections.length);
+
+        in.position(base + HEADER_SIZE);
+        for (Stateful section : sections) {
+            in.position(in.position() + 2);
+            int length = in.getInt();
+            int end = in.position() + length;
+
+            section.loadState(in);
+            if (in.position() != end) {
+                throw new InvalidSaveStateException("Save state section of " + section.getClass().getSimpleName()
+                        + " is " + length + " bytes, " + (in.position() - end + length) + " were read");
+            }
+        }
+    }
+
+    private static void verify(ByteBuffer in, int base, int romChecksum, int count) {
+        if (in.limit() - base < HEADER_SIZE) {
+            throw new InvalidSaveStateException("Save state is truncated");
+        }
+        if (in.getInt(base) != MAGIC) {
+            throw new InvalidSaveStateException("Not a save state");
+        }
+        int version = in.getShort(base + 4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new InvalidSaveStateException("Unsupported save state version " + version);
+        }
+        if ((in.getShort(base + 6) & 0xFFFF) != count) {
+            throw new InvalidSaveStateException("Save state has " + (in.getShort(base + 6) & 0xFFFF)
+                    + " sections, expected " + count);
+        }
+        if (in.getInt(base + 8) != romChecksum) {
+            throw new InvalidSaveStateException("Save state belongs to another ROM");
+        }
+
+        int position = base + HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            if (in.limit() - position < SECTION_HEADER_SIZE || (in.getShort(position) & 0xFFFF) != i) {
+                throw new InvalidSaveStateException("Save state is truncated");
+            }
+            int length = in.getInt(position + 2);
+            position += SECTION_HEADER_SIZE;
+            if (length < 0 || in.limit() - position < length) {
+                throw new InvalidSaveStateException("Save state is truncated");
+            }
+            position += length;
+        }
+    }
+
+    private SaveState() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}
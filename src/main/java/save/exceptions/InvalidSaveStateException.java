@@ -0,0 +1,11 @@
+package save.exceptions;
+
+public class InvalidSaveStateException extends RuntimeException {
+    public InvalidSaveStateException(String message) {
+        super(message);
+    }
+
+    public InvalidSaveStateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
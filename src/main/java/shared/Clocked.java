@@ -4,4 +4,11 @@ public interface Clocked {
 
     void tick(int cycles);
 
+    // cycles until the next tick that can raise an interrupt. In between, the component is only
+    // caught up when the bus touches it, so anything it does there has to be invisible until then.
+    // 0 keeps it ticking in step with the CPU
+    default int cyclesUntilEvent() {
+        return 0;
+    }
+
 }
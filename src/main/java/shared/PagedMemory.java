@@ -0,0 +1,232 @@
+package shared;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// memory in 256 byte pages, the same pages mem.PageTable maps. pages can be shared with snapshots
+// and with other memories, a shared page is copied the first time it is written, so a snapshot is a
+// reference per page and copies that diverge only pay for the pages they wrote
+//
+// a page belongs to this memory alone while its generation is the memory's. a snapshot or share
+// moves the memory to the next generation, which makes every page shared at once
+//
+// written pages are recorded by epoch, so whoever saves or shows the memory only has to look at
+// what changed. each of them takes its own mark and later asks what was written since, none of
+// them can clear what another has yet to see. a mark starts a new epoch and the first write to a
+// page in it has to come through here to be recorded, so whoever maps pages for writing directly
+// has to listen for page changes and only map writable ones
+
+public class PagedMemory {
+
+    public static final int PAGE_SHIFT = 8;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int size;
+    private final byte[][] pages;
+    private final int[] generations;
+    private int generation = 1;
+    private final long[] written;
+    private long epoch = 1;
+    private long lastWritten;
+
+    private IntConsumer pageListener;
+
+    // the pages at the time it was taken, never written, so any thread may read them
+    public static final class Snapshot {
+        private final byte[][] pages;
+
+        private Snapshot(byte[][] pages) {
+            this.pages = pages;
+        }
+
+        public void copyTo(byte[] out, int length) {
+            copyPages(pages, out, length);
+        }
+    }
+
+    public PagedMemory(int size, byte fill) {
+        this.size = size;
+        this.pages = new byte[(size + PAGE_MASK) >> PAGE_SHIFT][];
+        this.generations = new int[pages.length];
+        this.written = new long[pages.length];
+
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = new byte[pageLength(page)];
+            Arrays.fill(pages[page], fill);
+            generations[page] = generation;
+        }
+        markAllWritten();
+    }
+
+    public byte read(int index) {
+        return pages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+    }
+
+    public void write(int index, byte value) {
+        getWritablePage(index >>> PAGE_SHIFT)[index & PAGE_MASK] = value;
+    }
+
+    // for reading only, the array stays valid until the page is next written
+    public byte[] getPage(int page) {
+        return pages[page];
+    }
+
+    // records the page as written, the caller is expected to write to it
+    public byte[] getWritablePage(int page) {
+        if (generations[page] != generation) {
+            own(page, true);
+        }
+        if (written[page] != epoch) {
+            written[page] = epoch;
+            lastWritten = epoch;
+            pageChanged(page);
+        }
+        return pages[page];
+    }
+
+    public boolean isShared(int page) {
+        return generations[page] != generation;
+    }
+
+    // whether writes may go straight into the page's array: it is this memory's own and a write
+    // has already been recorded in this epoch
+    public boolean isWritable(int page) {
+        return generations[page] == generation && written[page] == epoch;
+    }
+
+    // starts a new epoch, what is written from now on is written since the returned mark
+    public long mark() {
+        epoch++;
+        pagesChanged();
+        return epoch;
+    }
+
+    public boolean isWrittenSince(int page, long mark) {
+        return written[page] >= mark;
+    }
+
+    public boolean hasWritesSince(long mark) {
+        return lastWritten >= mark;
+    }
+
+    // bit n of word n / 64 is page n
+    public long[] getWrittenPages(long mark) {
+        long[] bits = new long[(pages.length + 63) >> 6];
+        for (int page = 0; page < pages.length; page++) {
+            if (written[page] >= mark) {
+                bits[page >> 6] |= 1L << page;
+            }
+        }
+        return bits;
+    }
+
+    public Snapshot snapshot() {
+        generation++;
+        pagesChanged();
+        return new Snapshot(pages.clone());
+    }
+
+    public void restore(Snapshot snapshot) {
+        System.arraycopy(snapshot.pages, 0, pages, 0, pages.length);
+        generation++;
+        markAllWritten();
+        pagesChanged();
+    }
+
+    // takes on the other memory's pages, both go on sharing them until they write
+    public void share(PagedMemory source) {
+        if (source.size != size) {
+            throw new IllegalArgumentException("Memory sizes differ");
+        }
+        source.generation++;
+        source.pagesChanged();
+        System.arraycopy(source.pages, 0, pages, 0, pages.length);
+        generation++;
+        markAllWritten();
+        pagesChanged();
+    }
+
+    public void fill(byte value) {
+        for (int page = 0; page < pages.length; page++) {
+            if (generations[page] != generation) {
+                own(page, false);
+            }
+            Arrays.fill(pages[page], value);
+        }
+        markAllWritten();
+        pagesChanged();
+    }
+
+    public void copyTo(byte[] out, int length) {
+        copyPages(pages, out, length);
+    }
+
+    public void copyFrom(byte[] in, int length) {
+        for (int page = 0; page < pages.length && page << PAGE_SHIFT < length; page++) {
+            System.arraycopy(in, page << PAGE_SHIFT, getWritablePage(page), 0, Math.min(pages[page].length, length - (page << PAGE_SHIFT)));
+        }
+    }
+
+    public void saveState(ByteBuffer out) {
+        for (byte[] page : pages) {
+            out.put(page);
+        }
+    }
+
+    // every page is overwritten, shared ones are replaced without copying them first
+    public void loadState(ByteBuffer in) {
+        for (int page = 0; page < pages.length; page++) {
+            if (generations[page] != generation) {
+                own(page, false);
+            }
+            in.get(pages[page]);
+        }
+        markAllWritten();
+        pagesChanged();
+    }
+
+    // told a page's index whenever its array is replaced, it becomes shared, a new epoch starts or
+    // its first write in the epoch is recorded
+    public void setPageListener(IntConsumer listener) {
+        this.pageListener = listener;
+    }
+
+    public int getSize() { return size; }
+    public int getPageCount() { return pages.length; }
+
+    private void own(int page, boolean keep) {
+        pages[page] = keep ? pages[page].clone() : new byte[pageLength(page)];
+        generations[page] = generation;
+        pageChanged(page);
+    }
+
+    private static void copyPages(byte[][] pages, byte[] out, int length) {
+        for (int page = 0; page < pages.length && page << PAGE_SHIFT < length; page++) {
+            System.arraycopy(pages[page], 0, out, page << PAGE_SHIFT, Math.min(pages[page].length, length - (page << PAGE_SHIFT)));
+        }
+    }
+
+    private void markAllWritten() {
+        Arrays.fill(written, epoch);
+        lastWritten = epoch;
+    }
+
+    private void pageChanged(int page) {
+        if (pageListener != null) {
+            pageListener.accept(page);
+        }
+    }
+
+    private void pagesChanged() {
+        for (int page = 0; page < pages.length; page++) {
+            pageChanged(page);
+        }
+    }
+
+    private int pageLength(int page) {
+        return Math.min(PAGE_SIZE, size - (page << PAGE_SHIFT));
+    }
+
+}
@@ -0,0 +1,13 @@
+package shared;
+
+import java.nio.ByteBuffer;
+
+// a component whose state goes into a save state. loadState reads exactly what saveState wrote,
+// in the same order, the buffer is little endian
+
+public interface Stateful {
+
+    void saveState(ByteBuffer out);
+    void loadState(ByteBuffer in);
+
+}
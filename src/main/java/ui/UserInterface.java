@@ -27,6 +27,8 @@ import ui.panels.*;
 
 import javafx.application.Platform;
 
+import java.util.concurrent.TimeUnit;
+
 public class UserInterface extends Application {
 
     private Overlord overlord;
@@ -169,9 +171,25 @@ public class UserInterface extends Application {
 
         focusManager = new FocusManager(scene, keyboardSource);
 
+        // rewind runs while backspace is held, when it is enabled in the Video menu
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.BACK_SPACE && !(scene.getFocusOwner() instanceof TextInputControl)) {
+                overlord.setRewinding(true);
+            }
+        });
+        scene.addEventFilter(KeyEvent.KEY_RELEASED, e -> {
+            if (e.getCode() == KeyCode.BACK_SPACE) {
+                overlord.setRewinding(false);
+            }
+        });
+
         primaryStage.setOnCloseRequest(e -> {
             screenPanel.stop();
             terminalPanel.restore();
+            // the battery save is written in the background, give it a moment to finish
+            try {
+                overlord.closeBatteryFile().get(2, TimeUnit.SECONDS);
+            } catch (Exception ignored) {}
             System.exit(0);
         });
         primaryStage.show();
@@ -57,6 +57,7 @@ public class BackupUserInterface extends Application {
         inputHandler = new InputHandler();
         emulator.setInputProvider(inputHandler);
         emulator.setFrameLimitEnabled(true);
+        emulator.setFailureListener(e -> Platform.runLater(() -> showError("Emulation problem", e.getMessage())));
 
         Thread emuThread = new Thread(emulator, "Emulator Thread");
         emuThread.setDaemon(true);
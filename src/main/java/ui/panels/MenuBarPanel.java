@@ -3,12 +3,14 @@ package ui.panels;
 import cart.exceptions.UnsupportedCartridgeException;
 import cart.util.CartridgeLoader;
 import core.Overlord;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import mtc.PacingMode;
 import save.SaveManager;
 import ui.dialog.InputSettingsDialog;
 import ui.dialog.VideoSettingsDialog;
@@ -26,6 +28,9 @@ public class MenuBarPanel extends HBox {
 
     private MenuItem saveGameItem;
     private MenuItem loadGameItem;
+    private MenuItem saveStateItem;
+    private MenuItem loadStateItem;
+    private CheckMenuItem idleSkipToggle;
 
     private File romFile;
 
@@ -76,6 +81,11 @@ public class MenuBarPanel extends HBox {
         loadGameItem = new MenuItem("Load Game");
         loadGameItem.setOnAction(e -> loadGame());
 
+        saveStateItem = new MenuItem("Save State");
+        saveStateItem.setOnAction(e -> saveState());
+
+        loadStateItem = new MenuItem("Load State");
+        loadStateItem.setOnAction(e -> loadState());
 
         MenuItem exit = new MenuItem("Exit");
         exit.setOnAction(e -> System.exit(0));
@@ -87,6 +97,9 @@ public class MenuBarPanel extends HBox {
                 saveGameItem,
                 loadGameItem,
                 new SeparatorMenuItem(),
+                saveStateItem,
+                loadStateItem,
+                new SeparatorMenuItem(),
                 exit
         );
 
@@ -102,10 +115,65 @@ public class MenuBarPanel extends HBox {
                 emulator.setFrameLimitEnabled(frameLimitToggle.isSelected())
         );
 
+        Menu speedMenu = new Menu("Speed");
+        ToggleGroup speedGroup = new ToggleGroup();
+        String[] speedNames = { "1x", "2x", "4x", "Max" };
+        double[] speeds = { 1, 2, 4, 0 };
+        for (int i = 0; i < speedNames.length; i++) {
+            RadioMenuItem item = new RadioMenuItem(speedNames[i]);
+            item.setToggleGroup(speedGroup);
+            if (i == 0) item.setSelected(true);
+            final double speed = speeds[i];
+            item.setOnAction(e -> emulator.setSpeedMultiplier(speed));
+            speedMenu.getItems().add(item);
+        }
+
+        Menu frameSkipMenu = new Menu("Frame Skip");
+        ToggleGroup frameSkipGroup = new ToggleGroup();
+        String[] frameSkipNames = { "Off", "1 of 2", "1 of 4", "1 of 8" };
+        int[] frameSkips = { 1, 2, 4, 8 };
+        for (int i = 0; i < frameSkipNames.length; i++) {
+            RadioMenuItem item = new RadioMenuItem(frameSkipNames[i]);
+            item.setToggleGroup(frameSkipGroup);
+            if (i == 0) item.setSelected(true);
+            final int frames = frameSkips[i];
+            item.setOnAction(e -> emulator.setFrameSkip(frames));
+            frameSkipMenu.getItems().add(item);
+        }
+
+        Menu pacingMenu = new Menu("Frame Pacing");
+        ToggleGroup pacingGroup = new ToggleGroup();
+        String[] pacingNames = { "Low CPU", "Hybrid", "Spin", "VSync" };
+        PacingMode[] pacingModes = { PacingMode.PARK, PacingMode.HYBRID, PacingMode.SPIN, PacingMode.EXTERNAL };
+        for (int i = 0; i < pacingNames.length; i++) {
+            RadioMenuItem item = new RadioMenuItem(pacingNames[i]);
+            item.setToggleGroup(pacingGroup);
+            if (i == 0) item.setSelected(true);
+            final PacingMode mode = pacingModes[i];
+            item.setOnAction(e -> emulator.setPacingMode(mode));
+            pacingMenu.getItems().add(item);
+        }
+
+        idleSkipToggle = new CheckMenuItem("Skip Idle Loops");
+        idleSkipToggle.setSelected(false);
+        idleSkipToggle.setOnAction(e -> setIdleSkip(idleSkipToggle.isSelected()));
+
+        CheckMenuItem rewindToggle = new CheckMenuItem("Rewind (hold Backspace)");
+        rewindToggle.setOnAction(e -> emulator.setRewindEnabled(rewindToggle.isSelected()));
+        emulator.setFailureListener(e -> Platform.runLater(() -> {
+            rewindToggle.setSelected(emulator.isRewindEnabled());
+            showFailure(e.getMessage());
+        }));
+
         videoMenu.getItems().addAll(
                 paletteSettings,
                 new SeparatorMenuItem(),
-                frameLimitToggle
+                frameLimitToggle,
+                speedMenu,
+                frameSkipMenu,
+                pacingMenu,
+                idleSkipToggle,
+                rewindToggle
         );
 
         Menu audioMenu = new Menu("Audio");
@@ -140,11 +208,18 @@ public class MenuBarPanel extends HBox {
 
                 saveManager.trackGame(file.getName(), file);
 
+                boolean idleSkip = saveManager.isIdleSkipEnabled(file);
+                idleSkipToggle.setSelected(idleSkip);
+                emulator.setIdleLoopSkipping(idleSkip);
+
                 if (emulator.isSaveCompatible() && saveManager.hasSaveFile(file)) {
 
                     byte[] saveData = saveManager.loadSave(file);
                     emulator.loadSaveData(saveData);
                 }
+                if (emulator.isSaveCompatible()) {
+                    emulator.setBatteryFile(saveManager.getSavePath(file));
+                }
 
                 setRomName(file.getName());
                 updateSaveMenuState();
@@ -158,14 +233,25 @@ public class MenuBarPanel extends HBox {
 
     private void closeRom() {
         if (!emulator.isPaused()) { emulator.togglePause(); }
-        if (romFile != null && emulator.isSaveCompatible()) {
-            saveManager.createSave(romFile, emulator.saveSaveData());
-        }
-
-        emulator.reset();
         romFile = null;
         setRomName(null);
         updateSaveMenuState();
+
+        // the battery save is written in the background, the core is reset once it is done unless
+        // another ROM was opened in the meantime
+        emulator.closeBatteryFile().thenRun(() -> Platform.runLater(() -> {
+            if (romFile == null) {
+                emulator.reset();
+            }
+        }));
+    }
+
+    // remembered per ROM, some titles poll in ways the skip does not model
+    private void setIdleSkip(boolean enabled) {
+        emulator.setIdleLoopSkipping(enabled);
+        if (romFile != null) {
+            saveManager.setIdleSkipEnabled(romFile, enabled);
+        }
     }
 
     public void setScreenPanel(ScreenPanel panel) {
@@ -212,13 +298,44 @@ public class MenuBarPanel extends HBox {
         updateSaveMenuState();
     }
 
-    private void updateSaveMenuState() {
+    // the state is taken between frames on the emulation thread and written off it
+    private void saveState() {
+        if (romFile == null || !emulator.isCartridgeLoaded()) return;
+
+        File rom = romFile;
+        emulator.saveState()
+                .thenAcceptAsync(state -> saveManager.createState(rom, state))
+                .thenRun(() -> Platform.runLater(this::updateSaveMenuState));
+    }
+
+    private void loadState() {
+        if (romFile == null || !emulator.isCartridgeLoaded()) return;
+
+        byte[] state = saveManager.loadState(romFile);
+        if (state != null) {
+            emulator.loadState(state);
+        }
+    }
+
+    private void showFailure(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Emulation");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.show();
+    }
+
+        private void updateSaveMenuState() {
         boolean canSave = romFile != null && emulator.isSaveCompatible();
 
         saveGameItem.setDisable(!canSave);
 
         boolean canLoad = canSave && saveManager.hasSaveFile(romFile);
         loadGameItem.setDisable(!canLoad);
+
+        boolean canSaveState = romFile != null && emulator.isCartridgeLoaded();
+        saveStateItem.setDisable(!canSaveState);
+        loadStateItem.setDisable(!canSaveState || !saveManager.hasStateFile(romFile));
     }
 
 }
\ No newline at end of file
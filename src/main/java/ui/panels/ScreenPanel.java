@@ -3,13 +3,18 @@ package ui.panels;
 import core.Overlord;
 import javafx.animation.AnimationTimer;
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelBuffer;
 import javafx.scene.image.PixelFormat;
-import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
+import ppu.FrameBuffer;
+import ppu.OutputMode;
+
+import java.nio.IntBuffer;
 
 public class ScreenPanel extends StackPane {
 
@@ -18,8 +23,12 @@ public class ScreenPanel extends StackPane {
     private static final int INITIAL_SCALE = 3;
 
     private final Canvas canvas;
-    private final WritableImage image;
-    private final int[] argbBuffer;
+
+    // one image per frame buffer, the PPU's pixels are shown in place
+    private final FrameBuffer frames;
+    private final PixelBuffer<IntBuffer>[] pixelBuffers;
+    private final WritableImage[] images;
+    private int front = -1;
 
     private final Overlord emulator;
     private AnimationTimer renderLoop;
@@ -42,8 +51,19 @@ public class ScreenPanel extends StackPane {
     public ScreenPanel(Overlord emulator) {
         this.emulator = emulator;
         this.canvas = new Canvas(GB_WIDTH * INITIAL_SCALE, GB_HEIGHT * INITIAL_SCALE);
-        this.image = new WritableImage(GB_WIDTH, GB_HEIGHT);
-        this.argbBuffer = new int[GB_WIDTH * GB_HEIGHT];
+        this.frames = emulator.getFrameBuffer();
+        @SuppressWarnings("unchecked")
+        PixelBuffer<IntBuffer>[] buffers = (PixelBuffer<IntBuffer>[]) new PixelBuffer<?>[FrameBuffer.BUFFERS];
+        this.pixelBuffers = buffers;
+        this.images = new WritableImage[FrameBuffer.BUFFERS];
+
+        // the PPU draws in the display palette, opaque so it is already premultiplied
+        emulator.setOutputMode(OutputMode.ARGB, PALETTES[currentPalette]);
+
+        for (int i = 0; i < FrameBuffer.BUFFERS; i++) {
+            pixelBuffers[i] = new PixelBuffer<>(GB_WIDTH, GB_HEIGHT, frames.getBuffer(i), PixelFormat.getIntArgbPreInstance());
+            images[i] = new WritableImage(pixelBuffers[i]);
+        }
 
         canvas.setFocusTraversable(true);
 
@@ -115,10 +135,9 @@ public class ScreenPanel extends StackPane {
             @Override
             public void handle(long now) {
                 if (emulator != null && emulator.isCartridgeLoaded()) {
-                    int[] frame = emulator.getFrame();
-                    if (frame != null) {
-                        renderFrame(frame);
-                    }
+                    // each pulse is the frame clock when pacing follows vsync
+                    emulator.signalFrameClock();
+                    renderFrame();
                 } else {
                     drawBackground();
                 }
@@ -127,35 +146,32 @@ public class ScreenPanel extends StackPane {
         renderLoop.start();
     }
 
-    private void renderFrame(int[] gbFrame) {
-        if (gbFrame.length != GB_WIDTH * GB_HEIGHT) {
-            return;
+    private void renderFrame() {
+        int index = frames.acquire();
+        if (index >= 0) {
+            front = index;
+            int top = frames.getDirtyTop(index);
+            int bottom = frames.getDirtyBottom(index);
+            if (top <= bottom) {
+                Rectangle2D dirty = new Rectangle2D(0, top, GB_WIDTH, bottom - top + 1);
+                pixelBuffers[index].updateBuffer(buffer -> dirty);
+            }
+            frames.clearDirty(index);
         }
 
-        int[] palette = PALETTES[currentPalette];
-
-        for (int i = 0; i < gbFrame.length; i++) {
-            argbBuffer[i] = palette[gbFrame[i] & 0x03];
+        if (front < 0) {
+            return;
         }
 
-        PixelWriter writer = image.getPixelWriter();
-        writer.setPixels(
-                0, 0,
-                GB_WIDTH, GB_HEIGHT,
-                PixelFormat.getIntArgbInstance(),
-                argbBuffer,
-                0,
-                GB_WIDTH
-        );
-
         GraphicsContext gc = canvas.getGraphicsContext2D();
         gc.setImageSmoothing(false);
-        gc.drawImage(image, 0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.drawImage(images[front], 0, 0, canvas.getWidth(), canvas.getHeight());
     }
 
     public void setPalette(int index) {
         if (index >= 0 && index < PALETTES.length) {
             currentPalette = index;
+            emulator.setOutputMode(OutputMode.ARGB, PALETTES[index]);
         }
     }
 
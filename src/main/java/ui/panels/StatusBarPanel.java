@@ -12,7 +12,9 @@ import javafx.scene.layout.Region;
 public class StatusBarPanel extends HBox {
 
     private final Label fpsLabel = new Label("FPS: --");
+    private final Label speedLabel = new Label("SPEED: --");
     private final Label frameLabel = new Label("FRAME: 0");
+    private final Label idleLabel = new Label("IDLE: 0");
     private final Overlord emulator;
 
     public StatusBarPanel(Overlord emulator) {
@@ -29,6 +31,11 @@ public class StatusBarPanel extends HBox {
         fpsLabel.setStyle("-fx-font-size: 9px; " +
                 "-fx-font-family: monospace; " +
                 "-fx-text-fill: -color-fg-muted;");
+        fpsLabel.setPadding(new Insets(0, 12, 0, 0));
+
+        speedLabel.setStyle("-fx-font-size: 9px; " +
+                "-fx-font-family: monospace; " +
+                "-fx-text-fill: -color-fg-muted;");
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
@@ -37,7 +44,12 @@ public class StatusBarPanel extends HBox {
                 "-fx-font-family: monospace; " +
                 "-fx-text-fill: -color-fg-muted;");
 
-        getChildren().addAll(fpsLabel, spacer, frameLabel);
+        idleLabel.setStyle("-fx-font-size: 9px; " +
+                "-fx-font-family: monospace; " +
+                "-fx-text-fill: -color-fg-muted;");
+        idleLabel.setPadding(new Insets(0, 12, 0, 0));
+
+        getChildren().addAll(fpsLabel, speedLabel, spacer, idleLabel, frameLabel);
 
         AnimationTimer updateTimer = new AnimationTimer() {
             private long lastUpdate = 0;
@@ -55,14 +67,18 @@ public class StatusBarPanel extends HBox {
 
     private void updateStatus() {
         if (emulator.isCartridgeLoaded()) {
-            double fps = emulator.getCore().getFPS();
+            double fps = emulator.getFPS();
             long frames = emulator.getFrameCount();
 
             fpsLabel.setText(String.format("FPS: %.1f", fps));
+            speedLabel.setText(String.format("SPEED: %.2fx", emulator.getSpeed()));
             frameLabel.setText(String.format("FRAME: %d", frames));
+            idleLabel.setText(String.format("IDLE: %d", emulator.getIdleSkippedCycles()));
         } else {
             fpsLabel.setText("FPS: --");
+            speedLabel.setText("SPEED: --");
             frameLabel.setText("FRAME: 0");
+            idleLabel.setText("IDLE: 0");
         }
     }
 }
\ No newline at end of file
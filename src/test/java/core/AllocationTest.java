@@ -0,0 +1,90 @@
+package core;
+
+import cart.Cartridge;
+import cpu.dispatch.DispatchMode;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the hot path must not allocate once warmed up: ALU results are packed ints, flags are deferred
+// as operands, frames go out through preallocated buffers. the JVM may still allocate now and
+// then on the emulation thread, so a run is allowed a small number of bytes per instruction, far
+// below the 16 bytes even one object per instruction would cost
+
+class AllocationTest {
+
+    private static final int WARMUP_FRAMES = 300;
+    private static final int MEASURED_FRAMES = 60;
+    private static final double MAX_BYTES_PER_INSTRUCTION = 0.01;
+
+    // one pass of the loop below runs 19 instructions in 104 cycles
+    private static final int LOOP_INSTRUCTIONS = 19;
+    private static final int LOOP_CYCLES = 104;
+
+    // an endless ALU, rotate and store loop over most of the flag writing instructions
+    private static final int[] ALU_LOOP = {
+            0x21, 0x00, 0xC0,   // ld hl, 0xC000
+            0x3C,               // inc a
+            0x80,               // add a, b
+            0x89,               // adc a, c
+            0x92,               // sub d
+            0x9B,               // sbc a, e
+            0xA4,               // and h
+            0xB5,               // or l
+            0xAA,               // xor d
+            0xBF,               // cp a
+            0x27,               // daa
+            0x07,               // rlca
+            0xCB, 0x10,         // rl b
+            0xCB, 0x39,         // srl c
+            0x04,               // inc b
+            0x0D,               // dec c
+            0x77,               // ld (hl), a
+            0x2C,               // inc l
+            0xE0, 0x80,         // ldh (0x80), a
+            0x18, 0xE9          // jr to inc a
+    };
+
+    @Test
+    void emulatedFramesDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (DispatchMode mode : DispatchMode.values()) {
+            for (int config = 0; config < 4; config++) {
+                boolean lazyFlags = (config & 1) != 0;
+                boolean jit = (config & 2) != 0;
+                String name = mode + (lazyFlags ? " lazy flags" : "") + (jit ? " jit" : "");
+
+                Core core = new Core(mode);
+                core.setFrameLimitEnabled(false);
+                core.setLazyFlags(lazyFlags);
+                core.setJitEnabled(jit);
+                core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00, ALU_LOOP)));
+
+                runFrames(core, WARMUP_FRAMES);
+
+                long cycles = core.getMTC().getTotalCycles();
+                long before = threads.getCurrentThreadAllocatedBytes();
+                runFrames(core, MEASURED_FRAMES);
+                long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+                long instructions = (core.getMTC().getTotalCycles() - cycles) * LOOP_INSTRUCTIONS / LOOP_CYCLES;
+
+                double perInstruction = (double) allocated / instructions;
+                assertTrue(perInstruction <= MAX_BYTES_PER_INSTRUCTION,
+                        name + " allocated " + allocated + " bytes over " + instructions + " instructions");
+            }
+        }
+    }
+
+    private static void runFrames(Core core, int frames) {
+        for (int i = 0; i < frames; i++) {
+            core.emulateFrame();
+        }
+    }
+
+}
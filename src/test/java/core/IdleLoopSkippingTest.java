@@ -0,0 +1,98 @@
+package core;
+
+import cart.Cartridge;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// skipped polling loops have to end on the same cycle as the loop run instruction by instruction,
+// so frames and the whole machine state match
+
+class IdleLoopSkippingTest {
+
+    private static final int FRAMES = 120;
+
+    // waits for LY 0x90, bumps a tile map byte and takes BGP from it, waits for line 0x90 to pass
+    private static final int[] LY_POLLING = {
+            0x21, 0x00, 0x98,       // ld hl, 0x9800
+            0xF0, 0x44,             // ldh a, (LY)
+            0xFE, 0x90,             // cp 0x90
+            0x20, 0xFA,             // jr nz, -6
+            0x34,                   // inc (hl)
+            0x7E,                   // ld a, (hl)
+            0xE0, 0x47,             // ldh (BGP), a
+            0xF0, 0x44,             // ldh a, (LY)
+            0xFE, 0x91,             // cp 0x91
+            0x20, 0xFA,             // jr nz, -6
+            0x18, 0xEE              // jr -18
+    };
+
+    // spins on the DIV register's low bits, then counts in WRAM
+    private static final int[] DIV_POLLING = {
+            0xF0, 0x04,             // ldh a, (DIV)
+            0xE6, 0x3F,             // and 0x3F
+            0x20, 0xFA,             // jr nz, -6
+            0xFA, 0x00, 0xC0,       // ld a, (0xC000)
+            0x3C,                   // inc a
+            0xEA, 0x00, 0xC0,       // ld (0xC000), a
+            0xE0, 0x47,             // ldh (BGP), a
+            0xF0, 0x04,             // ldh a, (DIV)
+            0xE6, 0x3F,             // and 0x3F
+            0x28, 0xFA,             // jr z, -6
+            0x18, 0xE9              // jr -23
+    };
+
+    @Test
+    void lyPollingMatchesThePlainInterpreter() {
+        compare(LY_POLLING);
+    }
+
+    @Test
+    void divPollingMatchesThePlainInterpreter() {
+        compare(DIV_POLLING);
+    }
+
+    private static void compare(int[] program) {
+        Core plain = start(program, false);
+        Core skipping = start(program, true);
+
+        List<Long> expected = run(plain);
+        List<Long> actual = run(skipping);
+
+        assertTrue(skipping.getIdleSkippedCycles() > 0, "nothing was skipped");
+        assertEquals(0, plain.getIdleSkippedCycles());
+        assertEquals(expected, actual);
+        assertEquals(plain.getMTC().getTotalCycles(), skipping.getMTC().getTotalCycles());
+        assertArrayEquals(plain.saveState(), skipping.saveState());
+    }
+
+    private static List<Long> run(Core core) {
+        List<Long> hashes = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            int[] pixels = core.runFrame();
+            crc.reset();
+            for (int pixel : pixels) {
+                crc.update(pixel);
+                crc.update(pixel >> 8);
+                crc.update(pixel >> 16);
+            }
+            hashes.add(crc.getValue());
+        }
+        return hashes;
+    }
+
+    private static Core start(int[] program, boolean idleSkip) {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.setIdleLoopSkipping(idleSkip);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00, program)));
+        return core;
+    }
+
+}
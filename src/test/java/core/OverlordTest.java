@@ -0,0 +1,38 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverlordTest {
+
+    private static final int MBC3_RAM_BATTERY = 0x13;
+    private static final int RAM_128K = 0x04;
+
+    @Test
+    void rewindOnLargestCartridgeRAMKeepsRunning() throws InterruptedException {
+        Overlord overlord = new Overlord();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        overlord.setFailureListener(failure::set);
+        overlord.setFrameLimitEnabled(false);
+        overlord.loadCartridge(TestRoms.build(MBC3_RAM_BATTERY, RAM_128K));
+        overlord.setRewindEnabled(true);
+
+        Thread thread = new Thread(overlord, "overlord-test");
+        thread.setDaemon(true);
+        thread.start();
+
+        long start = overlord.getFrameCount();
+        while (overlord.getFrameCount() < start + 30 && thread.isAlive()) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(thread.isAlive());
+        assertNull(failure.get());
+        assertTrue(overlord.isRewindEnabled());
+    }
+
+}
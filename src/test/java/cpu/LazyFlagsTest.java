@@ -0,0 +1,155 @@
+package cpu;
+
+import cart.Cartridge;
+import core.Core;
+import cpu.dispatch.DispatchMode;
+import cpu.register.RegisterFile;
+import cpu.register.enums.R16;
+import cpu.register.enums.R8;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// lazy flags against the eager ALU: every base and CB opcode from random registers and flags, each
+// followed by a random second instruction so flags still pending from the first are consumed too.
+// F is only read once the pair has run, reading it in between would settle the pending flags
+
+class LazyFlagsTest {
+
+    private static final int CODE = 0xC000;
+    private static final int TRIALS = 64;
+
+    // no instruction, or one that stops the CPU
+    private static final int[] SKIPPED = { 0x10, 0x76, 0xD3, 0xDB, 0xDD, 0xE3, 0xE4, 0xEB, 0xEC, 0xED, 0xF4, 0xFC, 0xFD };
+
+    private final Random random = new Random(0x5EED);
+    private Core eager;
+    private Core lazy;
+
+    @Test
+    void baseOpcodesMatchEagerFlags() {
+        for (DispatchMode mode : DispatchMode.values()) {
+            start(mode);
+            for (int opcode = 0; opcode < 0x100; opcode++) {
+                if (opcode != 0xCB && !isSkipped(opcode)) {
+                    compare(mode, false, opcode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cbOpcodesMatchEagerFlags() {
+        for (DispatchMode mode : DispatchMode.values()) {
+            start(mode);
+            for (int opcode = 0; opcode < 0x100; opcode++) {
+                compare(mode, true, opcode);
+            }
+        }
+    }
+
+    private void compare(DispatchMode mode, boolean cb, int opcode) {
+        for (int trial = 0; trial < TRIALS; trial++) {
+            String name = mode + " " + (cb ? "CB " : "") + String.format("%02X", opcode) + " trial " + trial;
+
+            int[] registers = new int[6];
+            for (int i = 0; i < registers.length; i++) {
+                registers[i] = random.nextInt(0x10000);
+            }
+            for (Core core : new Core[] { eager, lazy }) {
+                load(core, registers);
+            }
+
+            execute(cb, opcode, random.nextInt(0x10000));
+            assertSameRegisters(name, false);
+
+            boolean nextCB = random.nextInt(4) == 0;
+            int next = randomOpcode(nextCB);
+            execute(nextCB, next, random.nextInt(0x10000));
+            assertSameRegisters(name + ", then " + (nextCB ? "CB " : "") + String.format("%02X", next), true);
+        }
+    }
+
+    // the instruction is placed at CODE in both machines and run to its end
+    private void execute(boolean cb, int opcode, int operand) {
+        for (Core core : new Core[] { eager, lazy }) {
+            int address = CODE;
+            if (cb) {
+                core.getMMU().write(address++, 0xCB);
+            }
+            core.getMMU().write(address++, opcode);
+            core.getMMU().write(address++, operand & 0xFF);
+            core.getMMU().write(address, operand >> 8);
+
+            core.getRegisters().setPC(CODE);
+            core.getCPU().resume();
+            core.getCPU().disableInterrupts();
+            core.getCPU().step();
+            core.getCPU().finishInstruction();
+        }
+    }
+
+    // the stack stays in WRAM above the code
+    private static void load(Core core, int[] registers) {
+        RegisterFile file = core.getRegisters();
+        file.write(R16.BC, registers[0]);
+        file.write(R16.DE, registers[1]);
+        file.write(R16.HL, registers[2]);
+        file.write(R16.SP, 0xD000 + (registers[3] & 0x0FFE));
+        file.write(R8.A, registers[4] >> 8);
+        file.setFlagRegister(registers[5]);
+    }
+
+    private void assertSameRegisters(String name, boolean withFlags) {
+        RegisterFile expected = eager.getRegisters();
+        RegisterFile actual = lazy.getRegisters();
+
+        if (withFlags) {
+            assertEquals(expected.getFlagRegister(), actual.getFlagRegister(), name + " F");
+            assertEquals(expected.read(R16.AF), actual.read(R16.AF), name + " AF");
+        }
+        for (R8 register : new R8[] { R8.A, R8.B, R8.C, R8.D, R8.E, R8.H, R8.L }) {
+            assertEquals(expected.read(register), actual.read(register), name + " " + register);
+        }
+        assertEquals(expected.getSP(), actual.getSP(), name + " SP");
+        assertEquals(expected.getPC(), actual.getPC(), name + " PC");
+    }
+
+    private int randomOpcode(boolean cb) {
+        while (true) {
+            int opcode = random.nextInt(0x100);
+            if (cb || (opcode != 0xCB && !isSkipped(opcode))) {
+                return opcode;
+            }
+        }
+    }
+
+    private static boolean isSkipped(int opcode) {
+        for (int skipped : SKIPPED) {
+            if (skipped == opcode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void start(DispatchMode mode) {
+        eager = start(mode, false);
+        lazy = start(mode, true);
+    }
+
+    private static Core start(DispatchMode mode, boolean lazyFlags) {
+        Core core = new Core(mode);
+        core.setFrameLimitEnabled(false);
+        core.setJitEnabled(false);
+        core.setIdleLoopSkipping(false);
+        core.setLazyFlags(lazyFlags);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00)));
+        core.getMMU().write(0xFFFF, 0x00);
+        return core;
+    }
+
+}
@@ -0,0 +1,53 @@
+package cpu.jit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCompilerTest {
+
+    @Test
+    void compiledBlockRunsEveryInstruction() {
+        // ld a, 0x12; inc a; ld (0xC000), a; jr -2
+        byte[] rom = new byte[0x8000];
+        int[] code = { 0x3E, 0x12, 0x3C, 0xEA, 0x00, 0xC0, 0x18, 0xFE };
+        for (int i = 0; i < code.length; i++) {
+            rom[0x0150 + i] = (byte) code[i];
+        }
+
+        List<RuntimeException> failures = new ArrayList<>();
+        BlockCompiler compiler = new BlockCompiler();
+        compiler.setFailureListener(failures::add);
+        CompiledBlock block = compiler.compile(address -> rom[address], 0x0150);
+
+        assertNotNull(block);
+        List<String> calls = new ArrayList<>();
+        int retired = block.run(new BlockRuntime() {
+            @Override public boolean execute(int opcode) { return calls.add(String.format("%02X", opcode)); }
+            @Override public boolean executeCB(int opcode) { return calls.add("CB " + opcode); }
+            @Override public boolean executeStore(int opcode) { return calls.add(String.format("store %02X", opcode)); }
+            @Override public boolean executeStoreCB(int opcode) { return calls.add("store CB " + opcode); }
+        });
+
+        assertEquals(4, retired);
+        assertEquals(List.of("3E", "3C", "store EA", "18"), calls);
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    void haltIsLeftToTheInterpreter() {
+        byte[] rom = new byte[0x8000];
+        rom[0x0150] = 0x76;
+
+        List<RuntimeException> failures = new ArrayList<>();
+        BlockCompiler compiler = new BlockCompiler();
+        compiler.setFailureListener(failures::add);
+
+        assertNull(compiler.compile(address -> rom[address], 0x0150));
+        assertTrue(failures.isEmpty());
+    }
+
+}
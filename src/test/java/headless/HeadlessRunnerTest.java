@@ -0,0 +1,172 @@
+package headless;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ppu.FrameConstants;
+import support.TestRoms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessRunnerTest {
+
+    private static final int FRAMES = 30;
+
+    // the grey PngWriter writes for each shade
+    private static final int[] GREYS = { 0xFF, 0xAA, 0x55, 0x00 };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void runsTheFramesAndWritesTheFinalFrame() throws IOException, DataFormatException {
+        Path rom = Files.write(dir.resolve("stripes.gb"), stripes());
+        Path png = dir.resolve("frame.png");
+        Path hashes = dir.resolve("hashes.txt");
+
+        HeadlessResult result = new HeadlessRunner(HeadlessOptions.parse(new String[] {
+                "--headless", rom.toString(), "--frames", String.valueOf(FRAMES),
+                "--png", png.toString(), "--hashes", hashes.toString() })).run();
+
+        int[] expected = framesOnACore(stripes(), FRAMES);
+        assertEquals(FRAMES, result.frames());
+        assertTrue(result.cycles() >= FRAMES * 70_224L - 70_224L, "cycles " + result.cycles());
+        assertEquals(crc(expected), result.frameHash());
+
+        // stripes two pixels wide, dark and light, so a blank or shifted frame shows
+        assertEquals(3, expected[0]);
+        assertEquals(0, expected[1]);
+        assertEquals(3, expected[FrameConstants.WIDTH * 100 + 2]);
+
+        List<String> lines = Files.readAllLines(hashes);
+        assertEquals(FRAMES, lines.size());
+        assertEquals(String.format("%d %08x", FRAMES - 1, result.frameHash()), lines.get(FRAMES - 1));
+
+        assertArrayEquals(expected, readPng(Files.readAllBytes(png)));
+    }
+
+    @Test
+    void sameROMAndFramesGiveTheSameHash() throws IOException {
+        Path rom = Files.write(dir.resolve("stripes.gb"), stripes());
+        String[] args = { rom.toString(), "--frames", "12" };
+
+        long first = new HeadlessRunner(HeadlessOptions.parse(args)).run().frameHash();
+        long second = new HeadlessRunner(HeadlessOptions.parse(args)).run().frameHash();
+        assertEquals(first, second);
+    }
+
+    @Test
+    void predecodeKeepsTheFrameAndCountsItsLookups() throws IOException {
+        Path rom = Files.write(dir.resolve("stripes.gb"), stripes());
+
+        HeadlessResult plain = new HeadlessRunner(HeadlessOptions.parse(new String[] {
+                rom.toString(), "--frames", "12" })).run();
+        HeadlessResult predecoded = new HeadlessRunner(HeadlessOptions.parse(new String[] {
+                rom.toString(), "--frames", "12", "--predecode" })).run();
+
+        assertEquals(plain.frameHash(), predecoded.frameHash());
+        assertEquals(0, plain.predecodeHits() + plain.predecodeMisses());
+        // the fill loop and the final jr run from the cache after their first pass
+        assertTrue(predecoded.predecodeMisses() > 0, "misses " + predecoded.predecodeMisses());
+        assertTrue(predecoded.predecodeHitRate() > 0.99, "hit rate " + predecoded.predecodeHitRate());
+        assertTrue(predecoded.report().contains("predecode"), predecoded.report());
+    }
+
+    // turns the LCD off, fills tile 0 with alternating columns and turns it back on. the tile map
+    // is all zeros, so tile 0 covers the screen
+    private static byte[] stripes() {
+        return TestRoms.build(0x00, 0x00,
+                0x3E, 0x00, 0xE0, 0x40,         // ld a, 0; ldh (LCDC), a
+                0x21, 0x00, 0x80,               // ld hl, 0x8000
+                0x3E, 0xAA, 0x06, 0x10,         // ld a, 0xAA; ld b, 16
+                0x22, 0x05, 0x20, 0xFC,         // ld (hl+), a; dec b; jr nz, -4
+                0x3E, 0x91, 0xE0, 0x40,         // ld a, 0x91; ldh (LCDC), a
+                0x18, 0xFE);
+    }
+
+    private static int[] framesOnACore(byte[] rom, int frames) {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(rom));
+        for (int frame = 0; frame < frames; frame++) {
+            core.emulateFrame();
+        }
+        return core.getFrameBuffer().getFrame().clone();
+    }
+
+    private static long crc(int[] shades) {
+        byte[] bytes = new byte[shades.length];
+        for (int i = 0; i < shades.length; i++) {
+            bytes[i] = (byte) shades[i];
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    // the shades back from an unfiltered 8 bit greyscale PNG
+    private static int[] readPng(byte[] png) throws DataFormatException {
+        ByteBuffer in = ByteBuffer.wrap(png);
+        in.position(8);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int width = 0;
+        int height = 0;
+
+        while (in.hasRemaining()) {
+            int length = in.getInt();
+            byte[] type = new byte[4];
+            in.get(type);
+            byte[] body = new byte[length];
+            in.get(body);
+            in.getInt();
+
+            switch (new String(type, StandardCharsets.US_ASCII)) {
+                case "IHDR" -> {
+                    ByteBuffer header = ByteBuffer.wrap(body);
+                    width = header.getInt();
+                    height = header.getInt();
+                }
+                case "IDAT" -> data.write(body, 0, body.length);
+                default -> { }
+            }
+        }
+        assertEquals(FrameConstants.WIDTH, width);
+        assertEquals(FrameConstants.HEIGHT, height);
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(data.toByteArray());
+        byte[] raw = new byte[(width + 1) * height];
+        assertEquals(raw.length, inflater.inflate(raw));
+
+        int[] shades = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            assertEquals(0, raw[y * (width + 1)], "filter of row " + y);
+            for (int x = 0; x < width; x++) {
+                shades[y * width + x] = shadeOf(raw[y * (width + 1) + 1 + x] & 0xFF);
+            }
+        }
+        return shades;
+    }
+
+    private static int shadeOf(int grey) {
+        for (int shade = 0; shade < GREYS.length; shade++) {
+            if (GREYS[shade] == grey) {
+                return shade;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,72 @@
+package headless;
+
+import io.Button;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputScriptTest {
+
+    @Test
+    void eachLineReplacesTheHeldButtonsFromItsFrameOn() {
+        InputScript script = InputScript.parse(List.of(
+                "# title screen",
+                "",
+                "  120 START   # press start",
+                "126",
+                "300 a right",
+                "300 B"));
+
+        script.advance(0);
+        assertEquals(Set.of(), held(script));
+        script.advance(119);
+        assertEquals(Set.of(), held(script));
+        script.advance(120);
+        assertEquals(Set.of(Button.START), held(script));
+        script.advance(125);
+        assertEquals(Set.of(Button.START), held(script));
+        script.advance(126);
+        assertEquals(Set.of(), held(script));
+
+        // the last line for a frame wins
+        script.advance(300);
+        assertEquals(Set.of(Button.B), held(script));
+        script.advance(100_000);
+        assertEquals(Set.of(Button.B), held(script));
+    }
+
+    @Test
+    void skippedFramesStillApplyTheirLines() {
+        InputScript script = InputScript.parse(List.of("10 UP", "20 DOWN LEFT"));
+
+        script.advance(25);
+        assertEquals(Set.of(Button.DOWN, Button.LEFT), held(script));
+    }
+
+    @Test
+    void badLinesNameTheirLineNumber() {
+        assertError("line 2: bad frame x10", List.of("0 A", "x10 B"));
+        assertError("line 3: frames must not go backwards", List.of("5 A", "# comment", "4 B"));
+        assertError("line 1: unknown button JUMP", List.of("0 JUMP"));
+    }
+
+    private static void assertError(String expected, List<String> lines) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> InputScript.parse(lines));
+        assertTrue(e.getMessage().endsWith(expected), e.getMessage());
+    }
+
+    private static Set<Button> held(InputScript script) {
+        Set<Button> held = EnumSet.noneOf(Button.class);
+        for (Button button : Button.values()) {
+            if (script.isPressed(button)) {
+                held.add(button);
+            }
+        }
+        return held;
+    }
+
+}
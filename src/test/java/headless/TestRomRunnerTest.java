@@ -0,0 +1,103 @@
+package headless;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import support.TestRoms;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRomRunnerTest {
+
+    private static final long BUDGET = 70_224L * 60;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void serialPassedIsAPass() throws IOException {
+        TestRomResult result = run(serial("cpu_instrs\n\nPassed\n"));
+
+        assertEquals(TestVerdict.PASSED, result.verdict());
+        assertTrue(result.passed());
+        assertTrue(result.detail().endsWith("Passed"), result.detail());
+    }
+
+    @Test
+    void serialFailedIsAFail() throws IOException {
+        TestRomResult result = run(serial("01:ok  02:01\n\nFailed 1 tests.\n"));
+
+        assertEquals(TestVerdict.FAILED, result.verdict());
+        assertFalse(result.passed());
+    }
+
+    @Test
+    void mooneyeSerialBytesAreAVerdict() throws IOException {
+        assertEquals(TestVerdict.PASSED, run(serial(new String(new char[] { 3, 5, 8, 13, 21, 34 }))).verdict());
+        assertEquals(TestVerdict.FAILED, run(serial("BBBBBB")).verdict());
+    }
+
+    @Test
+    void mooneyeRegistersAreAVerdict() throws IOException {
+        TestRomResult passed = run(registers(0x0305, 0x080D, 0x1522));
+        assertEquals(TestVerdict.PASSED, passed.verdict());
+        assertEquals("BC=0305 DE=080D HL=1522", passed.detail());
+
+        assertEquals(TestVerdict.FAILED, run(registers(0x4242, 0x4242, 0x4242)).verdict());
+    }
+
+    @Test
+    void silentROMTimesOut() throws IOException {
+        TestRomResult result = run(TestRoms.build(0x00, 0x00));
+
+        assertEquals(TestVerdict.TIMEOUT, result.verdict());
+        assertTrue(result.cycles() >= BUDGET);
+    }
+
+    @Test
+    void unreadableROMIsAnError() throws IOException {
+        byte[] garbage = new byte[0x100];
+        Arrays.fill(garbage, (byte) 0x42);
+
+        assertEquals(TestVerdict.ERROR, run(garbage).verdict());
+        assertEquals(TestVerdict.ERROR, new TestRomRunner(BUDGET).run("missing", dir.resolve("missing.gb").toFile()).verdict());
+    }
+
+    private TestRomResult run(byte[] rom) throws IOException {
+        File file = Files.write(dir.resolve("test.gb"), rom).toFile();
+        return new TestRomRunner(BUDGET).run("test", file);
+    }
+
+    // ld a, n; ldh (SB), a; ld a, 0x81; ldh (SC), a for every character, then spins
+    private static byte[] serial(String text) {
+        int[] program = new int[text.length() * 8 + 2];
+        for (int i = 0; i < text.length(); i++) {
+            int at = i * 8;
+            program[at] = 0x3E;
+            program[at + 1] = text.charAt(i);
+            program[at + 2] = 0xE0;
+            program[at + 3] = 0x01;
+            program[at + 4] = 0x3E;
+            program[at + 5] = 0x81;
+            program[at + 6] = 0xE0;
+            program[at + 7] = 0x02;
+        }
+        program[program.length - 2] = 0x18;
+        program[program.length - 1] = 0xFE;
+        return TestRoms.build(0x00, 0x00, program);
+    }
+
+    private static byte[] registers(int bc, int de, int hl) {
+        return TestRoms.build(0x00, 0x00,
+                0x01, bc & 0xFF, bc >> 8,
+                0x11, de & 0xFF, de >> 8,
+                0x21, hl & 0xFF, hl >> 8,
+                0x18, 0xFE);
+    }
+
+}
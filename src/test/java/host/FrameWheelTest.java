@@ -0,0 +1,113 @@
+package host;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// wake up times are checked against generous bounds, a loaded host can always be late
+
+class FrameWheelTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void waitersWakeInDeadlineOrder() throws InterruptedException {
+        try (FrameWheel wheel = new FrameWheel()) {
+            long start = System.nanoTime();
+            int[] order = { 3, 0, 5, 1, 4, 2 };
+            Queue<Integer> woken = new ConcurrentLinkedQueue<>();
+            List<Thread> threads = new ArrayList<>();
+
+            for (int index : order) {
+                long deadline = start + 30 * MILLIS + index * 15 * MILLIS;
+                Thread thread = new Thread(() -> {
+                    wheel.awaitDeadline(deadline);
+                    woken.add(index);
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(List.of(0, 1, 2, 3, 4, 5), new ArrayList<>(woken));
+        }
+    }
+
+    @Test
+    void waitersWakeAtTheirDeadline() {
+        try (FrameWheel wheel = new FrameWheel()) {
+            for (int frame = 0; frame < 10; frame++) {
+                long deadline = System.nanoTime() + 7 * MILLIS + frame * MILLIS / 3;
+                wheel.awaitDeadline(deadline);
+                long woke = System.nanoTime();
+
+                assertTrue(woke >= deadline - FrameWheel.TICK_NANOS, "woke " + (deadline - woke) + "ns early");
+                assertTrue(woke < deadline + 30 * MILLIS, "woke " + (woke - deadline) + "ns late");
+            }
+        }
+    }
+
+    // further out than one turn of the wheel, the waiter is passed over until its round comes
+    @Test
+    void deadlinesBeyondTheWheelWaitForTheirRound() {
+        try (FrameWheel wheel = new FrameWheel()) {
+            long deadline = System.nanoTime() + 150 * MILLIS;
+            wheel.awaitDeadline(deadline);
+            long woke = System.nanoTime();
+
+            assertTrue(woke >= deadline - FrameWheel.TICK_NANOS, "woke " + (deadline - woke) + "ns early");
+            assertTrue(woke < deadline + 30 * MILLIS, "woke " + (woke - deadline) + "ns late");
+        }
+    }
+
+    // many waiters queued back to back against the wheel's own ticks, none may be left for a round
+    @Test
+    void waitersQueuedWhileTheWheelTurnsAreNotMissed() throws InterruptedException {
+        try (FrameWheel wheel = new FrameWheel()) {
+            List<Thread> threads = new ArrayList<>();
+            Queue<Long> lateness = new ConcurrentLinkedQueue<>();
+
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(() -> {
+                    for (int frame = 0; frame < 40; frame++) {
+                        long deadline = System.nanoTime() + MILLIS;
+                        wheel.awaitDeadline(deadline);
+                        lateness.add(System.nanoTime() - deadline);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // a missed slot is only found again a whole turn of the wheel later
+            long worst = lateness.stream().mapToLong(Long::longValue).max().orElse(0);
+            assertTrue(worst < 40 * MILLIS, "woke " + worst + "ns late");
+        }
+    }
+
+    @Test
+    void closeReleasesWaiters() throws InterruptedException {
+        FrameWheel wheel = new FrameWheel();
+        long start = System.nanoTime();
+        Thread thread = new Thread(() -> wheel.awaitDeadline(start + 5_000 * MILLIS));
+        thread.start();
+
+        Thread.sleep(20);
+        wheel.close();
+        thread.join(2_000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(System.nanoTime() - start < 1_000 * MILLIS);
+    }
+
+}
@@ -0,0 +1,86 @@
+package mem;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryManagementUnitTest {
+
+    // the last two WRAM pages have no echo, their mirror would land on 0xFE00 and 0xFF00. marking,
+    // clearing and DMA remap them and must leave whatever those pages are mapped to alone
+    @Test
+    void lastWRAMPagesLeaveTheMappingsAfterTheEchoAlone() {
+        MemoryManagementUnit mmu = start().getMMU();
+        PageTable pages = mmu.getPageTable();
+        byte[] oamPage = new byte[PageTable.PAGE_SIZE];
+        byte[] ioPage = new byte[PageTable.PAGE_SIZE];
+        pages.mapRead(0xFE00, 0xFE00, oamPage, 0);
+        pages.mapWrite(0xFE00, 0xFE00, oamPage, 0);
+        pages.mapRead(0xFF00, 0xFF00, ioPage, 0);
+        pages.mapWrite(0xFF00, 0xFF00, ioPage, 0);
+
+        exerciseLastWRAMPages(mmu);
+
+        oamPage[0x10] = 0x31;
+        ioPage[0x10] = 0x32;
+        assertEquals(0x31, pages.read(0xFE10));
+        assertEquals(0x32, pages.read(0xFF10));
+        assertTrue(pages.write(0xFE11, 0x41));
+        assertTrue(pages.write(0xFF11, 0x42));
+        assertEquals(0x41, oamPage[0x11]);
+        assertEquals(0x42, ioPage[0x11]);
+    }
+
+    @Test
+    void lastWRAMPagesLeaveOAMAndIOToTheHandlers() {
+        MemoryManagementUnit mmu = start().getMMU();
+        PageTable pages = mmu.getPageTable();
+
+        exerciseLastWRAMPages(mmu);
+
+        for (int address : new int[] { 0xFE00, 0xFF00 }) {
+            assertFalse(pages.isReadMapped(address), Integer.toHexString(address));
+            assertFalse(pages.isWriteMapped(address), Integer.toHexString(address));
+        }
+        assertTrue(pages.isWriteMapped(0xFD00));
+        assertEquals(0x21, mmu.read(0xFD10) & 0xFF);
+        assertEquals(0x22, mmu.read(0xDE10) & 0xFF);
+        assertEquals(0x23, mmu.read(0xDF10) & 0xFF);
+
+        mmu.write(0xFF80, 0x43);
+        mmu.write(0xFF47, 0xE4);
+        assertEquals(0x43, mmu.read(0xFF80) & 0xFF);
+        assertEquals(0xE4, mmu.read(0xFF47) & 0xFF);
+    }
+
+    private static void exerciseLastWRAMPages(MemoryManagementUnit mmu) {
+        for (int round = 0; round < 2; round++) {
+            mmu.getWWRAM().getMemory().mark();
+            mmu.write(0xDD10, 0x21);
+            mmu.write(0xDE10, 0x22);
+            mmu.write(0xDF10, 0x23);
+        }
+
+        // a DMA from WRAM blocks and then restores the reads of every WRAM page. started on the
+        // controller, a mapped 0xFF00 page would keep the write from its register
+        mmu.getDMA().write(0xDE);
+        assertTrue(mmu.getDMA().isActive());
+        mmu.remap();
+        while (mmu.getDMA().isActive()) {
+            mmu.getDMA().tick(4);
+        }
+        mmu.remap();
+    }
+
+    private static Core start() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00)));
+        core.emulateFrame();
+        return core;
+    }
+
+}
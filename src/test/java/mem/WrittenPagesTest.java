@@ -0,0 +1,115 @@
+package mem;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import shared.PagedMemory;
+import support.TestRoms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the first write to a page after a mark goes through the handler to be recorded, after that it
+// is mapped for direct writes until the next mark
+
+class WrittenPagesTest {
+
+    private static final int MBC3_RAM_BATTERY = 0x13;
+    private static final int RAM_32K = 0x03;
+
+    @Test
+    void writesMarkTheirPages() {
+        MemoryManagementUnit mmu = start().getMMU();
+        PagedMemory vram = mmu.getVRAM().getMemory();
+        PagedMemory wram = mmu.getWWRAM().getMemory();
+        long vramMark = vram.mark();
+        long wramMark = wram.mark();
+        long oamMark = mmu.getOAM().getMemory().mark();
+        long hramMark = mmu.getHRAM().getMemory().mark();
+
+        for (int address : new int[] { 0x8010, 0x9A00, 0xC123, 0xD0FE, 0xFE05, 0xFF90 }) {
+            mmu.write(address, 0x5A);
+        }
+        mmu.write(0xE205, 0x11);
+
+        assertTrue(vram.isWrittenSince(0x00, vramMark));
+        assertTrue(vram.isWrittenSince(0x1A, vramMark));
+        assertFalse(vram.isWrittenSince(0x01, vramMark));
+        assertFalse(vram.isWrittenSince(0x18, vramMark));
+        // the echo writes WRAM's pages
+        assertTrue(wram.isWrittenSince(0x01, wramMark));
+        assertTrue(wram.isWrittenSince(0x02, wramMark));
+        assertTrue(wram.isWrittenSince(0x10, wramMark));
+        assertFalse(wram.isWrittenSince(0x03, wramMark));
+        assertTrue(mmu.getOAM().getMemory().hasWritesSince(oamMark));
+        assertTrue(mmu.getHRAM().getMemory().hasWritesSince(hramMark));
+    }
+
+    @Test
+    void firstWriteMapsThePageAndAMarkUnmapsIt() {
+        MemoryManagementUnit mmu = start().getMMU();
+        PageTable pages = mmu.getPageTable();
+        mmu.getWWRAM().getMemory().mark();
+        mmu.getVRAM().getMemory().mark();
+
+        assertFalse(pages.isWriteMapped(0xC100));
+        assertFalse(pages.isWriteMapped(0xE100));
+        assertFalse(pages.isWriteMapped(0x9800));
+
+        mmu.write(0xC123, 0x77);
+        mmu.write(0x9800, 0x12);
+        assertTrue(pages.isWriteMapped(0xC100));
+        assertTrue(pages.isWriteMapped(0xE100));
+        assertTrue(pages.isWriteMapped(0x9800));
+
+        mmu.write(0xC124, 0x78);
+        assertEquals(0x77, mmu.read(0xC123) & 0xFF);
+        assertEquals(0x78, mmu.read(0xE124) & 0xFF);
+
+        long mark = mmu.getWWRAM().getMemory().mark();
+        mmu.getVRAM().getMemory().mark();
+        assertFalse(pages.isWriteMapped(0xC100));
+        assertFalse(pages.isWriteMapped(0xE100));
+        assertFalse(pages.isWriteMapped(0x9800));
+
+        mmu.write(0xC125, 0x79);
+        assertTrue(mmu.getWWRAM().getMemory().isWrittenSince(0x01, mark));
+        assertEquals(0x79, mmu.read(0xC125) & 0xFF);
+    }
+
+    @Test
+    void tileDataIsNeverMappedForWrites() {
+        MemoryManagementUnit mmu = start().getMMU();
+        long mark = mmu.getVRAM().getMemory().mark();
+
+        mmu.write(0x8010, 0x3C);
+
+        assertTrue(mmu.getVRAM().getMemory().isWrittenSince(0x00, mark));
+        assertFalse(mmu.getPageTable().isWriteMapped(0x8000));
+    }
+
+    @Test
+    void cartridgeRAMIsTrackedByBank() {
+        Core core = start();
+        MemoryManagementUnit mmu = core.getMMU();
+        PagedMemory ram = core.getCartridge().getRAMMemory();
+        long mark = ram.mark();
+
+        mmu.write(0x0000, 0x0A);
+        mmu.write(0x4000, 0x02);
+        mmu.write(0xA310, 0x07);
+
+        long[] written = ram.getWrittenPages(mark);
+        assertEquals(1L << (0x43 - 64), written[1]);
+        assertEquals(0, written[0]);
+        assertFalse(ram.isWrittenSince(0x03, mark));
+    }
+
+    private static Core start() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(MBC3_RAM_BATTERY, RAM_32K)));
+        core.emulateFrame();
+        return core;
+    }
+
+}
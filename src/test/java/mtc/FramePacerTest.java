@@ -0,0 +1,122 @@
+package mtc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// wake up times are checked against generous bounds, a loaded host can always be late
+
+class FramePacerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void pacedModesWaitForTheDeadline() {
+        for (PacingMode mode : new PacingMode[] { PacingMode.PARK, PacingMode.HYBRID, PacingMode.SPIN }) {
+            FramePacer pacer = new FramePacer();
+            pacer.setMode(mode);
+
+            for (int frame = 0; frame < 5; frame++) {
+                long deadline = System.nanoTime() + 10 * MILLIS;
+                pacer.waitUntil(deadline);
+                long woke = System.nanoTime();
+
+                // PARK wakes early by what it learned parkNanos oversleeps
+                assertTrue(woke >= deadline - MILLIS, mode + " woke " + (deadline - woke) + "ns early");
+                assertTrue(woke < deadline + 50 * MILLIS, mode + " woke " + (woke - deadline) + "ns late");
+            }
+        }
+    }
+
+    @Test
+    void deadlinesInThePastReturnAtOnce() {
+        for (PacingMode mode : PacingMode.values()) {
+            FramePacer pacer = new FramePacer();
+            pacer.setMode(mode);
+            pacer.signal();
+
+            long start = System.nanoTime();
+            pacer.waitUntil(start - 5 * MILLIS);
+            assertTrue(System.nanoTime() - start < 20 * MILLIS, mode.toString());
+        }
+    }
+
+    @Test
+    void externalIgnoresSignalsBeforeTheDeadline() throws Exception {
+        FramePacer pacer = new FramePacer();
+        pacer.setMode(PacingMode.EXTERNAL);
+
+        // a display pulsing every 4ms, much faster than frames are due
+        ScheduledExecutorService display = Executors.newSingleThreadScheduledExecutor();
+        try {
+            display.scheduleAtFixedRate(pacer::signal, 0, 4, TimeUnit.MILLISECONDS);
+
+            for (int frame = 0; frame < 3; frame++) {
+                long deadline = System.nanoTime() + 30 * MILLIS;
+                pacer.waitUntil(deadline);
+                long woke = System.nanoTime();
+
+                assertTrue(woke >= deadline, (deadline - woke) + "ns early");
+                assertTrue(woke < deadline + 25 * MILLIS, (woke - deadline) + "ns late");
+            }
+        } finally {
+            display.shutdownNow();
+        }
+    }
+
+    @Test
+    void externalFallsBackToTheDeadlineWithoutSignals() {
+        FramePacer pacer = new FramePacer();
+        pacer.setMode(PacingMode.EXTERNAL);
+
+        long deadline = System.nanoTime() + 5 * MILLIS;
+        pacer.waitUntil(deadline);
+        long woke = System.nanoTime();
+
+        assertTrue(woke >= deadline + 2 * TimingConstants.FRAME_TIME_NANOS);
+    }
+
+    // deadlines a period apart from the first frame, whatever the waits returned at
+    @Test
+    void framesAreDueAPeriodApart() {
+        List<Long> deadlines = new ArrayList<>();
+        FramePacer pacer = new FramePacer(deadlines::add);
+
+        long start = System.nanoTime();
+        assertFalse(pacer.awaitNextFrame(10 * MILLIS));
+        for (int frame = 0; frame < 4; frame++) {
+            assertTrue(pacer.awaitNextFrame(10 * MILLIS));
+        }
+
+        long first = deadlines.get(0);
+        assertTrue(first - start >= 10 * MILLIS);
+        for (int frame = 1; frame < deadlines.size(); frame++) {
+            assertEquals(first + frame * 10 * MILLIS, (long) deadlines.get(frame));
+        }
+    }
+
+    @Test
+    void farBehindOrRestartedStartsANewSchedule() throws InterruptedException {
+        List<Long> deadlines = new ArrayList<>();
+        FramePacer pacer = new FramePacer(deadlines::add);
+
+        pacer.awaitNextFrame(MILLIS);
+        Thread.sleep(10);
+        long late = System.nanoTime();
+        assertFalse(pacer.awaitNextFrame(MILLIS));
+        assertTrue(deadlines.get(1) >= late + MILLIS);
+
+        assertTrue(pacer.awaitNextFrame(MILLIS));
+        pacer.restart();
+        long restarted = System.nanoTime();
+        assertFalse(pacer.awaitNextFrame(MILLIS));
+        assertTrue(deadlines.get(3) >= restarted + MILLIS);
+    }
+
+}
@@ -0,0 +1,61 @@
+package mtc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitterHistogramTest {
+
+    @Test
+    void samplesLandInTheirBuckets() {
+        JitterHistogram histogram = new JitterHistogram();
+        histogram.record(0);
+        histogram.record(99_999);
+        histogram.record(100_000);
+        histogram.record(-250_000);
+        histogram.record(50_000_000);
+
+        assertEquals(2, histogram.getCount(0));
+        assertEquals(1, histogram.getCount(1));
+        assertEquals(1, histogram.getCount(2));
+        assertEquals(1, histogram.getCount(JitterHistogram.BUCKETS - 1));
+        assertEquals(5, histogram.getSamples());
+        assertEquals(50_000_000, histogram.getMaxNanos());
+        assertEquals((99_999 + 100_000 + 250_000 + 50_000_000) / 5.0, histogram.getMeanNanos(), 0.001);
+    }
+
+    @Test
+    void percentilesAreUpperBucketEdges() {
+        JitterHistogram histogram = new JitterHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(50_000);
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(350_000);
+        }
+        histogram.record(20_000_000);
+
+        assertEquals(100_000, histogram.percentileNanos(0.5));
+        assertEquals(100_000, histogram.percentileNanos(0.9));
+        assertEquals(400_000, histogram.percentileNanos(0.95));
+        assertEquals(400_000, histogram.percentileNanos(0.99));
+        // everything beyond the last edge reports the largest sample
+        assertEquals(20_000_000, histogram.percentileNanos(1.0));
+    }
+
+    @Test
+    void emptyAndResetReportZero() {
+        JitterHistogram histogram = new JitterHistogram();
+        assertEquals(0, histogram.percentileNanos(0.99));
+        assertEquals(0.0, histogram.getMeanNanos());
+
+        histogram.record(1_000_000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getSamples());
+        assertEquals(0, histogram.getCount(10));
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.percentileNanos(0.5));
+    }
+
+}
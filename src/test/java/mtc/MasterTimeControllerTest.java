@@ -0,0 +1,34 @@
+package mtc;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MasterTimeControllerTest {
+
+    // speed is measured once a second, over the cycles run since the last measurement
+    @Test
+    void speedStaysPositiveAcrossAnOlderState() throws InterruptedException {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00)));
+
+        core.emulateFrame();
+        byte[] early = core.saveState();
+        while (core.getSpeed() == 0) {
+            core.emulateFrame();
+        }
+        assertTrue(core.getSpeed() > 0);
+
+        // fewer cycles run after the load than before it
+        core.loadState(early);
+        Thread.sleep(1100);
+        core.emulateFrame();
+        assertTrue(core.getSpeed() > 0, "speed " + core.getSpeed());
+        assertTrue(core.getFPS() > 0, "fps " + core.getFPS());
+    }
+
+}
@@ -0,0 +1,82 @@
+package ppu;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameBufferTest {
+
+    @Test
+    void clearLeavesTheShownFrameAlone() {
+        FrameBuffer frames = new FrameBuffer();
+        fill(frames.getDrawBuffer(), 1);
+        frames.swapBuffers();
+        int shown = frames.acquire();
+        assertEquals(1, frames.getBuffer(shown).get(0));
+
+        fill(frames.getDrawBuffer(), 2);
+        frames.swapBuffers();
+        frames.clear(7);
+
+        // the display still holds its frame, what it picks up next is cleared
+        assertEquals(1, frames.getBuffer(shown).get(0));
+        int next = frames.acquire();
+        assertNotEquals(shown, next);
+        assertEquals(7, frames.getBuffer(next).get(FrameConstants.WIDTH * FrameConstants.HEIGHT - 1));
+        assertEquals(0, frames.getDirtyTop(next));
+        assertEquals(FrameConstants.HEIGHT - 1, frames.getDirtyBottom(next));
+        assertEquals(7, frames.getDrawBuffer().get(0));
+        assertNotEquals(next, indexOf(frames, frames.getDrawBuffer()));
+    }
+
+    @Test
+    void stillScreenReportsNoChangedLines() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00)));
+        FrameBuffer frames = core.getFrameBuffer();
+
+        // every buffer has been drawn once and shown
+        for (int frame = 0; frame < 8; frame++) {
+            core.emulateFrame();
+            int index = frames.acquire();
+            if (index >= 0) {
+                frames.clearDirty(index);
+            }
+        }
+
+        core.emulateFrame();
+        int index = frames.acquire();
+        assertTrue(index >= 0);
+        assertTrue(frames.getDirtyTop(index) > frames.getDirtyBottom(index));
+
+        // a changed palette changes every line
+        core.getMMU().write(0xFF47, 0x1B);
+        core.emulateFrame();
+        core.emulateFrame();
+        index = frames.acquire();
+        assertEquals(0, frames.getDirtyTop(index));
+        assertEquals(FrameConstants.HEIGHT - 1, frames.getDirtyBottom(index));
+    }
+
+    private static int indexOf(FrameBuffer frames, IntBuffer buffer) {
+        for (int i = 0; i < FrameBuffer.BUFFERS; i++) {
+            if (frames.getBuffer(i) == buffer) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void fill(IntBuffer buffer, int color) {
+        for (int p = 0; p < buffer.capacity(); p++) {
+            buffer.put(p, color);
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+package save;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shared.PagedMemory;
+import support.TestRoms;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatteryWriterTest {
+
+    private static final int MBC3_RAM_BATTERY = 0x13;
+    private static final int RAM_32K = 0x03;
+    private static final long FRAME = 16_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unchangedMemoryIsNotWritten() throws Exception {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0xFF);
+        Path file = directory.resolve("game.sav");
+        BatteryWriter writer = new BatteryWriter(memory, file);
+
+        for (long now = 0; now < BatteryWriter.MAX_DELAY_NANOS * 2; now += FRAME) {
+            writer.poll(now);
+        }
+        assertFalse(writer.hasUnsavedChanges());
+
+        writer.close().get(5, TimeUnit.SECONDS);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void writesWaitForTheMemoryToSettle() throws Exception {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0xFF);
+        Path file = directory.resolve("game.sav");
+        BatteryWriter writer = new BatteryWriter(memory, file);
+
+        memory.write(0x0010, (byte) 1);
+        writer.poll(0);
+        assertTrue(writer.hasUnsavedChanges());
+
+        writer.poll(BatteryWriter.DEBOUNCE_NANOS - 1);
+        assertTrue(writer.hasUnsavedChanges());
+
+        // another change restarts the wait
+        memory.write(0x0110, (byte) 2);
+        writer.poll(BatteryWriter.DEBOUNCE_NANOS);
+        writer.poll(BatteryWriter.DEBOUNCE_NANOS * 2 - 1);
+        assertTrue(writer.hasUnsavedChanges());
+
+        writer.poll(BatteryWriter.DEBOUNCE_NANOS * 2);
+        assertFalse(writer.hasUnsavedChanges());
+
+        byte[] saved = awaitFile(file);
+        assertEquals(1, saved[0x0010]);
+        assertEquals(2, saved[0x0110]);
+        writer.close().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void changesThatNeverSettleAreWrittenAfterTheMaximumDelay() throws Exception {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0xFF);
+        BatteryWriter writer = new BatteryWriter(memory, directory.resolve("game.sav"));
+
+        long now = 0;
+        int page = 0;
+        while (now < BatteryWriter.MAX_DELAY_NANOS) {
+            // shares every page again, so each write is a change the writer sees
+            memory.snapshot();
+            memory.write((page++ % 32) << PagedMemory.PAGE_SHIFT, (byte) page);
+            writer.poll(now);
+            assertTrue(writer.hasUnsavedChanges(), "at " + now);
+            now += FRAME;
+        }
+
+        memory.write(0, (byte) 0);
+        writer.poll(now);
+        assertFalse(writer.hasUnsavedChanges());
+        writer.close().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void closeWritesWhatIsLeft() throws Exception {
+        PagedMemory memory = new PagedMemory(0x0200, (byte) 0x0F);
+        Path file = directory.resolve("game.sav");
+        BatteryWriter writer = new BatteryWriter(memory, file);
+
+        memory.write(0x01FF, (byte) 0x05);
+        writer.poll(0);
+        writer.close().get(5, TimeUnit.SECONDS);
+
+        byte[] saved = Files.readAllBytes(file);
+        assertEquals(0x0200, saved.length);
+        assertEquals(0x05, saved[0x01FF]);
+        assertEquals(0x0F, saved[0]);
+        assertNull(writer.getFailure());
+    }
+
+    @Test
+    void writtenSnapshotIsNotChangedByLaterWrites() throws Exception {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0);
+        Path file = directory.resolve("game.sav");
+        BatteryWriter writer = new BatteryWriter(memory, file);
+
+        memory.write(0x0400, (byte) 1);
+        writer.poll(0);
+        writer.flush();
+        memory.write(0x0400, (byte) 2);
+
+        assertEquals(1, awaitFile(file)[0x0400]);
+        writer.close().get(5, TimeUnit.SECONDS);
+        assertEquals(2, Files.readAllBytes(file)[0x0400]);
+    }
+
+    @Test
+    void atomicWriteReplacesTheFileAndLeavesNoTemporary() throws IOException {
+        Path file = directory.resolve("game.sav");
+        Files.write(file, new byte[] { 1, 2, 3, 4 });
+
+        SaveManager.writeAtomically(file, new byte[] { 5, 6 });
+
+        assertArrayEquals(new byte[] { 5, 6 }, Files.readAllBytes(file));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void overlappingAtomicWritesEachLeaveAWholeFile() throws Exception {
+        Path file = directory.resolve("game.sav");
+        byte[] first = new byte[0x8000];
+        byte[] second = new byte[0x8000];
+        Arrays.fill(first, (byte) 1);
+        Arrays.fill(second, (byte) 2);
+
+        // a manual save and the battery writer, both on the same file
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Void>> writes = new ArrayList<>();
+            for (byte[] data : List.of(first, second)) {
+                writes.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        SaveManager.writeAtomically(file, data);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        byte[] saved = Files.readAllBytes(file);
+        assertTrue(Arrays.equals(first, saved) || Arrays.equals(second, saved));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void failedWritesAreReported() throws Exception {
+        PagedMemory memory = new PagedMemory(0x0100, (byte) 0);
+        BatteryWriter writer = new BatteryWriter(memory, directory.resolve("missing").resolve("game.sav"));
+
+        memory.write(0, (byte) 1);
+        writer.poll(0);
+        writer.close().get(5, TimeUnit.SECONDS);
+
+        assertNotNull(writer.getFailure());
+    }
+
+    @Test
+    void resetLeavesTheSaveAlone() throws Exception {
+        Core core = new Core();
+        core.loadCartridge(new Cartridge(TestRoms.build(MBC3_RAM_BATTERY, RAM_32K)));
+        Cartridge cartridge = core.getCartridge();
+
+        byte[] save = new byte[cartridge.getRAMMemory().getSize()];
+        for (int i = 0; i < save.length; i++) {
+            save[i] = (byte) (i * 7);
+        }
+        Path file = Files.write(directory.resolve("game.sav"), save);
+        cartridge.loadSaveData(save);
+
+        BatteryWriter writer = new BatteryWriter(cartridge.getRAMMemory(), file);
+        core.reset();
+        for (long now = 0; now < BatteryWriter.MAX_DELAY_NANOS * 2; now += FRAME) {
+            writer.poll(now);
+        }
+        assertFalse(writer.hasUnsavedChanges());
+        writer.close().get(5, TimeUnit.SECONDS);
+
+        assertArrayEquals(save, Files.readAllBytes(file));
+        assertArrayEquals(save, cartridge.getSaveData());
+    }
+
+    private static byte[] awaitFile(Path file) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Files.exists(file)) {
+            assertTrue(System.nanoTime() < deadline, "nothing written");
+            Thread.sleep(5);
+        }
+        return Files.readAllBytes(file);
+    }
+
+}
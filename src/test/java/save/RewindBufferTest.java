@@ -0,0 +1,103 @@
+package save;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import support.TestRoms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewindBufferTest {
+
+    private static final int MBC3_RAM_BATTERY = 0x13;
+    private static final int RAM_128K = 0x04;
+
+    @Test
+    void stepsBackThroughLargestCartridgeRAM() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(MBC3_RAM_BATTERY, RAM_128K)));
+        core.getMMU().write(0x0000, 0x0A);
+
+        RewindBuffer rewind = new RewindBuffer(4 * 1024 * 1024, 1, 100);
+        List<byte[]> states = new ArrayList<>();
+
+        for (int frame = 0; frame < 10; frame++) {
+            core.getMMU().write(0x4000, frame & 0x0F);
+            core.getMMU().write(0xA000 + frame * 0x101, frame + 1);
+            core.emulateFrame();
+            rewind.onFrame(core);
+            states.add(core.saveState());
+        }
+        assertEquals(10, rewind.getStateCount());
+
+        for (int frame = 8; frame >= 0; frame--) {
+            assertTrue(rewind.stepBack(core));
+            assertArrayEquals(states.get(frame), core.saveState(), "frame " + frame);
+        }
+        assertFalse(rewind.stepBack(core));
+    }
+
+    // a ring a few deltas long, filled past its end several times. rings of many sizes are tried,
+    // so deltas end at every kind of place, some leaving old deltas past the point it wraps at
+    @Test
+    void wrapsAroundTheRingKeepingTheNewestStates() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00)));
+        List<byte[]> states = runFrames(core, new RewindBuffer(1, 1, 1), 60);
+
+        for (int capacity = 600; capacity < 1400; capacity += 7) {
+            RewindBuffer rewind = new RewindBuffer(capacity, 1, 100);
+            for (byte[] state : states) {
+                core.loadState(state);
+                rewind.capture(core);
+            }
+            assertNewestRestoredInOrder(core, rewind, states);
+        }
+    }
+
+    // more frames than state slots, the slot indices wrap
+    @Test
+    void wrapsAroundTheStateSlotsKeepingTheNewestStates() {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(0x00, 0x00)));
+
+        RewindBuffer rewind = new RewindBuffer(1024 * 1024, 1, 5);
+        List<byte[]> states = runFrames(core, rewind, 23);
+        assertEquals(6, rewind.getStateCount());
+
+        assertNewestRestoredInOrder(core, rewind, states);
+    }
+
+    private static List<byte[]> runFrames(Core core, RewindBuffer rewind, int frames) {
+        List<byte[]> states = new ArrayList<>();
+        for (int frame = 0; frame < frames; frame++) {
+            // deltas of different sizes, so they end at different places in the ring
+            for (int i = 0; i < 4 + frame % 7 * 4; i++) {
+                core.getMMU().write(0xC000 + (frame * 37 + i * 131) % 0x2000, frame + i);
+            }
+            core.emulateFrame();
+            rewind.onFrame(core);
+            states.add(core.saveState());
+        }
+        return states;
+    }
+
+    // every state still held comes back newest first, then nothing older
+    private static void assertNewestRestoredInOrder(Core core, RewindBuffer rewind, List<byte[]> states) {
+        int held = rewind.getStateCount();
+        assertTrue(held > 1 && held < states.size(), "held " + held);
+
+        for (int frame = states.size() - 2; frame >= states.size() - held; frame--) {
+            assertTrue(rewind.stepBack(core), "frame " + frame);
+            assertArrayEquals(states.get(frame), core.saveState(), "frame " + frame);
+        }
+        assertFalse(rewind.stepBack(core));
+    }
+
+}
@@ -0,0 +1,122 @@
+package save;
+
+import cart.Cartridge;
+import core.Core;
+import org.junit.jupiter.api.Test;
+import save.exceptions.InvalidSaveStateException;
+import support.TestRoms;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveStateTest {
+
+    private static final int MBC1_RAM_BATTERY = 0x03;
+    private static final int MBC3_RAM_BATTERY = 0x13;
+
+    private static final int RAM_64K = 0x05;
+    private static final int RAM_128K = 0x04;
+
+    private static final int PPU_SECTION = 9;
+
+    @Test
+    void largestCartridgeRAMRoundTrips() {
+        for (int type : new int[] { MBC1_RAM_BATTERY, MBC3_RAM_BATTERY }) {
+            for (int ramSize : new int[] { RAM_64K, RAM_128K }) {
+                String cart = "type " + type + " ram " + ramSize;
+                Core core = start(type, ramSize);
+
+                byte[] ram = new byte[core.getCartridge().getRAMMemory().getSize()];
+                new Random(type * 31 + ramSize).nextBytes(ram);
+                core.getCartridge().loadSaveData(ram);
+                runFrames(core, 3);
+
+                byte[] state = core.saveState();
+                assertTrue(state.length > ram.length, cart);
+                assertTrue(state.length <= core.getStateSize(), cart);
+
+                Core loaded = start(type, ramSize);
+                loaded.loadState(state);
+                assertArrayEquals(ram, loaded.getCartridge().getSaveData(), cart);
+                assertArrayEquals(state, loaded.saveState(), cart);
+
+                runFrames(core, 2);
+                runFrames(loaded, 2);
+                assertArrayEquals(core.saveState(), loaded.saveState(), cart);
+            }
+        }
+    }
+
+    @Test
+    void forkOfLargestCartridgeRAMMatches() {
+        Core core = start(MBC1_RAM_BATTERY, RAM_128K);
+        runFrames(core, 2);
+
+        Core fork = core.fork();
+        assertArrayEquals(core.saveState(), fork.saveState());
+    }
+
+    @Test
+    void stateOfAnotherROMIsRefused() {
+        byte[] state = start(MBC3_RAM_BATTERY, RAM_128K).saveState();
+        Core other = start(MBC1_RAM_BATTERY, RAM_128K);
+
+        assertThrows(InvalidSaveStateException.class, () -> other.loadState(state));
+    }
+
+    @Test
+    void truncatedStateIsRefused() {
+        Core core = start(MBC3_RAM_BATTERY, RAM_128K);
+        byte[] state = core.saveState();
+        byte[] truncated = Arrays.copyOf(state, state.length - 1);
+
+        assertThrows(InvalidSaveStateException.class, () -> core.loadState(truncated));
+    }
+
+    @Test
+    void damagedSectionLeavesTheMachineAsItWas() {
+        Core source = start(MBC3_RAM_BATTERY, RAM_128K);
+        runFrames(source, 2);
+        byte[] damaged = source.saveState();
+        // the PPU's mode, no such ordinal. every section before it would already be loaded
+        damaged[sectionStart(damaged, PPU_SECTION) + 11] = 0x40;
+
+        Core core = start(MBC3_RAM_BATTERY, RAM_128K);
+        byte[] ram = new byte[core.getCartridge().getRAMMemory().getSize()];
+        new Random(7).nextBytes(ram);
+        core.getCartridge().loadSaveData(ram);
+        runFrames(core, 5);
+        byte[] before = core.saveState();
+
+        assertThrows(InvalidSaveStateException.class, () -> core.loadState(damaged));
+        assertArrayEquals(before, core.saveState());
+    }
+
+    // where a section's contents begin, after the header and the sections before it
+    private static int sectionStart(byte[] state, int section) {
+        ByteBuffer in = ByteBuffer.wrap(state).order(ByteOrder.LITTLE_ENDIAN);
+        int position = 12;
+        for (int i = 0; i < section; i++) {
+            position += 6 + in.getInt(position + 2);
+        }
+        return position + 6;
+    }
+
+    private static Core start(int type, int ramSize) {
+        Core core = new Core();
+        core.setFrameLimitEnabled(false);
+        core.loadCartridge(new Cartridge(TestRoms.build(type, ramSize)));
+        return core;
+    }
+
+    private static void runFrames(Core core, int frames) {
+        for (int i = 0; i < frames; i++) {
+            core.emulateFrame();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedMemoryTest {
+
+    @Test
+    void writesMarkOnlyTheirPage() {
+        PagedMemory memory = new PagedMemory(0x8000, (byte) 0);
+        long mark = memory.mark();
+        assertFalse(memory.hasWritesSince(mark));
+
+        memory.write(0x0123, (byte) 1);
+        memory.write(0x01FF, (byte) 2);
+        memory.write(0x7F00, (byte) 3);
+
+        long[] expected = new long[2];
+        expected[0] = 1L << 0x01;
+        expected[1] = 1L << (0x7F - 64);
+        assertArrayEquals(expected, memory.getWrittenPages(mark));
+        assertTrue(memory.hasWritesSince(mark));
+        assertTrue(memory.isWrittenSince(0x01, mark));
+        assertTrue(memory.isWrittenSince(0x7F, mark));
+        assertFalse(memory.isWrittenSince(0x00, mark));
+        assertEquals(2, memory.read(0x01FF));
+    }
+
+    // a later mark taken by someone else leaves what an earlier one sees alone
+    @Test
+    void eachMarkSeesEverythingWrittenSinceIt() {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0);
+        long first = memory.mark();
+        memory.write(0x0000, (byte) 1);
+
+        long second = memory.mark();
+        memory.write(0x0100, (byte) 1);
+        assertTrue(memory.isWrittenSince(0, first));
+        assertTrue(memory.isWrittenSince(1, first));
+        assertFalse(memory.isWrittenSince(0, second));
+        assertTrue(memory.isWrittenSince(1, second));
+
+        long third = memory.mark();
+        memory.write(0x0010, (byte) 2);
+        assertTrue(memory.isWrittenSince(0, first));
+        assertTrue(memory.isWrittenSince(0, second));
+        assertTrue(memory.isWrittenSince(0, third));
+        assertFalse(memory.isWrittenSince(1, third));
+    }
+
+    @Test
+    void onlyOwnedPagesWrittenSinceTheLastMarkAreWritable() {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0);
+        assertTrue(memory.isWritable(0));
+
+        long mark = memory.mark();
+        assertFalse(memory.isWritable(0));
+
+        memory.write(0x0000, (byte) 1);
+        assertTrue(memory.isWritable(0));
+
+        memory.snapshot();
+        assertTrue(memory.isWrittenSince(0, mark));
+        assertFalse(memory.isWritable(0));
+    }
+
+    @Test
+    void firstWriteAfterAMarkIsReported() {
+        PagedMemory memory = new PagedMemory(0x2000, (byte) 0);
+        List<Integer> changed = new ArrayList<>();
+        memory.mark();
+        memory.setPageListener(changed::add);
+
+        memory.write(0x0305, (byte) 1);
+        memory.write(0x0306, (byte) 1);
+        assertEquals(List.of(3), changed);
+
+        memory.mark();
+        assertEquals(1 + memory.getPageCount(), changed.size());
+        memory.write(0x0307, (byte) 1);
+        assertEquals(List.of(3), changed.subList(changed.size() - 1, changed.size()));
+    }
+
+    @Test
+    void wholeMemoryChangesMarkEveryPage() {
+        PagedMemory memory = new PagedMemory(0x0800, (byte) 0);
+        PagedMemory.Snapshot snapshot = memory.snapshot();
+        ByteBuffer state = ByteBuffer.allocate(memory.getSize());
+        memory.saveState(state);
+
+        long mark = memory.mark();
+        memory.fill((byte) 0x55);
+        assertWritten(memory, 8, mark);
+
+        mark = memory.mark();
+        memory.restore(snapshot);
+        assertWritten(memory, 8, mark);
+
+        mark = memory.mark();
+        state.flip();
+        memory.loadState(state);
+        assertWritten(memory, 8, mark);
+
+        PagedMemory other = new PagedMemory(0x0800, (byte) 0);
+        mark = other.mark();
+        other.share(memory);
+        assertWritten(other, 8, mark);
+    }
+
+    private static void assertWritten(PagedMemory memory, int pages, long mark) {
+        assertTrue(memory.hasWritesSince(mark));
+        for (int page = 0; page < pages; page++) {
+            assertTrue(memory.isWrittenSince(page, mark), "page " + page);
+        }
+    }
+
+}
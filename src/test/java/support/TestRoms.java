@@ -0,0 +1,44 @@
+package support;
+
+import cart.constants.CartridgeConstants;
+
+// smallest cartridges the loader accepts: logo, header checksum, an entry that jumps to the
+// program at 0x150. without a program it loops there forever
+
+public final class TestRoms {
+
+    public static final int PROGRAM_START = 0x0150;
+
+    public static byte[] build(int type, int ramSize, int... program) {
+        byte[] rom = new byte[CartridgeConstants.MIN_ROM_SIZE];
+        System.arraycopy(CartridgeConstants.NINTENDO_LOGO, 0, rom, CartridgeConstants.LOGO_START,
+                CartridgeConstants.NINTENDO_LOGO.length);
+
+        // nop, jp 0x0150
+        rom[0x0101] = (byte) 0xC3;
+        rom[0x0102] = (byte) PROGRAM_START;
+        rom[0x0103] = (byte) (PROGRAM_START >> 8);
+
+        rom[CartridgeConstants.CARTRIDGE_TYPE] = (byte) type;
+        rom[CartridgeConstants.RAM_SIZE] = (byte) ramSize;
+
+        if (program.length == 0) {
+            program = new int[] { 0x18, 0xFE };     // jr -2
+        }
+        for (int i = 0; i < program.length; i++) {
+            rom[PROGRAM_START + i] = (byte) program[i];
+        }
+
+        int checksum = 0;
+        for (int address = 0x0134; address < CartridgeConstants.HEADER_CHECKSUM; address++) {
+            checksum = checksum - (rom[address] & 0xFF) - 1;
+        }
+        rom[CartridgeConstants.HEADER_CHECKSUM] = (byte) checksum;
+        return rom;
+    }
+
+    private TestRoms() {
+        throw new AssertionError("No instantiation for Utility classes");
+    }
+
+}